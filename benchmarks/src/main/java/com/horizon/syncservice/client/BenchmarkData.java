@@ -0,0 +1,78 @@
+package com.horizon.syncservice.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test data shared by the benchmarks, shaped like the payloads of a busy CSS.
+ */
+final class BenchmarkData {
+    static final String ORG_ID = "myorg";
+    static final String OBJECT_TYPE = "model";
+
+    private static final String[] STATUSES = {
+        ObjectStatus.PENDING, ObjectStatus.DELIVERING, ObjectStatus.DELIVERED, ObjectStatus.CONSUMED
+    };
+
+    private BenchmarkData() {
+    }
+
+    static SyncServiceMetaData metaData(int i) {
+        SyncServiceMetaData metaData = new SyncServiceMetaData();
+        metaData.setObjectType(OBJECT_TYPE);
+        metaData.setObjectID("object-" + i);
+        metaData.setDestType("edge-node");
+        metaData.setDestinationsList(new String[] {"edge-node:node-1", "edge-node:node-2", "gateway:gw-1"});
+        metaData.setVersion("1.0." + i);
+        metaData.setDescription("A model distributed to the edge nodes");
+        metaData.setExpiration("2030-01-01T00:00:00Z");
+        metaData.setActivationTime("2020-01-01T00:00:00Z");
+        return metaData;
+    }
+
+    static String metaDataListJson(ObjectMapper mapper, int size) throws JsonProcessingException {
+        List<SyncServiceMetaData> list = new ArrayList<SyncServiceMetaData>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(metaData(i));
+        }
+        return mapper.writeValueAsString(list);
+    }
+
+    static String objectStatusListJson(int size) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"orgID\":\"").append(ORG_ID)
+                .append("\",\"objectType\":\"").append(OBJECT_TYPE)
+                .append("\",\"objectID\":\"object-").append(i)
+                .append("\",\"status\":\"").append(STATUSES[i % STATUSES.length]).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    static String destinationStatusListJson(int size) {
+        return destinationStatusListJson(size, 0);
+    }
+
+    /**
+     * Get a list of destinations where the status of one destination in ten is shifted, so that a tenth of the
+     * destinations changed status compared with another shift.
+     */
+    static String destinationStatusListJson(int size, int shift) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"destinationType\":\"edge-node\",\"destinationID\":\"node-").append(i)
+                .append("\",\"status\":\"").append(STATUSES[(i + (i % 10 == 0 ? shift : 0)) % STATUSES.length])
+                .append("\",\"message\":\"\"}");
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,132 @@
+package com.horizon.syncservice.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link SyncServiceClient#fetchObjectData(SyncServiceMetaData) fetchObjectData} and
+ * {@link SyncServiceClient#updateObjectData(SyncServiceMetaData, byte[]) updateObjectData} for several payload
+ * sizes, against a local MockWebServer.
+ * <p>Divide the payload size by the average time to get the throughput in bytes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataTransferBenchmark {
+
+    @Param({"1024", "1048576", "16777216"})
+    public int payloadSize;
+
+    private MockWebServer server;
+    private SyncServiceRuntime runtime;
+    private SyncServiceClient client;
+    private SyncServiceMetaData metaData;
+    private byte[] payload;
+
+    /** A channel that discards what is written to it, so that only the client's copying is measured. */
+    private final WritableByteChannel discard = new WritableByteChannel() {
+        @Override
+        public int write(ByteBuffer src) {
+            int count = src.remaining();
+            src.position(src.limit());
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Setup
+    public void setup() throws IOException {
+        java.util.logging.Logger.getLogger(MockWebServer.class.getName()).setLevel(java.util.logging.Level.OFF);
+
+        payload = new byte[payloadSize];
+        new Random(42).nextBytes(payload);
+        final Buffer body = new Buffer().write(payload);
+
+        server = new MockWebServer();
+        // Uploaded bodies are read and discarded
+        server.setBodyLimit(0);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if ("GET".equals(request.getMethod())) {
+                    return new MockResponse().setBody(body.clone());
+                }
+                return new MockResponse().setResponseCode(204);
+            }
+        });
+        server.start();
+
+        runtime = new SyncServiceRuntime.Builder().build();
+        client = new SyncServiceClient.Builder().withRuntime(runtime).withUrl(server.url("/").url())
+                .withOrgID(BenchmarkData.ORG_ID).build();
+        metaData = BenchmarkData.metaData(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void drainRecordedRequests() throws InterruptedException {
+        while (server.takeRequest(0, TimeUnit.MILLISECONDS) != null) {
+            // MockWebServer records every request, don't let them pile up
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        runtime.shutdown();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public byte[] fetchBytes() throws SyncServiceException, IOException {
+        return client.fetchObjectData(metaData);
+    }
+
+    @Benchmark
+    public long fetchToChannel() throws SyncServiceException, IOException {
+        return client.fetchObjectData(metaData, discard);
+    }
+
+    @Benchmark
+    public void updateBytes() throws SyncServiceException, IOException {
+        client.updateObjectData(metaData, payload);
+    }
+
+    @Benchmark
+    public void updateStream() throws SyncServiceException, IOException {
+        client.updateObjectData(metaData, new ByteArrayInputStream(payload), payload.length);
+    }
+}
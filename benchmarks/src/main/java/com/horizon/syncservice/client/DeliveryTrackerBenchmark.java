@@ -0,0 +1,107 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Repeated checks of the delivery of an object sent to many destinations, with
+ * {@link SyncServiceClient#getObjectDestinations(String, String) getObjectDestinations} or with a
+ * {@link DeliveryTracker DeliveryTracker} on or off the heap, against a local MockWebServer.
+ * <p>Each response changes the status of a tenth of the destinations. Run with {@link BenchmarkRunner BenchmarkRunner}
+ * to compare the allocation rates per check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeliveryTrackerBenchmark {
+
+    @Param({"50000"})
+    public int destinations;
+
+    private MockWebServer server;
+    private SyncServiceRuntime runtime;
+    private SyncServiceClient client;
+    private DeliveryTracker heapTracker;
+    private DeliveryTracker offHeapTracker;
+    private final AtomicInteger transitions = new AtomicInteger();
+
+    @Setup
+    public void setup() throws IOException {
+        java.util.logging.Logger.getLogger(MockWebServer.class.getName()).setLevel(java.util.logging.Level.OFF);
+
+        final String[] bodies = {
+            BenchmarkData.destinationStatusListJson(destinations, 0),
+            BenchmarkData.destinationStatusListJson(destinations, 1)
+        };
+        final AtomicInteger requests = new AtomicInteger();
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setHeader("Content-Type", "application/json")
+                        .setBody(bodies[requests.getAndIncrement() & 1]);
+            }
+        });
+        server.start();
+
+        runtime = new SyncServiceRuntime.Builder().build();
+        client = new SyncServiceClient.Builder().withRuntime(runtime).withUrl(server.url("/").url())
+                .withOrgID(BenchmarkData.ORG_ID).build();
+        DeliveryTracker.Listener listener = (type, id, previous, current) -> transitions.incrementAndGet();
+        heapTracker = client.deliveryTracker(BenchmarkData.OBJECT_TYPE, "object-0").build(listener);
+        offHeapTracker = client.deliveryTracker(BenchmarkData.OBJECT_TYPE, "object-0").withOffHeapIndex(true)
+                .build(listener);
+    }
+
+    @TearDown(Level.Iteration)
+    public void drainRecordedRequests() throws InterruptedException {
+        while (server.takeRequest(0, TimeUnit.MILLISECONDS) != null) {
+            // MockWebServer records every request, don't let them pile up
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        runtime.shutdown();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public List<DestinationStatus> getObjectDestinations() throws SyncServiceException, IOException {
+        return client.getObjectDestinations(BenchmarkData.OBJECT_TYPE, "object-0");
+    }
+
+    @Benchmark
+    public int refreshHeapTracker() throws SyncServiceException, IOException {
+        return heapTracker.refresh();
+    }
+
+    @Benchmark
+    public int refreshOffHeapTracker() throws SyncServiceException, IOException {
+        return offHeapTracker.refresh();
+    }
+}
@@ -0,0 +1,115 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Jackson serialization and deserialization of the Sync Service payloads, using the ObjectMapper the client uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"10", "1000"})
+    public int listSize;
+
+    private ObjectWriter metaDataWriter;
+    private ObjectWriter payloadWriter;
+    private ObjectReader metaDataReader;
+    private ObjectReader metaDataListReader;
+    private ObjectReader objectStatusListReader;
+    private ObjectReader destinationStatusListReader;
+
+    private SyncServiceMetaData metaData;
+    private ObjectPayload payload;
+    private String metaDataListJson;
+    private byte[] metaDataListBytes;
+    private String objectStatusListJson;
+    private String destinationStatusListJson;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper mapper = new SyncServiceRuntime.Builder().build().getObjectMapper();
+        metaDataWriter = mapper.writerFor(SyncServiceMetaData.class);
+        payloadWriter = mapper.writerFor(ObjectPayload.class);
+        metaDataReader = mapper.readerFor(SyncServiceMetaData.class);
+        metaDataListReader = mapper.readerFor(new TypeReference<List<SyncServiceMetaData>>() { });
+        objectStatusListReader = mapper.readerFor(new TypeReference<List<ObjectStatus>>() { });
+        destinationStatusListReader = mapper.readerFor(new TypeReference<List<DestinationStatus>>() { });
+
+        metaData = BenchmarkData.metaData(0);
+        payload = new ObjectPayload(metaData);
+        metaDataListJson = BenchmarkData.metaDataListJson(mapper, listSize);
+        metaDataListBytes = metaDataListJson.getBytes(Charset.forName("UTF-8"));
+        objectStatusListJson = BenchmarkData.objectStatusListJson(listSize);
+        destinationStatusListJson = BenchmarkData.destinationStatusListJson(listSize);
+    }
+
+    @Benchmark
+    public byte[] serializeMetaData() throws IOException {
+        return metaDataWriter.writeValueAsBytes(metaData);
+    }
+
+    @Benchmark
+    public byte[] serializeObjectPayload() throws IOException {
+        return payloadWriter.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public List<SyncServiceMetaData> deserializeMetaDataList() throws IOException {
+        return metaDataListReader.readValue(metaDataListJson);
+    }
+
+    @Benchmark
+    public List<SyncServiceMetaData> deserializeMetaDataListFromBytes() throws IOException {
+        return metaDataListReader.readValue(metaDataListBytes);
+    }
+
+    /** Parses the same bytes as deserializeMetaDataListFromBytes, one element at a time. */
+    @Benchmark
+    public void streamMetaDataList(Blackhole blackhole) throws IOException {
+        ResponseBody body = ResponseBody.create(MediaType.parse("application/json"), metaDataListBytes);
+        JsonArrayIterator<SyncServiceMetaData> elements = new JsonArrayIterator<SyncServiceMetaData>(metaDataReader,
+                body);
+        while (elements.hasNext()) {
+            blackhole.consume(elements.next());
+        }
+    }
+
+    @Benchmark
+    public List<ObjectStatus> deserializeObjectStatusList() throws IOException {
+        return objectStatusListReader.readValue(objectStatusListJson);
+    }
+
+    @Benchmark
+    public List<DestinationStatus> deserializeDestinationStatusList() throws IOException {
+        return destinationStatusListReader.readValue(destinationStatusListJson);
+    }
+}
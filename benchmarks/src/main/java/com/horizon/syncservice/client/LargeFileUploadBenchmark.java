@@ -0,0 +1,120 @@
+package com.horizon.syncservice.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Uploads of large files, read through heap buffers with
+ * {@link SyncServiceClient#updateObjectData(SyncServiceMetaData, File) updateObjectData(SyncServiceMetaData, File)}
+ * or mapped into memory with
+ * {@link SyncServiceClient#updateObjectData(SyncServiceMetaData, Path) updateObjectData(SyncServiceMetaData, Path)},
+ * against a local MockWebServer that discards the data.
+ * <p>The file is written once and stays in the page cache, so the client's copying and CPU time are measured rather
+ * than the storage device. The uploadRange benchmark sends the second half of the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx512m"})
+public class LargeFileUploadBenchmark {
+    private static final int WRITE_SIZE = 1024 * 1024;
+
+    @Param({"268435456", "2147483648"})
+    public long fileSize;
+
+    private MockWebServer server;
+    private SyncServiceRuntime runtime;
+    private SyncServiceClient client;
+    private SyncServiceMetaData metaData;
+    private Path path;
+
+    @Setup
+    public void setup() throws IOException {
+        java.util.logging.Logger.getLogger(MockWebServer.class.getName()).setLevel(java.util.logging.Level.OFF);
+
+        path = Files.createTempFile("sync-benchmark", ".bin");
+        byte[] block = new byte[WRITE_SIZE];
+        new Random(42).nextBytes(block);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            for (long written = 0; written < fileSize; written += WRITE_SIZE) {
+                ByteBuffer buffer = ByteBuffer.wrap(block, 0, (int) Math.min(WRITE_SIZE, fileSize - written));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+
+        server = new MockWebServer();
+        // Uploaded bodies are read and discarded
+        server.setBodyLimit(0);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(204);
+            }
+        });
+        server.start();
+
+        runtime = new SyncServiceRuntime.Builder().build();
+        client = new SyncServiceClient.Builder().withRuntime(runtime).withUrl(server.url("/").url())
+                .withOrgID(BenchmarkData.ORG_ID).build();
+        metaData = BenchmarkData.metaData(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void drainRecordedRequests() throws InterruptedException {
+        while (server.takeRequest(0, TimeUnit.MILLISECONDS) != null) {
+            // MockWebServer records every request, don't let them pile up
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        runtime.shutdown();
+        server.shutdown();
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public void uploadFile() throws SyncServiceException, IOException {
+        client.updateObjectData(metaData, path.toFile());
+    }
+
+    @Benchmark
+    public void uploadMapped() throws SyncServiceException, IOException {
+        client.updateObjectData(metaData, path);
+    }
+
+    @Benchmark
+    public void uploadRange() throws SyncServiceException, IOException {
+        client.updateObjectData(metaData, path, fileSize / 2, fileSize - fileSize / 2);
+    }
+}
@@ -0,0 +1,98 @@
+package com.horizon.syncservice.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The heap retained by the metadata of {@value #OBJECTS} objects, deserialized by the ObjectMapper of a runtime with
+ * or without {@link SyncServiceRuntime.Builder#withStringDeduplication(int) withStringDeduplication}.
+ * <p>The objects are shaped like an inventory of a fleet: a few object types, destination types and versions. The retained bytes per object are reported next to the time taken to
+ * deserialize the list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class MetaDataFootprintBenchmark {
+    static final int OBJECTS = 1000000;
+    static final int VERSIONS = 16;
+    static final int OBJECT_TYPES = 8;
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    @Param({"false", "true"})
+    public boolean deduplicate;
+
+    private byte[] json;
+    private ObjectReader reader;
+
+    /** The heap retained by each deserialized object. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerObject;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        SyncServiceRuntime.Builder builder = new SyncServiceRuntime.Builder();
+        if (deduplicate) {
+            builder.withStringDeduplication(10000);
+        }
+        ObjectMapper mapper = builder.build().getObjectMapper();
+        reader = mapper.readerFor(new TypeReference<List<SyncServiceMetaData>>() { });
+
+        // Written one object at a time, so that the list is never held in memory in setup
+        ByteArrayOutputStream output = new ByteArrayOutputStream(OBJECTS * 400);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(output)) {
+            generator.writeStartArray();
+            for (int i = 0; i < OBJECTS; i++) {
+                SyncServiceMetaData metaData = BenchmarkData.metaData(i);
+                metaData.setObjectType(BenchmarkData.OBJECT_TYPE + "-" + (i % OBJECT_TYPES));
+                metaData.setVersion("1.0." + (i % VERSIONS));
+                mapper.writeValue(generator, metaData);
+            }
+            generator.writeEndArray();
+        }
+        json = output.toByteArray();
+    }
+
+    @Benchmark
+    public int deserialize(Footprint footprint) throws IOException {
+        long before = usedHeap();
+        List<SyncServiceMetaData> objects = reader.readValue(json);
+        footprint.bytesPerObject = (usedHeap() - before) / objects.size();
+        return objects.size();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
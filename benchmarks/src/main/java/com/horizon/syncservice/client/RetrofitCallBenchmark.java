@@ -0,0 +1,110 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import retrofit2.Retrofit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The client side overhead of a call through {@link RetrofitHelper RetrofitHelper}: the Retrofit proxy, the
+ * request building, the OkHttp interceptor chain and the response conversion.
+ * <p>An interceptor answers the calls with canned responses, so the network is not involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RetrofitCallBenchmark {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final MediaType TEXT = MediaType.parse("text/plain");
+    private static final byte[] STATUS = ObjectStatus.DELIVERED.getBytes(Charset.forName("UTF-8"));
+
+    private SyncServiceRuntime runtime;
+    private RetrofitHelper api;
+    private SyncServiceClient client;
+    private SyncServiceMetaData metaData;
+
+    @Setup
+    public void setup() {
+        final byte[] destinations = BenchmarkData.destinationStatusListJson(3).getBytes(Charset.forName("UTF-8"));
+        Interceptor cannedResponses = new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+                String path = request.url().encodedPath();
+                ResponseBody body;
+                if (path.endsWith("/status")) {
+                    body = ResponseBody.create(TEXT, STATUS);
+                } else if (path.endsWith("/destinations")) {
+                    body = ResponseBody.create(JSON, destinations);
+                } else {
+                    body = ResponseBody.create(JSON, new byte[0]);
+                }
+                return new Response.Builder().request(request).protocol(Protocol.HTTP_1_1)
+                        .code(200).message("OK").body(body).build();
+            }
+        };
+
+        runtime = new SyncServiceRuntime.Builder().build();
+        OkHttpClient httpClient = runtime.newHttpClientBuilder().addInterceptor(cannedResponses).build();
+        Retrofit retrofit = runtime.newRetrofitBuilder().baseUrl("http://localhost:8080/").client(httpClient).build();
+        api = new RetrofitHelper(BenchmarkData.ORG_ID, retrofit, runtime.getObjectMapper());
+        client = new SyncServiceClient(BenchmarkData.ORG_ID, api, ObjectInfoCache.DISABLED);
+        metaData = BenchmarkData.metaData(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        runtime.shutdown();
+    }
+
+    @Benchmark
+    public Request createCall() {
+        return api.getObjectStatus(BenchmarkData.OBJECT_TYPE, "object-0").request();
+    }
+
+    @Benchmark
+    public Request createCallWithJsonBody() {
+        return api.putObject(metaData.getObjectType(), metaData.getObjectID(), new ObjectPayload(metaData))
+                .request();
+    }
+
+    @Benchmark
+    public String getObjectStatus() throws SyncServiceException, IOException {
+        return client.getObjectStatus(BenchmarkData.OBJECT_TYPE, "object-0");
+    }
+
+    @Benchmark
+    public List<DestinationStatus> getObjectDestinations() throws SyncServiceException, IOException {
+        return client.getObjectDestinations(BenchmarkData.OBJECT_TYPE, "object-0");
+    }
+
+    @Benchmark
+    public void updateObject() throws SyncServiceException, IOException {
+        client.updateObject(metaData);
+    }
+}
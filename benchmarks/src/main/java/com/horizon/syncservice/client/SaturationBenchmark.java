@@ -0,0 +1,173 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.net.ServerSocketFactory;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Calls to a saturated Sync Service, with a fixed and with an adaptive concurrency limit.
+ * <p>A MockWebServer simulates a Sync Service with {@value #SERVER_WORKERS} workers, each taking
+ * {@value #SERVICE_MILLIS} milli-seconds per call. Calls beyond the workers queue, and once
+ * {@value #SERVER_QUEUE} calls are queued the server sheds the load with 503 responses. The benchmark threads
+ * outnumber what the server can serve, so the fixed limit lets them all through, while the adaptive limit should
+ * settle near the server's capacity: the same throughput of successful calls, with lower latency and fewer
+ * errors.
+ * <p>The server sockets disable Nagle's algorithm, otherwise the interaction with delayed acknowledgements adds
+ * about 40 milli-seconds to each response, which hides the latency of the simulated workers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(SaturationBenchmark.CLIENT_THREADS)
+@Fork(1)
+public class SaturationBenchmark {
+    static final int CLIENT_THREADS = 48;
+    static final int SERVER_WORKERS = 8;
+    static final int SERVER_QUEUE = 16;
+    static final int SERVICE_MILLIS = 2;
+
+    /** Held, so that the level set on it isn't lost. */
+    private static final Logger CLIENT_LOGGER = Logger.getLogger(SyncServiceClient.class.getName());
+
+    @Param({"fixed", "adaptive"})
+    public String limiter;
+
+    private MockWebServer server;
+    private SyncServiceRuntime runtime;
+    private SyncServiceClient client;
+
+    /** The outcomes of the calls, reported by JMH next to the throughput. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long succeeded;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            succeeded = 0;
+            failed = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        // Each 503 response would be logged
+        CLIENT_LOGGER.setLevel(java.util.logging.Level.OFF);
+
+        final Semaphore workers = new Semaphore(SERVER_WORKERS);
+        final AtomicInteger active = new AtomicInteger();
+        server = new MockWebServer();
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                try {
+                    if (active.incrementAndGet() > SERVER_WORKERS + SERVER_QUEUE) {
+                        return new MockResponse().setResponseCode(503).setBody("Overloaded");
+                    }
+                    workers.acquire();
+                    try {
+                        Thread.sleep(SERVICE_MILLIS);
+                    } finally {
+                        workers.release();
+                    }
+                    return new MockResponse().setBody(ObjectStatus.DELIVERED);
+                } finally {
+                    active.decrementAndGet();
+                }
+            }
+        });
+        server.start();
+
+        runtime = new SyncServiceRuntime.Builder().withMaxRequests(CLIENT_THREADS)
+                .withMaxRequestsPerHost(CLIENT_THREADS).withConnectionPool(CLIENT_THREADS, 60000).build();
+        SyncServiceClient.Builder builder = new SyncServiceClient.Builder().withRuntime(runtime)
+                .withUrl(server.url("/").url()).withOrgID(BenchmarkData.ORG_ID);
+        if (limiter.equals("adaptive")) {
+            builder.withAdaptiveConcurrencyPerOrg(SERVER_WORKERS / 2, CLIENT_THREADS);
+        } else {
+            builder.withMaxConcurrentCallsPerOrg(CLIENT_THREADS);
+        }
+        client = builder.build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        runtime.shutdown();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public String getObjectStatus(Outcomes outcomes) throws IOException {
+        try {
+            String status = client.getObjectStatus(BenchmarkData.OBJECT_TYPE, "object-0");
+            outcomes.succeeded++;
+            return status;
+        } catch (SyncServiceException ex) {
+            outcomes.failed++;
+            return null;
+        }
+    }
+
+    /** Creates server sockets whose connections have TCP_NODELAY set. */
+    static class NoDelayServerSocketFactory extends ServerSocketFactory {
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        // MockWebServer binds the unbound socket returned above
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@value #CALLERS} concurrent callers of the blocking API, each on its own platform thread or virtual thread.
+ * <p>The client lets {@value #MAX_CALLS} calls through at a time, the other callers wait for a permit. With
+ * platform threads each waiting caller holds a thread of its own; with virtual threads the callers park, and the
+ * JVM only needs its carrier threads, about one per core. The peak number of platform threads is reported next
+ * to the time taken by the callers.
+ * <p>Requires Java 21 or later.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+    static final int CALLERS = 10000;
+    static final int MAX_CALLS = 64;
+    static final int SERVICE_MILLIS = 1;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private MockWebServer server;
+    private SyncServiceRuntime runtime;
+    private SyncServiceClient client;
+
+    /** The peak number of live platform threads during the iteration. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PlatformThreads {
+        public long peak;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            THREADS.resetPeakThreadCount();
+            peak = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        server = new MockWebServer();
+        server.setServerSocketFactory(new SaturationBenchmark.NoDelayServerSocketFactory());
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                Thread.sleep(SERVICE_MILLIS);
+                return new MockResponse().setBody(ObjectStatus.DELIVERED);
+            }
+        });
+        server.start();
+
+        runtime = new SyncServiceRuntime.Builder().withConnectionPool(MAX_CALLS, 60000).build();
+        SyncServiceClient.Builder builder = new SyncServiceClient.Builder().withRuntime(runtime)
+                .withUrl(server.url("/").url()).withOrgID(BenchmarkData.ORG_ID)
+                .withMaxConcurrentCallsPerOrg(MAX_CALLS);
+        if (threads.equals("virtual")) {
+            builder.withVirtualThreads();
+        }
+        client = builder.build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        runtime.shutdown();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public int blockingCallers(PlatformThreads platformThreads) throws InterruptedException, ExecutionException {
+        List<Future<String>> results = new ArrayList<Future<String>>(CALLERS);
+        try (ExecutorService callers = threads.equals("virtual") ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newThreadPerTaskExecutor(Thread.ofPlatform().factory())) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(callers.submit(() -> client.getObjectStatus(BenchmarkData.OBJECT_TYPE, "object-0")));
+            }
+            int delivered = 0;
+            for (Future<String> result : results) {
+                if (ObjectStatus.DELIVERED.equals(result.get())) {
+                    delivered++;
+                }
+            }
+            platformThreads.peak = THREADS.getPeakThreadCount();
+            return delivered;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.horizon.syncservice.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers the acknowledgements of received, consumed and deleted objects, and sends them in batches.
+ * <p>The marks are buffered until the batch size is reached, or until the oldest buffered mark waited for the
+ * maximum delay, and are then sent concurrently with the asynchronous client. The application threads that mark
+ * objects don't wait for the Sync Service, each mark returns a future that is completed when the Sync Service
+ * acknowledged it.
+ * <p>The marks of an object are sent in the order they were made, a mark is sent only once the previous mark of
+ * the same object completed. A mark that repeats the previous mark of the same object, while that one is still
+ * pending, is not sent again, it shares the outcome of the previous one.
+ * <p>The number of marks that are buffered or in flight is limited. When the limit is reached, marking an object
+ * blocks until earlier marks complete.
+ * <p>Note: Use {@link SyncServiceClient#ackBatcher(int, long, int) SyncServiceClient.ackBatcher} to create an
+ * AckBatcher instance.
+ */
+public class AckBatcher implements AutoCloseable {
+
+    private static final String RECEIVED = "received";
+    private static final String CONSUMED = "consumed";
+    private static final String DELETED = "deleted";
+
+    private final SyncServiceAsyncClient client;
+    private final int maxBatchSize;
+    private final long maxDelayMillis;
+    private final int maxPending;
+    private final Semaphore permits;
+    private final ScheduledExecutorService timer;
+    /** The last mark sent of each object whose marks are in flight. */
+    private final ConcurrentMap<String, Ack> lastSent = new ConcurrentHashMap<String, Ack>();
+    /** Held while a batch is taken and sent, so that batches are sent in order. */
+    private final Object sendLock = new Object();
+
+    private List<Ack> buffer = new ArrayList<Ack>();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+
+    AckBatcher(SyncServiceAsyncClient client, ThreadFactory threadFactory, int maxBatchSize, long maxDelayMillis,
+            int maxPending) {
+        this.client = client;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxPending = maxPending;
+        this.permits = new Semaphore(maxPending);
+        this.timer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    /**
+     * Mark an object as having been received, in the next batch.
+     * @param metaData The metadata of the object that will be marked as having been received.
+     * @return A future completed when the Sync Service acknowledged the mark.
+     * @throws InterruptedException If the thread was interrupted while waiting for earlier marks to complete.
+     * @throws IllegalStateException If the batcher was closed.
+     */
+    public CompletableFuture<Void> markObjectReceived(SyncServiceMetaData metaData) throws InterruptedException {
+        return mark(metaData, RECEIVED);
+    }
+
+    /**
+     * Mark an object as having been consumed, in the next batch.
+     * @param metaData The metadata of the object that will be marked as having been consumed.
+     * @return A future completed when the Sync Service acknowledged the mark.
+     * @throws InterruptedException If the thread was interrupted while waiting for earlier marks to complete.
+     * @throws IllegalStateException If the batcher was closed.
+     */
+    public CompletableFuture<Void> markObjectConsumed(SyncServiceMetaData metaData) throws InterruptedException {
+        return mark(metaData, CONSUMED);
+    }
+
+    /**
+     * Mark an object as having been deleted, in the next batch.
+     * @param metaData The metadata of the object that will be marked as having been deleted.
+     * @return A future completed when the Sync Service acknowledged the mark.
+     * @throws InterruptedException If the thread was interrupted while waiting for earlier marks to complete.
+     * @throws IllegalStateException If the batcher was closed.
+     */
+    public CompletableFuture<Void> markObjectDeleted(SyncServiceMetaData metaData) throws InterruptedException {
+        return mark(metaData, DELETED);
+    }
+
+    /**
+     * Send the buffered marks now, without waiting for the batch to fill up.
+     */
+    public void flush() {
+        // Batches are sent in the order they were taken
+        synchronized (sendLock) {
+            List<Ack> batch;
+            synchronized (this) {
+                if (buffer.isEmpty()) {
+                    return;
+                }
+                batch = takeBatch();
+            }
+            send(batch);
+        }
+    }
+
+    /**
+     * Get the number of marks that are buffered or in flight.
+     * @return The number of pending marks.
+     */
+    public int getPending() {
+        return maxPending - permits.availablePermits();
+    }
+
+    /**
+     * Send the buffered marks, wait until all the marks completed, and stop the batcher.
+     * <p>If the thread is interrupted while waiting, the batcher is stopped without waiting for the marks in
+     * flight, and the thread's interrupt status is set.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flush();
+        timer.shutdown();
+        try {
+            permits.acquire(maxPending);
+            permits.release(maxPending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Void> mark(SyncServiceMetaData metaData, String operation) throws InterruptedException {
+        checkOpen();
+        permits.acquire();
+        Ack ack = new Ack(metaData, operation);
+        boolean full;
+        synchronized (this) {
+            if (closed) {
+                permits.release();
+                checkOpen();
+            }
+            buffer.add(ack);
+            full = buffer.size() >= maxBatchSize;
+            if (!full && scheduledFlush == null) {
+                scheduledFlush = timer.schedule(this::flush, maxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full) {
+            flush();
+        }
+        return ack.result;
+    }
+
+    private synchronized void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The acknowledgement batcher is closed");
+        }
+    }
+
+    /**
+     * Take the buffered marks. Must be called while holding the batcher's lock.
+     */
+    private List<Ack> takeBatch() {
+        List<Ack> batch = buffer;
+        buffer = new ArrayList<Ack>(Math.min(maxBatchSize, batch.size() * 2));
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    /**
+     * Send a batch of marks concurrently, chaining the marks of the same object.
+     * Must be called while holding sendLock.
+     */
+    private void send(List<Ack> batch) {
+        for (final Ack ack : batch) {
+            final String key = ack.metaData.getObjectType() + ':' + ack.metaData.getObjectID();
+            Ack previous = lastSent.put(key, ack);
+            if (previous == null) {
+                ack.call = operation(ack);
+            } else if (previous.operation.equals(ack.operation)) {
+                ack.call = previous.call;
+            } else {
+                ack.call = previous.call.handle((v, t) -> null).thenCompose(v -> operation(ack));
+            }
+            ack.call.whenComplete((v, t) -> {
+                lastSent.remove(key, ack);
+                permits.release();
+                if (t != null) {
+                    ack.result.completeExceptionally(t);
+                } else {
+                    ack.result.complete(null);
+                }
+            });
+        }
+    }
+
+    private CompletableFuture<Void> operation(Ack ack) {
+        try {
+            switch (ack.operation) {
+            case RECEIVED:
+                return client.markObjectReceived(ack.metaData);
+            case CONSUMED:
+                return client.markObjectConsumed(ack.metaData);
+            default:
+                return client.markObjectDeleted(ack.metaData);
+            }
+        } catch (RuntimeException ex) {
+            CompletableFuture<Void> failed = new CompletableFuture<Void>();
+            failed.completeExceptionally(ex);
+            return failed;
+        }
+    }
+
+    private static class Ack {
+        private final SyncServiceMetaData metaData;
+        private final String operation;
+        private final CompletableFuture<Void> result = new CompletableFuture<Void>();
+        private CompletableFuture<Void> call;
+
+        Ack(SyncServiceMetaData metaData, String operation) {
+            this.metaData = metaData;
+            this.operation = operation;
+        }
+    }
+}
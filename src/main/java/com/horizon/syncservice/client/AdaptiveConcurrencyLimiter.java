@@ -0,0 +1,80 @@
+package com.horizon.syncservice.client;
+
+/**
+ * An internal {@link ConcurrencyLimiter ConcurrencyLimiter} whose limit follows the capacity of the Sync Service,
+ * using additive increase and multiplicative decrease (AIMD).
+ * <p>The latency of the calls is compared with a baseline, the lowest latency of recent calls. While the latency
+ * stays close to the baseline and the window is in use, the limit grows by about one call per window of calls.
+ * When a call fails with an I/O error or a server error, or its latency rises well above the baseline, the Sync
+ * Service is taken to be saturated and the limit shrinks by a quarter. The limit shrinks at most once per window,
+ * since the calls of a saturated window all complete late. Cancelled calls are ignored, since their latency is the
+ * time until they were cancelled.
+ * <p>The baseline is the lowest latency of the previous window of {@value #BASELINE_SAMPLES} calls, and drifts up
+ * slowly when the latency stays higher, so that a lasting change of the network path is eventually accepted.
+ */
+class AdaptiveConcurrencyLimiter extends ConcurrencyLimiter {
+    static final int BASELINE_SAMPLES = 100;
+
+    /** A call is late if its latency exceeds the baseline by this factor. */
+    private static final double LATENCY_TOLERANCE = 2.0;
+    /** Latencies below this are too short to compare, and never count as late. */
+    private static final long MIN_LATE_NANOS = 2000000L;
+    private static final double DECREASE_RATIO = 0.75;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double estimate;
+    private long baselineNanos = Long.MAX_VALUE;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private int samplesSinceDecrease;
+
+    /**
+     * Constructor
+     * @param initialLimit The limit to start with.
+     * @param minLimit The lowest limit.
+     * @param maxLimit The highest limit.
+     */
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        super(initialLimit);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimate = initialLimit;
+    }
+
+    @Override
+    void onComplete(long latencyNanos, Outcome outcome) {
+        if (outcome == Outcome.CANCELLED) {
+            return;
+        }
+        updateBaseline(latencyNanos);
+        samplesSinceDecrease++;
+
+        int limit = getLimit();
+        boolean late = latencyNanos > MIN_LATE_NANOS && latencyNanos > baselineNanos * LATENCY_TOLERANCE;
+        if (outcome == Outcome.FAILURE || late) {
+            if (samplesSinceDecrease >= limit) {
+                estimate = Math.max(minLimit, estimate * DECREASE_RATIO);
+                samplesSinceDecrease = 0;
+            }
+        } else if (getInFlight() + 1 >= limit / 2) {
+            // Grow only while the window is used, an idle client learns nothing about the capacity
+            estimate = Math.min(maxLimit, estimate + 1.0 / estimate);
+        }
+        setLimit((int) estimate);
+    }
+
+    private void updateBaseline(long latencyNanos) {
+        windowMinNanos = Math.min(windowMinNanos, latencyNanos);
+        if (baselineNanos == Long.MAX_VALUE || latencyNanos < baselineNanos) {
+            baselineNanos = latencyNanos;
+        }
+        if (++windowSamples >= BASELINE_SAMPLES) {
+            if (windowMinNanos > baselineNanos) {
+                baselineNanos += (windowMinNanos - baselineNanos) / 4;
+            }
+            windowMinNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+}
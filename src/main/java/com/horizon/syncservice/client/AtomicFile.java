@@ -0,0 +1,121 @@
+package com.horizon.syncservice.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An internal file that is written under a temporary name in the directory of its target, and renamed to the
+ * target only once it is complete, so that the target is never seen truncated, even after a crash.
+ * <p>Closing the file before it is committed deletes the temporary file and leaves the target as it was.
+ */
+final class AtomicFile implements Closeable {
+    private static final int MAX_NAME_ATTEMPTS = 16;
+
+    private final Path path;
+    private final Path temp;
+    private final FileChannel channel;
+    private boolean committed;
+
+    private AtomicFile(Path path, Path temp, FileChannel channel) {
+        this.path = path;
+        this.temp = temp;
+        this.channel = channel;
+    }
+
+    /**
+     * Create the temporary file of a target.
+     * @param path The path of the target. It is replaced if it exists.
+     * @return The file, which the caller must close.
+     * @throws IOException If an I/O error occurred creating the temporary file.
+     */
+    static AtomicFile create(Path path) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path directory = target.getParent();
+        String prefix = "." + target.getFileName() + ".";
+        for (int attempt = 1; ; attempt++) {
+            // The temporary file is created with the default permissions, like the target would be
+            Path temp = directory.resolve(prefix + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                return new AtomicFile(target, temp,
+                        FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW));
+            } catch (FileAlreadyExistsException ex) {
+                if (attempt == MAX_NAME_ATTEMPTS) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the channel of the temporary file.
+     * @return The channel, positioned at the start of the file.
+     */
+    FileChannel channel() {
+        return channel;
+    }
+
+    /**
+     * Allocate the length of the file before it is written.
+     * <p>The file system is checked for enough usable space first, so that a large object that can't fit fails
+     * before it is transferred. The file is then extended to its length, which lets file systems with delayed
+     * allocation lay the data out in large extents as it is written.
+     * @param length The length of the file in bytes.
+     * @throws IOException If there is not enough usable space, or an I/O error occurred.
+     */
+    void preallocate(long length) throws IOException {
+        long usable = Files.getFileStore(temp).getUsableSpace();
+        if (usable < length) {
+            throw new IOException(String.format("Not enough space for %s: %d bytes needed, %d bytes usable", path,
+                    length, usable));
+        }
+        if (length > 0) {
+            channel.write(ByteBuffer.allocate(1), length - 1);
+        }
+    }
+
+    /**
+     * Complete the file: close it and rename it to its target atomically.
+     * @param sync <code>true</code> to flush the data of the file, and the rename, to the storage device.
+     * @throws IOException If an I/O error occurred. The temporary file is deleted when the file is closed.
+     */
+    void commit(boolean sync) throws IOException {
+        // The channel may be shorter than the preallocated length if the source ended early
+        channel.truncate(channel.position());
+        if (sync) {
+            channel.force(true);
+        }
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        committed = true;
+        if (sync) {
+            syncDirectory(path.getParent());
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            // Directories can't be opened or flushed on some platforms, the rename is flushed with the file system
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            try {
+                channel.close();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.horizon.syncservice.client;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Publishes many objects, sending the calls of several objects concurrently.
+ * <p>Each object is published by sending its metadata, as with
+ * {@link SyncServiceClient#updateObject(SyncServiceMetaData) updateObject}, and then its data, if any, once the
+ * metadata was accepted. Up to the publisher's limit of objects are in progress at the same time, so the time a
+ * batch takes depends on the throughput of the connections rather than on the round trip time to the Sync
+ * Service.
+ * <p>The failure of an object doesn't stop the batch, the outcome of each object is reported in its
+ * {@link Result Result}.
+ * <p>Note that the OkHttp dispatcher limits the number of concurrent calls to a host, to 5 by default. To publish
+ * more objects concurrently, create the client with a {@link SyncServiceRuntime SyncServiceRuntime} whose
+ * {@link SyncServiceRuntime.Builder#withMaxRequestsPerHost(int) maxRequestsPerHost} is at least as high.
+ * <p>Note: Use {@link SyncServiceClient#batchPublisher(int) SyncServiceClient.batchPublisher} to create a
+ * BatchPublisher instance.
+ */
+public class BatchPublisher {
+
+    private final SyncServiceAsyncClient client;
+    private final int maxConcurrentObjects;
+
+    BatchPublisher(SyncServiceAsyncClient client, int maxConcurrentObjects) {
+        this.client = client;
+        this.maxConcurrentObjects = maxConcurrentObjects;
+    }
+
+    /**
+     * Publish a batch of objects, and wait until all of them were published or failed.
+     * <p>The items are taken from the Iterable as the limit allows, so an Iterable that creates its items
+     * lazily, opening their data only when they are reached, keeps only the items in progress in memory.
+     * @param items The objects to publish.
+     * @return The {@link Result Result} of each object, in the order of the items.
+     * @throws InterruptedException If the thread was interrupted while waiting. The objects in progress continue
+     *              to be published, and no further objects are started.
+     */
+    public List<Result> publish(Iterable<? extends Item> items) throws InterruptedException {
+        return publish(items.iterator());
+    }
+
+    /**
+     * Publish a Stream of objects, and wait until all of them were published or failed.
+     * @param items The objects to publish.
+     * @return The {@link Result Result} of each object, in the order of the items.
+     * @throws InterruptedException If the thread was interrupted while waiting. The objects in progress continue
+     *              to be published, and no further objects are started.
+     * @see #publish(Iterable)
+     */
+    public List<Result> publish(Stream<? extends Item> items) throws InterruptedException {
+        return publish(items.iterator());
+    }
+
+    private List<Result> publish(Iterator<? extends Item> items) throws InterruptedException {
+        final Semaphore permits = new Semaphore(maxConcurrentObjects);
+        List<CompletableFuture<Result>> futures = new ArrayList<CompletableFuture<Result>>();
+        while (items.hasNext()) {
+            Item item = items.next();
+            permits.acquire();
+            CompletableFuture<Result> result = publishItem(item);
+            result.whenComplete((r, t) -> permits.release());
+            futures.add(result);
+        }
+
+        List<Result> results = new ArrayList<Result>(futures.size());
+        for (CompletableFuture<Result> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private CompletableFuture<Result> publishItem(final Item item) {
+        final CompletableFuture<Void> metaDataSent;
+        try {
+            metaDataSent = client.updateObject(item.metaData);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.completedFuture(new Result(item.metaData, false, ex));
+        }
+        CompletableFuture<Void> published = metaDataSent.thenCompose(v ->
+                item.data != null ? item.data.apply(client) : CompletableFuture.<Void>completedFuture(null));
+        return published.handle((v, t) -> {
+            boolean metaDataAccepted = metaDataSent.isDone() && !metaDataSent.isCompletedExceptionally();
+            Throwable error = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            return new Result(item.metaData, metaDataAccepted, error);
+        });
+    }
+
+    /**
+     * An object to publish: its metadata, and optionally its data.
+     */
+    public static class Item {
+        private final SyncServiceMetaData metaData;
+        private final Function<SyncServiceAsyncClient, CompletableFuture<Void>> data;
+
+        private Item(SyncServiceMetaData metaData, Function<SyncServiceAsyncClient, CompletableFuture<Void>> data) {
+            this.metaData = metaData;
+            this.data = data;
+        }
+
+        /**
+         * Create an item that publishes only an object's metadata.
+         * @param metaData The metadata of the object.
+         * @return The item.
+         */
+        public static Item of(SyncServiceMetaData metaData) {
+            return new Item(metaData, null);
+        }
+
+        /**
+         * Create an item that publishes an object's metadata and then its data from an array of bytes.
+         * @param metaData The metadata of the object.
+         * @param data The data of the object.
+         * @return The item.
+         */
+        public static Item of(SyncServiceMetaData metaData, byte[] data) {
+            return new Item(metaData, client -> client.updateObjectData(metaData, data));
+        }
+
+        /**
+         * Create an item that publishes an object's metadata and then its data from a file.
+         * @param metaData The metadata of the object.
+         * @param data The file containing the data of the object.
+         * @return The item.
+         */
+        public static Item of(SyncServiceMetaData metaData, File data) {
+            return new Item(metaData, client -> client.updateObjectData(metaData, data));
+        }
+
+        /**
+         * Create an item that publishes an object's metadata and then its data from an InputStream.
+         * <p>The stream is read on an OkHttp dispatcher thread, and is not closed.
+         * @param metaData The metadata of the object.
+         * @param data The stream to read the data of the object from.
+         * @param length The number of bytes to send, or -1 to send the whole stream.
+         * @return The item.
+         */
+        public static Item of(SyncServiceMetaData metaData, InputStream data, long length) {
+            return new Item(metaData, client -> client.updateObjectData(metaData, data, length));
+        }
+
+        /**
+         * Get the metadata of the object.
+         * @return The metadata.
+         */
+        public SyncServiceMetaData getMetaData() {
+            return metaData;
+        }
+    }
+
+    /**
+     * The outcome of publishing an object.
+     */
+    public static class Result {
+        private final SyncServiceMetaData metaData;
+        private final boolean metaDataSent;
+        private final Throwable error;
+
+        Result(SyncServiceMetaData metaData, boolean metaDataSent, Throwable error) {
+            this.metaData = metaData;
+            this.metaDataSent = metaDataSent;
+            this.error = error;
+        }
+
+        /**
+         * Get the metadata of the object.
+         * @return The metadata.
+         */
+        public SyncServiceMetaData getMetaData() {
+            return metaData;
+        }
+
+        /**
+         * Check whether the object was published: its metadata, and its data if any, were accepted.
+         * @return <code>true</code> if the object was published.
+         */
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        /**
+         * Check whether the object's metadata was accepted. If it was but the object was not published,
+         * sending the data failed.
+         * @return <code>true</code> if the metadata was accepted.
+         */
+        public boolean isMetaDataSent() {
+            return metaDataSent;
+        }
+
+        /**
+         * Get the error that prevented the object from being published.
+         * @return A {@link SyncServiceException SyncServiceException} if an error was returned from the Sync
+         *              Service, an IOException if an I/O error occurred, or <code>null</code> if the object was
+         *              published.
+         */
+        public Throwable getError() {
+            return error;
+        }
+    }
+}
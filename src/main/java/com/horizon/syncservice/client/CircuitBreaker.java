@@ -0,0 +1,85 @@
+package com.horizon.syncservice.client;
+
+/**
+ * An internal circuit breaker of one endpoint family.
+ * <p>The breaker is closed while calls succeed. It opens after a number of consecutive failures, and rejects calls
+ * until the open duration elapsed. It is then half open: a single trial call is let through, and the breaker
+ * closes if the trial succeeds, and opens again otherwise.
+ */
+class CircuitBreaker {
+
+    /** The states of a circuit breaker. */
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String family;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final SyncServiceMetrics metrics;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(String family, int failureThreshold, long openDurationMillis, SyncServiceMetrics metrics) {
+        this.family = family;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDurationMillis * 1000000L;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Check whether a call may be sent, and if it is the trial call of a half open breaker, take the trial.
+     * @return <code>true</code> if the call may be sent. The caller must then report its outcome with
+     *            {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+        case CLOSED:
+            return true;
+        case OPEN:
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return false;
+            }
+            setState(State.HALF_OPEN);
+            trialInFlight = true;
+            return true;
+        default:
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+            return true;
+        }
+    }
+
+    synchronized void onSuccess() {
+        failures = 0;
+        trialInFlight = false;
+        if (state != State.CLOSED) {
+            setState(State.CLOSED);
+        }
+    }
+
+    synchronized void onFailure() {
+        failures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            openedAt = System.nanoTime();
+            setState(State.OPEN);
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private void setState(State newState) {
+        state = newState;
+        if (metrics != null) {
+            metrics.circuitBreakerChanged(family, newState);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+
+/**
+ * An exception thrown when a call is not sent to the Sync Service because the circuit breaker of its endpoint
+ * family is open.
+ * @see RetryPolicy
+ */
+public class CircuitBreakerOpenException extends IOException {
+    static final long serialVersionUID = 1;
+
+    private final String family;
+
+    /**
+     * Constructor
+     * @param family The endpoint family whose circuit breaker is open.
+     */
+    CircuitBreakerOpenException(String family) {
+        super("The circuit breaker of the Sync Service " + family + " endpoints is open");
+        this.family = family;
+    }
+
+    /**
+     * Get the endpoint family whose circuit breaker is open.
+     * @return The endpoint family, for example objects.
+     */
+    public String getFamily() {
+        return family;
+    }
+}
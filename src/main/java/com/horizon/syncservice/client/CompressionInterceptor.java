@@ -0,0 +1,313 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.internal.http.HttpHeaders;
+import okhttp3.internal.http.UnrepeatableRequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ForwardingSink;
+import okio.ForwardingSource;
+import okio.GzipSink;
+import okio.GzipSource;
+import okio.Okio;
+import okio.Sink;
+import okio.Source;
+
+/**
+ * An internal interceptor that compresses the object data sent to the Sync Service with gzip, and asks for the
+ * object data fetched from it to be compressed, see
+ * {@link SyncServiceClient.Builder#withCompression(long) SyncServiceClient.Builder.withCompression}.
+ * <p>It runs inside the retry interceptor and outside the metrics interceptor, so that each attempt compresses
+ * the data again and the metrics count the bytes actually sent and read.
+ * <p>OkHttp decompresses responses transparently only when it asked for compression itself. This interceptor
+ * asks for it instead, so that it can record the compression ratio and the CPU time of the object data.
+ */
+class CompressionInterceptor implements Interceptor {
+    static final int SAMPLE_SIZE = 4096;
+
+    private static final String GZIP = "gzip";
+    private static final String UPLOAD_OPERATION = "putObjectData";
+    private static final String DOWNLOAD_OPERATION = "getObjectData";
+
+    /** Above this entropy, in bits per byte, a sample of data is considered random, or already compressed. */
+    private static final double MAX_ENTROPY = 7.5;
+    /** The smallest sample whose entropy is meaningful. */
+    private static final int MIN_ENTROPY_SAMPLE = 256;
+
+    /** The first bytes of compressed formats: gzip, zip, bzip2, xz, zstd, 7z, lz4, PNG, JPEG and RAR. */
+    private static final byte[][] COMPRESSED_MAGIC = {
+        {0x1f, (byte) 0x8b},
+        {0x50, 0x4b, 0x03, 0x04},
+        {0x42, 0x5a, 0x68},
+        {(byte) 0xfd, 0x37, 0x7a, 0x58, 0x5a, 0x00},
+        {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd},
+        {0x37, 0x7a, (byte) 0xbc, (byte) 0xaf, 0x27, 0x1c},
+        {0x04, 0x22, 0x4d, 0x18},
+        {(byte) 0x89, 0x50, 0x4e, 0x47},
+        {(byte) 0xff, (byte) 0xd8, (byte) 0xff},
+        {0x52, 0x61, 0x72, 0x21}
+    };
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final long minBytes;
+    private final SyncServiceMetrics metrics;
+
+    CompressionInterceptor(long minBytes, SyncServiceMetrics metrics) {
+        this.minBytes = minBytes;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String operation = MetricsInterceptor.operationOf(request);
+
+        if (operation.equals(UPLOAD_OPERATION)) {
+            if (request.header("Content-Encoding") == null && shouldCompress(request.body())) {
+                request = request.newBuilder()
+                        .header("Content-Encoding", GZIP)
+                        .method(request.method(), GzipRequestBody.wrap(request.body(), operationMetrics(operation)))
+                        .build();
+            }
+            return chain.proceed(request);
+        }
+
+        if (!operation.equals(DOWNLOAD_OPERATION) || request.header("Accept-Encoding") != null
+                || request.header("Range") != null) {
+            return chain.proceed(request);
+        }
+        Response response = chain.proceed(request.newBuilder().header("Accept-Encoding", GZIP).build());
+        if (!GZIP.equalsIgnoreCase(response.header("Content-Encoding")) || !HttpHeaders.hasBody(response)) {
+            return response;
+        }
+        return response.newBuilder()
+                .removeHeader("Content-Encoding")
+                .removeHeader("Content-Length")
+                .body(new GunzipResponseBody(response.body(), operationMetrics(operation)))
+                .build();
+    }
+
+    private OperationMetrics operationMetrics(String operation) {
+        return metrics != null ? metrics.operation(operation) : null;
+    }
+
+    /**
+     * Check whether the object data of a request is worth compressing: it is at least {@link #minBytes} long, and
+     * it doesn't look already compressed.
+     * @param body The body of the request.
+     * @return <code>true</code> if the body should be compressed.
+     * @throws IOException If an I/O error occurred reading the first bytes of the data.
+     */
+    private boolean shouldCompress(RequestBody body) throws IOException {
+        if (!(body instanceof ObjectDataBody)) {
+            return false;
+        }
+        long length = body.contentLength();
+        if (length >= 0 && length < minBytes) {
+            return false;
+        }
+        byte[] sample = ((ObjectDataBody) body).peek(SAMPLE_SIZE);
+        if (length < 0 && sample.length < SAMPLE_SIZE && sample.length < minBytes) {
+            // The sample is all of the data
+            return false;
+        }
+        return !looksCompressed(sample);
+    }
+
+    /**
+     * Check whether data looks already compressed, or otherwise random: it starts as a known compressed format,
+     * or its bytes are close to evenly distributed.
+     * @param sample The first bytes of the data.
+     * @return <code>true</code> if compressing the data would most likely not reduce its size.
+     */
+    static boolean looksCompressed(byte[] sample) {
+        for (byte[] magic : COMPRESSED_MAGIC) {
+            if (startsWith(sample, magic)) {
+                return true;
+            }
+        }
+        int length = Math.min(sample.length, SAMPLE_SIZE);
+        if (length < MIN_ENTROPY_SAMPLE) {
+            return false;
+        }
+        int[] counts = new int[256];
+        for (int i = 0; i < length; i++) {
+            counts[sample[i] & 0xff]++;
+        }
+        double entropy = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                double p = (double) count / length;
+                entropy -= p * Math.log(p);
+            }
+        }
+        return entropy / Math.log(2) > MAX_ENTROPY;
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the CPU time of the current thread.
+     * @return The CPU time in nano-seconds, or -1 if it can't be measured.
+     */
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static void record(OperationMetrics operation, long uncompressed, long compressed, long cpuStart) {
+        if (operation != null) {
+            long cpuEnd = cpuTime();
+            operation.compressed(uncompressed, compressed, cpuStart >= 0 && cpuEnd >= 0 ? cpuEnd - cpuStart : 0);
+        }
+    }
+
+    /** A sink that counts the bytes written to it, and doesn't close the sink it writes to. */
+    private static class CountingSink extends ForwardingSink {
+        long count;
+
+        CountingSink(Sink delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void write(Buffer source, long byteCount) throws IOException {
+            super.write(source, byteCount);
+            count += byteCount;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    private static class GzipRequestBody extends RequestBody {
+        private final RequestBody delegate;
+        private final OperationMetrics operation;
+
+        GzipRequestBody(RequestBody delegate, OperationMetrics operation) {
+            this.delegate = delegate;
+            this.operation = operation;
+        }
+
+        static RequestBody wrap(RequestBody body, OperationMetrics operation) {
+            // Keep OkHttp from retrying bodies that can be sent only once
+            if (body instanceof UnrepeatableRequestBody) {
+                return new UnrepeatableGzipRequestBody(body, operation);
+            }
+            return new GzipRequestBody(body, operation);
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            long cpuStart = operation != null ? cpuTime() : -1;
+            CountingSink compressed = new CountingSink(sink);
+            CountingSink uncompressed = new CountingSink(new GzipSink(compressed));
+            BufferedSink gzip = Okio.buffer(uncompressed);
+            delegate.writeTo(gzip);
+            gzip.emit();
+            // Finishes the gzip stream, without closing the connection's sink
+            uncompressed.delegate().close();
+            record(operation, uncompressed.count, compressed.count, cpuStart);
+        }
+    }
+
+    private static class UnrepeatableGzipRequestBody extends GzipRequestBody implements UnrepeatableRequestBody {
+        UnrepeatableGzipRequestBody(RequestBody delegate, OperationMetrics operation) {
+            super(delegate, operation);
+        }
+    }
+
+    private static class GunzipResponseBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final OperationMetrics operation;
+        private BufferedSource source;
+
+        GunzipResponseBody(ResponseBody delegate, OperationMetrics operation) {
+            this.delegate = delegate;
+            this.operation = operation;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Override
+        public BufferedSource source() {
+            if (source == null) {
+                final CountingSource compressed = new CountingSource(delegate.source());
+                source = Okio.buffer(new ForwardingSource(new GzipSource(compressed)) {
+                    @Override
+                    public long read(Buffer sink, long byteCount) throws IOException {
+                        long cpuStart = operation != null ? cpuTime() : -1;
+                        long compressedStart = compressed.count;
+                        long read = super.read(sink, byteCount);
+                        record(operation, Math.max(read, 0), compressed.count - compressedStart, cpuStart);
+                        return read;
+                    }
+                });
+            }
+            return source;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    /** A source that counts the bytes read from it. */
+    private static class CountingSource extends ForwardingSource {
+        long count;
+
+        CountingSource(Source delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long read = super.read(sink, byteCount);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
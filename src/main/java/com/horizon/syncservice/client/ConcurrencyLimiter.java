@@ -0,0 +1,170 @@
+package com.horizon.syncservice.client;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An internal limit on the number of Sync Service calls that are in flight at the same time.
+ * <p>Blocking calls wait for a permit on the calling thread. Asynchronous calls that can't get a permit are
+ * queued, and are started when a permit is released, so they never hold an OkHttp dispatcher thread while they
+ * wait.
+ * <p>Subclasses can adjust the limit from the outcome of each call, see {@link #onComplete(long, Outcome)}.
+ * <p>The limiter uses a {@link ReentrantLock ReentrantLock} rather than a monitor, so that virtual threads waiting
+ * for a permit don't pin their carrier thread.
+ */
+class ConcurrencyLimiter {
+
+    /** The outcome of a call, see {@link #release(long, Outcome) release}. */
+    enum Outcome {
+        /** The call got a response that is not a server error. */
+        SUCCESS,
+        /** The call failed with an I/O error or a server error. */
+        FAILURE,
+        /** The call was cancelled, so its latency tells nothing about the Sync Service. */
+        CANCELLED
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private final Deque<Runnable> waitingCalls = new ArrayDeque<Runnable>();
+    private int limit;
+    private int inFlight;
+
+    ConcurrencyLimiter(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Create a limiter, unless there is no limit.
+     * @param limit The maximum number of calls in flight, or 0 for no limit.
+     * @return The limiter, or <code>null</code> if <code>limit</code> is 0.
+     */
+    static ConcurrencyLimiter create(int limit) {
+        return limit > 0 ? new ConcurrencyLimiter(limit) : null;
+    }
+
+    /**
+     * Get a permit, waiting for one to be released if the limit was reached.
+     * @throws InterruptedIOException If the thread was interrupted while waiting.
+     */
+    void acquire() throws InterruptedIOException {
+        lock.lock();
+        try {
+            while (inFlight >= limit) {
+                try {
+                    permitReleased.await();
+                } catch (InterruptedException e) {
+                    // Pass on a signal this thread may have consumed
+                    if (inFlight < limit) {
+                        permitReleased.signal();
+                    }
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(
+                            "Interrupted while waiting to send a request to the Sync Service");
+                }
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run an asynchronous call with a permit: immediately if one is available, otherwise once one is released.
+     * @param call Starts the call. It must eventually {@link #release(long, Outcome) release} the permit.
+     */
+    void execute(Runnable call) {
+        lock.lock();
+        try {
+            if (inFlight >= limit) {
+                waitingCalls.addLast(call);
+                return;
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+        call.run();
+    }
+
+    /**
+     * Release a permit.
+     * @param latencyNanos The time the call took, in nano-seconds.
+     * @param outcome The outcome of the call.
+     */
+    void release(long latencyNanos, Outcome outcome) {
+        List<Runnable> next = null;
+        lock.lock();
+        try {
+            inFlight--;
+            onComplete(latencyNanos, outcome);
+            while (inFlight < limit && !waitingCalls.isEmpty()) {
+                if (next == null) {
+                    next = new ArrayList<Runnable>(1);
+                }
+                next.add(waitingCalls.pollFirst());
+                inFlight++;
+            }
+            // Wake one blocked caller per free permit, not all of them
+            for (int free = limit - inFlight; free > 0; free--) {
+                permitReleased.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (next != null) {
+            for (Runnable call : next) {
+                call.run();
+            }
+        }
+    }
+
+    /**
+     * Called, while holding the limiter's lock, each time a call completes. Does nothing by default.
+     * @param latencyNanos The time the call took, in nano-seconds.
+     * @param outcome The outcome of the call.
+     */
+    void onComplete(long latencyNanos, Outcome outcome) {
+    }
+
+    int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Change the limit. Calls in flight are not affected, waiting calls are started if the limit grew.
+     * Must be called while holding the limiter's lock, as from {@link #onComplete(long, Outcome)}.
+     * @param limit The new limit.
+     */
+    void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getWaiting() {
+        lock.lock();
+        try {
+            return waitingCalls.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
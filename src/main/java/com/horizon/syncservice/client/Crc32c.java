@@ -0,0 +1,69 @@
+package com.horizon.syncservice.client;
+
+import java.util.zip.Checksum;
+
+/**
+ * An internal CRC-32C (Castagnoli) {@link Checksum Checksum}, the checksum of iSCSI, ext4 and Google Cloud Storage.
+ * <p>This is the Java 8 version, a table driven implementation that processes 8 bytes per step. The Java 9 version,
+ * in the multi-release jar, uses the JDK's java.util.zip.CRC32C, whose implementation is intrinsified.
+ */
+final class Crc32c implements Checksum {
+    /** The reversed Castagnoli polynomial. */
+    private static final int POLYNOMIAL = 0x82f63b78;
+
+    /** TABLE[k][n] is the CRC of the byte n followed by k zero bytes. */
+    private static final int[][] TABLE = new int[8][256];
+
+    static {
+        for (int n = 0; n < 256; n++) {
+            int crc = n;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLYNOMIAL : crc >>> 1;
+            }
+            TABLE[0][n] = crc;
+        }
+        for (int n = 0; n < 256; n++) {
+            for (int k = 1; k < 8; k++) {
+                TABLE[k][n] = (TABLE[k - 1][n] >>> 8) ^ TABLE[0][TABLE[k - 1][n] & 0xff];
+            }
+        }
+    }
+
+    private int crc = 0xffffffff;
+
+    @Override
+    public void update(int b) {
+        crc = (crc >>> 8) ^ TABLE[0][(crc ^ b) & 0xff];
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+        int value = crc;
+        int[] t0 = TABLE[0], t1 = TABLE[1], t2 = TABLE[2], t3 = TABLE[3];
+        int[] t4 = TABLE[4], t5 = TABLE[5], t6 = TABLE[6], t7 = TABLE[7];
+        while (len >= 8) {
+            int low = value ^ ((b[off] & 0xff) | (b[off + 1] & 0xff) << 8 | (b[off + 2] & 0xff) << 16
+                    | (b[off + 3] & 0xff) << 24);
+            int high = (b[off + 4] & 0xff) | (b[off + 5] & 0xff) << 8 | (b[off + 6] & 0xff) << 16
+                    | (b[off + 7] & 0xff) << 24;
+            value = t7[low & 0xff] ^ t6[(low >>> 8) & 0xff] ^ t5[(low >>> 16) & 0xff] ^ t4[low >>> 24]
+                    ^ t3[high & 0xff] ^ t2[(high >>> 8) & 0xff] ^ t1[(high >>> 16) & 0xff] ^ t0[high >>> 24];
+            off += 8;
+            len -= 8;
+        }
+        while (len-- > 0) {
+            value = (value >>> 8) ^ t0[(value ^ b[off++]) & 0xff];
+        }
+        crc = value;
+    }
+
+    @Override
+    public long getValue() {
+        return ~crc & 0xffffffffL;
+    }
+
+    @Override
+    public void reset() {
+        crc = 0xffffffff;
+    }
+}
@@ -0,0 +1,167 @@
+package com.horizon.syncservice.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A digest of the data of an object, computed while the data is sent or fetched, in the same pass, see for example
+ * {@link SyncServiceClient#fetchObjectData(SyncServiceMetaData, java.nio.file.Path, DataDigest)
+ * fetchObjectData(SyncServiceMetaData, Path, DataDigest)}.
+ * <p>A digest is written as the label of its algorithm, a colon and its value in hexadecimal, for example
+ * <code>crc32c:e3069283</code>. Applications can carry the digest of an object's data in its metadata, for example
+ * in its description, and get it back with {@link #find(String) find}.
+ */
+public final class DataDigest {
+
+    /** The algorithms of the digests. */
+    public enum Algorithm {
+        /** SHA-256, which detects corruption as well as tampering. */
+        SHA_256("sha256", 32),
+        /** CRC-32C, a checksum that is much cheaper to compute, and detects corruption only. */
+        CRC32C("crc32c", 4);
+
+        private final String label;
+        private final int length;
+
+        Algorithm(String label, int length) {
+            this.label = label;
+            this.length = length;
+        }
+
+        /**
+         * Get the label of the algorithm, used in the text form of the digests.
+         * @return The label, sha256 or crc32c.
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Get the length of the values of the digests.
+         * @return The length in bytes.
+         */
+        public int getLength() {
+            return length;
+        }
+    }
+
+    private static final Pattern DIGEST = Pattern.compile("\\b(sha256|crc32c):([0-9a-fA-F]+)\\b");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Algorithm algorithm;
+    private final byte[] value;
+
+    /**
+     * Constructor
+     * @param algorithm The algorithm of the digest.
+     * @param value The value of the digest, {@link Algorithm#getLength() algorithm.getLength()} bytes long.
+     */
+    public DataDigest(Algorithm algorithm, byte[] value) {
+        checkArgument(value.length == algorithm.getLength(), "Wrong digest length");
+        this.algorithm = algorithm;
+        this.value = value.clone();
+    }
+
+    /**
+     * Parse the text form of a digest.
+     * @param text The digest, for example <code>sha256:</code> followed by 64 hexadecimal digits.
+     * @return The digest.
+     * @throws IllegalArgumentException If the text is not a digest.
+     */
+    public static DataDigest parse(String text) {
+        Matcher matcher = DIGEST.matcher(text.trim());
+        checkArgument(matcher.matches(), "Not a digest: " + text);
+        DataDigest digest = of(matcher);
+        checkArgument(digest != null, "Wrong digest length: " + text);
+        return digest;
+    }
+
+    /**
+     * Find the text form of a digest in a text, such as the description of an object.
+     * @param text The text to look into, or <code>null</code>.
+     * @return The first digest found in the text, or <code>null</code> if there is none.
+     */
+    public static DataDigest find(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = DIGEST.matcher(text);
+        while (matcher.find()) {
+            DataDigest digest = of(matcher);
+            if (digest != null) {
+                return digest;
+            }
+        }
+        return null;
+    }
+
+    private static DataDigest of(Matcher matcher) {
+        Algorithm algorithm = matcher.group(1).equals(Algorithm.SHA_256.getLabel()) ? Algorithm.SHA_256
+                : Algorithm.CRC32C;
+        String hex = matcher.group(2);
+        if (hex.length() != algorithm.getLength() * 2) {
+            return null;
+        }
+        byte[] value = new byte[algorithm.getLength()];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return new DataDigest(algorithm, value);
+    }
+
+    /**
+     * Get the algorithm of the digest.
+     * @return The algorithm.
+     */
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Get the value of the digest. The value of a CRC-32C is in big-endian order.
+     * @return A copy of the value.
+     */
+    public byte[] getValue() {
+        return value.clone();
+    }
+
+    /**
+     * Get the value of the digest in hexadecimal.
+     * @return The value, in lower case hexadecimal digits.
+     */
+    public String toHex() {
+        char[] hex = new char[value.length * 2];
+        for (int i = 0; i < value.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(value[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX_DIGITS[value[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof DataDigest)) {
+            return false;
+        }
+        DataDigest digest = (DataDigest) other;
+        return algorithm == digest.algorithm && MessageDigest.isEqual(value, digest.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return algorithm.hashCode() * 31 + Arrays.hashCode(value);
+    }
+
+    /**
+     * Get the text form of the digest, which {@link #parse(String) parse} and {@link #find(String) find} read.
+     * @return The label of the algorithm, a colon and the value in hexadecimal.
+     */
+    @Override
+    public String toString() {
+        return algorithm.getLabel() + ":" + toHex();
+    }
+}
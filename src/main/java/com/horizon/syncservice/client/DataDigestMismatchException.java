@@ -0,0 +1,41 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+
+/**
+ * An exception thrown when the digest of the object data sent or fetched doesn't match the expected digest.
+ * @see DataDigest
+ */
+public class DataDigestMismatchException extends IOException {
+    static final long serialVersionUID = 1;
+
+    private final DataDigest expected;
+    private final DataDigest actual;
+
+    /**
+     * Constructor
+     * @param expected The expected digest.
+     * @param actual The digest of the data.
+     */
+    DataDigestMismatchException(DataDigest expected, DataDigest actual) {
+        super("The digest of the object data is " + actual + ", " + expected + " was expected");
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    /**
+     * Get the expected digest.
+     * @return The expected digest.
+     */
+    public DataDigest getExpected() {
+        return expected;
+    }
+
+    /**
+     * Get the digest of the data that was sent or fetched.
+     * @return The digest of the data.
+     */
+    public DataDigest getActual() {
+        return actual;
+    }
+}
@@ -0,0 +1,120 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import okio.Buffer;
+import okio.ForwardingSink;
+import okio.ForwardingSource;
+import okio.Sink;
+import okio.Source;
+
+/**
+ * An internal computation of a {@link DataDigest DataDigest}, fed with the bytes of object data as they flow
+ * through a source or a sink.
+ * <p>It is an OutputStream so that it can be fed the segments of an okio {@link Buffer Buffer} in place, with
+ * {@link Buffer#copyTo(OutputStream, long, long) Buffer.copyTo}, without copying the data.
+ */
+abstract class DataDigester extends OutputStream {
+    private final DataDigest.Algorithm algorithm;
+
+    private DataDigester(DataDigest.Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    @Override
+    public void write(int b) {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public abstract void write(byte[] b, int off, int len);
+
+    abstract byte[] value();
+
+    /**
+     * Get the digest of the bytes written so far.
+     * @return The digest.
+     */
+    DataDigest digest() {
+        return new DataDigest(algorithm, value());
+    }
+
+    /**
+     * Wrap a source so that the bytes read from it are fed to this digester.
+     * @param source The source.
+     * @return The wrapping source.
+     */
+    Source source(Source source) {
+        return new ForwardingSource(source) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                long read = super.read(sink, byteCount);
+                if (read > 0) {
+                    sink.copyTo(DataDigester.this, sink.size() - read, read);
+                }
+                return read;
+            }
+        };
+    }
+
+    /**
+     * Wrap a sink so that the bytes written to it are fed to this digester.
+     * @param sink The sink.
+     * @return The wrapping sink.
+     */
+    Sink sink(Sink sink) {
+        return new ForwardingSink(sink) {
+            @Override
+            public void write(Buffer source, long byteCount) throws IOException {
+                source.copyTo(DataDigester.this, 0, byteCount);
+                super.write(source, byteCount);
+            }
+        };
+    }
+
+    /**
+     * Create a digester.
+     * @param algorithm The algorithm of the digest.
+     * @return The digester.
+     */
+    static DataDigester create(DataDigest.Algorithm algorithm) {
+        switch (algorithm) {
+        case CRC32C:
+            final Crc32c crc = new Crc32c();
+            return new DataDigester(algorithm) {
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    crc.update(b, off, len);
+                }
+
+                @Override
+                byte[] value() {
+                    return ByteBuffer.allocate(4).putInt((int) crc.getValue()).array();
+                }
+            };
+        default:
+            final MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // Every Java platform supports SHA-256
+                throw new IllegalStateException(e);
+            }
+            return new DataDigester(algorithm) {
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    digest.update(b, off, len);
+                }
+
+                @Override
+                byte[] value() {
+                    return digest.digest();
+                }
+            };
+        }
+    }
+}
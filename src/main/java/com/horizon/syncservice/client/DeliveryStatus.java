@@ -0,0 +1,81 @@
+package com.horizon.syncservice.client;
+
+/**
+ * The status of the delivery of an object to a destination, as a typed value.
+ * <p>The Sync Service sends the statuses as strings, the values of {@link ObjectStatus ObjectStatus} and
+ * {@link DestinationStatus DestinationStatus}. {@link #of(String) of} maps them to this enum, so that they can be
+ * compared and stored compactly.
+ */
+public enum DeliveryStatus {
+    /** The object is pending delivery to the destination. */
+    PENDING(ObjectStatus.PENDING),
+    /** The object is being delivered to the destination. */
+    DELIVERING(ObjectStatus.DELIVERING),
+    /** The object was delivered to the destination. */
+    DELIVERED(ObjectStatus.DELIVERED),
+    /** The object was consumed by the destination. */
+    CONSUMED(ObjectStatus.CONSUMED),
+    /** A feedback error message was received from the destination. */
+    ERROR(ObjectStatus.ERROR),
+    /** The destination acknowledged the deletion of the object. */
+    DELETED(ObjectStatus.DELETED),
+    /** A status this version of the client doesn't know. */
+    UNKNOWN(null);
+
+    private static final DeliveryStatus[] VALUES = values();
+
+    private final String value;
+
+    DeliveryStatus(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Get the string the Sync Service uses for the status.
+     * @return The string, or <code>null</code> for {@link #UNKNOWN UNKNOWN}.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Check whether the status is the given status or a later one in the progress of a delivery, which goes from
+     * {@link #PENDING PENDING} to {@link #DELIVERING DELIVERING}, {@link #DELIVERED DELIVERED} and
+     * {@link #CONSUMED CONSUMED}.
+     * @param status The status to compare with.
+     * @return <code>true</code> if this status is the given status, or follows it in the progress of a delivery.
+     */
+    public boolean hasReached(DeliveryStatus status) {
+        if (this == status) {
+            return true;
+        }
+        return compareTo(CONSUMED) <= 0 && status.compareTo(CONSUMED) <= 0 && compareTo(status) > 0;
+    }
+
+    /**
+     * Get the status of a string sent by the Sync Service.
+     * @param value The string, for example {@link ObjectStatus#DELIVERED ObjectStatus.DELIVERED}.
+     * @return The status, {@link #UNKNOWN UNKNOWN} if the string is not a known status, or <code>null</code> if the
+     *            string is <code>null</code>.
+     */
+    public static DeliveryStatus of(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (DeliveryStatus status : VALUES) {
+            if (value.equals(status.value)) {
+                return status;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Get the status of an ordinal, as stored in a compact index.
+     * @param ordinal The ordinal.
+     * @return The status.
+     */
+    static DeliveryStatus ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,211 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+
+/**
+ * Tracks the delivery of an object to its destinations, and reports the changes of the status of each destination.
+ * <p>Each {@link #refresh() refresh} streams the destinations of the object from the Sync Service, parsing one
+ * destination at a time, and compares each with the status it had at the previous refresh. The listener is called
+ * only for the destinations whose status changed, for example from {@link DeliveryStatus#PENDING PENDING} to
+ * {@link DeliveryStatus#DELIVERED DELIVERED} or {@link DeliveryStatus#ERROR ERROR}. At the first refresh, every
+ * destination changes from <code>null</code> to its status.
+ * <p>The statuses are kept in a compact index rather than as {@link DestinationStatus DestinationStatus} objects:
+ * a byte per destination for its status, a dictionary code for its destination type, and its destination ID once.
+ * Refreshing an object sent to tens of thousands of destinations thus allocates only short-lived objects, and the
+ * tracker's footprint stays a small fraction of the list returned by
+ * {@link SyncServiceClient#getObjectDestinations(String, String) getObjectDestinations}. The index can be kept
+ * off-heap, see {@link Builder#withOffHeapIndex(boolean) withOffHeapIndex}.
+ * <p>The methods of the tracker can be called from any thread. The listener is called on the thread that refreshes
+ * the tracker.
+ * <p>Note: Use {@link SyncServiceClient#deliveryTracker(String, String) SyncServiceClient.deliveryTracker} to create
+ * a DeliveryTracker instance.
+ */
+public class DeliveryTracker {
+
+    /** Receives the changes of the status of the destinations. */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called when the status of a destination changed between two refreshes.
+         * @param destinationType The type of the destination.
+         * @param destinationID The ID of the destination.
+         * @param previous The previous status, or <code>null</code> if the destination was not listed before.
+         * @param current The current status, or <code>null</code> if the destination is no longer listed.
+         */
+        void onTransition(String destinationType, String destinationID, DeliveryStatus previous,
+                DeliveryStatus current);
+    }
+
+    private final SyncServiceClient client;
+    private final String objectType;
+    private final String objectID;
+    private final Listener listener;
+    private final DestinationIndex index;
+    /** The number of destinations of each status, by ordinal. */
+    private final int[] counts = new int[DeliveryStatus.values().length];
+    private int present;
+    /** The destinations listed by the refresh in progress, one bit per entry of the index. */
+    private long[] listed = new long[0];
+
+    private DeliveryTracker(Builder builder) {
+        this.client = builder.client;
+        this.objectType = builder.objectType;
+        this.objectID = builder.objectID;
+        this.listener = builder.listener;
+        this.index = new DestinationIndex(builder.offHeap);
+    }
+
+    /**
+     * Get the statuses of the destinations from the Sync Service, and call the listener for each destination whose
+     * status changed since the previous refresh.
+     * <p>If the refresh fails, the destinations read so far keep their new status, and the destinations that were
+     * not read yet are compared again at the next refresh.
+     * @return The number of destinations whose status changed.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     */
+    public synchronized int refresh() throws SyncServiceException, IOException {
+        final int[] transitions = {0};
+        listed = new long[(index.size() + 63) >> 6];
+        client.forEachObjectDestination(objectType, objectID, destination -> {
+            int entry = index.find(destination.getDestinationType(), destination.getDestinationID(), true);
+            mark(entry);
+            DeliveryStatus status = destination.getDeliveryStatus();
+            if (update(entry, status != null ? status : DeliveryStatus.UNKNOWN)) {
+                transitions[0]++;
+            }
+        });
+        for (int entry = 0; entry < index.size(); entry++) {
+            if (!isMarked(entry) && update(entry, null)) {
+                transitions[0]++;
+            }
+        }
+        return transitions[0];
+    }
+
+    /**
+     * Get the status of a destination at the last refresh.
+     * @param destinationType The type of the destination.
+     * @param destinationID The ID of the destination.
+     * @return The status, or <code>null</code> if the destination was not listed.
+     */
+    public synchronized DeliveryStatus getStatus(String destinationType, String destinationID) {
+        int entry = index.find(destinationType, destinationID, false);
+        return entry >= 0 ? toStatus(index.status(entry)) : null;
+    }
+
+    /**
+     * Get the number of destinations with a status at the last refresh.
+     * @param status The status.
+     * @return The number of destinations.
+     */
+    public synchronized int getCount(DeliveryStatus status) {
+        return counts[status.ordinal()];
+    }
+
+    /**
+     * Get the number of destinations listed at the last refresh.
+     * @return The number of destinations.
+     */
+    public synchronized int size() {
+        return present;
+    }
+
+    /**
+     * Check whether all the destinations listed at the last refresh reached a status, see
+     * {@link DeliveryStatus#hasReached(DeliveryStatus) DeliveryStatus.hasReached}.
+     * @param status The status.
+     * @return <code>true</code> if at least one destination is listed, and all of them reached the status.
+     */
+    public synchronized boolean allReached(DeliveryStatus status) {
+        if (present == 0) {
+            return false;
+        }
+        int reached = 0;
+        for (DeliveryStatus value : DeliveryStatus.values()) {
+            if (value.hasReached(status)) {
+                reached += counts[value.ordinal()];
+            }
+        }
+        return reached == present;
+    }
+
+    private boolean update(int entry, DeliveryStatus status) {
+        int previousValue = index.status(entry);
+        int value = status != null ? status.ordinal() + 1 : DestinationIndex.ABSENT;
+        if (value == previousValue) {
+            return false;
+        }
+        index.setStatus(entry, value);
+        DeliveryStatus previous = toStatus(previousValue);
+        if (previous != null) {
+            counts[previous.ordinal()]--;
+            present--;
+        }
+        if (status != null) {
+            counts[status.ordinal()]++;
+            present++;
+        }
+        if (listener != null) {
+            listener.onTransition(index.type(entry), index.id(entry), previous, status);
+        }
+        return true;
+    }
+
+    private static DeliveryStatus toStatus(int value) {
+        return value != DestinationIndex.ABSENT ? DeliveryStatus.ofOrdinal(value - 1) : null;
+    }
+
+    private void mark(int entry) {
+        if ((entry >> 6) >= listed.length) {
+            long[] grown = new long[Math.max(listed.length * 2, (entry >> 6) + 1)];
+            System.arraycopy(listed, 0, grown, 0, listed.length);
+            listed = grown;
+        }
+        listed[entry >> 6] |= 1L << entry;
+    }
+
+    private boolean isMarked(int entry) {
+        return (entry >> 6) < listed.length && (listed[entry >> 6] & (1L << entry)) != 0;
+    }
+
+    /** The builder class used to create an instance of {@link DeliveryTracker DeliveryTracker} object */
+    public static class Builder {
+        private final SyncServiceClient client;
+        private final String objectType;
+        private final String objectID;
+        private Listener listener;
+        private boolean offHeap;
+
+        Builder(SyncServiceClient client, String objectType, String objectID) {
+            this.client = client;
+            this.objectType = objectType;
+            this.objectID = objectID;
+        }
+
+        /**
+         * Set whether the index of the statuses of the destinations is kept off-heap, in direct buffers.
+         * <p>Off-heap, the destination IDs are held as UTF-8 bytes and decoded when the listener is called, and the
+         * index doesn't add to the heap scanned by the garbage collector. The default is to keep the index on the
+         * heap.
+         * @param offHeap If <code>true</code>, the index is kept off-heap.
+         * @return this
+         */
+        public Builder withOffHeapIndex(boolean offHeap) {
+            this.offHeap = offHeap;
+            return this;
+        }
+
+        /**
+         * Actually build the {@link DeliveryTracker DeliveryTracker} object. The destinations are read at the first
+         * {@link DeliveryTracker#refresh() refresh}.
+         * @param listener The listener called for the changes of the status of the destinations, or
+         *            <code>null</code>.
+         * @return A {@link DeliveryTracker DeliveryTracker} object
+         */
+        public DeliveryTracker build(Listener listener) {
+            this.listener = listener;
+            return new DeliveryTracker(this);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.horizon.syncservice.client;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An internal, compact index of the destinations of an object and of the status of the delivery to each of them.
+ * <p>Each destination is an entry, numbered from 0 in the order the destinations were added. The destination types
+ * are dictionary-encoded, as a short code per entry. The status of an entry is a byte, the ordinal of its
+ * {@link DeliveryStatus DeliveryStatus} plus one, or 0 when the destination is absent. The entries are found with an
+ * open-addressing hash table of ints, so that no object is allocated per destination besides its ID.
+ * <p>The index can be kept off-heap: the codes, the statuses and the hashes of the entries, and the UTF-8 bytes of
+ * the destination IDs, are then held in direct buffers. Only the hash table and the offsets of the IDs, a few ints
+ * per entry, stay on the heap. The IDs are decoded back to strings only when they are asked for.
+ * <p>The index is not thread-safe.
+ */
+final class DestinationIndex {
+    static final int ABSENT = 0;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    /** The bytes of an entry: the hash (int), the type code (short) and the status (byte). */
+    private static final int ENTRY_BYTES = 7;
+    private static final int TYPE_OFFSET = 4;
+    private static final int STATUS_OFFSET = 6;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final boolean offHeap;
+    private final List<String> types = new ArrayList<String>();
+    private final Map<String, Integer> typeCodes = new HashMap<String, Integer>();
+
+    private int size;
+    /** The hash table: the number of an entry plus one, or 0 in a free slot. At most half full. */
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private ByteBuffer entries;
+    /** The destination IDs of the entries, on the heap. */
+    private String[] ids;
+    /** The destination IDs of the entries, off-heap, one after the other, and where each of them starts. */
+    private ByteBuffer idBytes;
+    private int[] idOffsets;
+
+    DestinationIndex(boolean offHeap) {
+        this.offHeap = offHeap;
+        this.entries = allocate(INITIAL_CAPACITY * ENTRY_BYTES);
+        if (offHeap) {
+            idBytes = allocate(INITIAL_CAPACITY * 16);
+            idOffsets = new int[INITIAL_CAPACITY + 1];
+        } else {
+            ids = new String[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * Get the number of entries, including the destinations that are absent.
+     * @return The number of entries.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Find the entry of a destination.
+     * @param type The destination type.
+     * @param id The destination ID.
+     * @param add If <code>true</code>, an absent entry is added for a destination that has none.
+     * @return The number of the entry, or -1 if there is none and add is <code>false</code>.
+     */
+    int find(String type, String id, boolean add) {
+        Integer code = typeCodes.get(type);
+        if (code == null) {
+            if (!add) {
+                return -1;
+            }
+            code = types.size();
+            if (code > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many destination types");
+            }
+            types.add(type);
+            typeCodes.put(type, code);
+        }
+        int hash = hash(code, id);
+        byte[] utf8 = offHeap ? id.getBytes(UTF_8) : null;
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            int base = entry * ENTRY_BYTES;
+            if (entries.getInt(base) == hash && entries.getShort(base + TYPE_OFFSET) == code
+                    && (offHeap ? idEquals(entry, utf8) : ids[entry].equals(id))) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!add) {
+            return -1;
+        }
+        return add(slot, hash, code, id, utf8);
+    }
+
+    /**
+     * Get the status of an entry.
+     * @param entry The number of the entry.
+     * @return The ordinal of the status plus one, or {@link #ABSENT ABSENT}.
+     */
+    int status(int entry) {
+        return entries.get(entry * ENTRY_BYTES + STATUS_OFFSET);
+    }
+
+    /**
+     * Set the status of an entry.
+     * @param entry The number of the entry.
+     * @param status The ordinal of the status plus one, or {@link #ABSENT ABSENT}.
+     */
+    void setStatus(int entry, int status) {
+        entries.put(entry * ENTRY_BYTES + STATUS_OFFSET, (byte) status);
+    }
+
+    /**
+     * Get the destination type of an entry.
+     * @param entry The number of the entry.
+     * @return The destination type.
+     */
+    String type(int entry) {
+        return types.get(entries.getShort(entry * ENTRY_BYTES + TYPE_OFFSET));
+    }
+
+    /**
+     * Get the destination ID of an entry.
+     * @param entry The number of the entry.
+     * @return The destination ID, decoded from its bytes if the index is off-heap.
+     */
+    String id(int entry) {
+        if (!offHeap) {
+            return ids[entry];
+        }
+        int start = idOffsets[entry];
+        byte[] utf8 = new byte[idOffsets[entry + 1] - start];
+        ByteBuffer id = idBytes.duplicate();
+        ((Buffer) id).position(start);
+        id.get(utf8);
+        return new String(utf8, UTF_8);
+    }
+
+    private int add(int slot, int hash, int code, String id, byte[] utf8) {
+        int entry = size;
+        if ((entry + 1) * ENTRY_BYTES > entries.capacity()) {
+            entries = grow(entries, entries.capacity() * 2);
+        }
+        int base = entry * ENTRY_BYTES;
+        entries.putInt(base, hash);
+        entries.putShort(base + TYPE_OFFSET, (short) code);
+        entries.put(base + STATUS_OFFSET, (byte) ABSENT);
+        if (offHeap) {
+            if (entry + 2 > idOffsets.length) {
+                idOffsets = Arrays.copyOf(idOffsets, idOffsets.length * 2);
+            }
+            int start = idOffsets[entry];
+            if (start + utf8.length > idBytes.capacity()) {
+                idBytes = grow(idBytes, Math.max(idBytes.capacity() * 2, start + utf8.length));
+            }
+            ByteBuffer target = idBytes.duplicate();
+            ((Buffer) target).position(start);
+            target.put(utf8);
+            idOffsets[entry + 1] = start + utf8.length;
+        } else {
+            if (entry == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[entry] = id;
+        }
+        slots[slot] = entry + 1;
+        size++;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return entry;
+    }
+
+    private boolean idEquals(int entry, byte[] utf8) {
+        int start = idOffsets[entry];
+        if (idOffsets[entry + 1] - start != utf8.length) {
+            return false;
+        }
+        for (int i = 0; i < utf8.length; i++) {
+            if (idBytes.get(start + i) != utf8[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = entries.getInt(entry * ENTRY_BYTES) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private ByteBuffer grow(ByteBuffer buffer, int capacity) {
+        ByteBuffer grown = allocate(capacity);
+        ByteBuffer content = buffer.duplicate();
+        // Casts, so that the class links against Java 8's Buffer.clear()
+        ((Buffer) content).clear();
+        grown.put(content);
+        ((Buffer) grown).clear();
+        return grown;
+    }
+
+    private static int hash(int code, String id) {
+        int hash = code * 31 + id.hashCode();
+        // Spread the high bits, the table is indexed with the low bits
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -1,5 +1,6 @@
 package com.horizon.syncservice.client;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 
@@ -69,6 +70,16 @@ public class DestinationStatus {
         return status;
     }
 
+    /**
+     * Get the status of the delivery of the object to the destination described here, as a typed value.
+     * @return The status, {@link DeliveryStatus#UNKNOWN UNKNOWN} if it is not a known status, or <code>null</code>
+     *            if it is not set.
+     */
+    @JsonIgnore
+    public DeliveryStatus getDeliveryStatus() {
+        return DeliveryStatus.of(status);
+    }
+
     /**
      * Get the message related to the delivery of the object to this destination.
      * @return The message related to the delivery of the object to this destination.
@@ -0,0 +1,117 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.internal.http.UnrepeatableRequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+import okio.Sink;
+
+/**
+ * An internal {@link ObjectDataBody ObjectDataBody} that computes the digest of the object data it sends, and
+ * optionally checks it against an expected digest.
+ * <p>The last bytes of the data, up to {@value #HOLD_BACK_BYTES}, are held back and digested before they are sent.
+ * When the digest doesn't match they are not sent and the request fails, so that the Sync Service doesn't store the
+ * data.
+ */
+class DigestingRequestBody extends ObjectDataBody {
+    /** The size of an Okio segment, so that the bytes held back are a single segment moved between buffers. */
+    static final long HOLD_BACK_BYTES = 8192;
+
+    private final ObjectDataBody delegate;
+    private final DataDigest.Algorithm algorithm;
+    private final DataDigest expected;
+    private volatile DataDigest digest;
+
+    private DigestingRequestBody(ObjectDataBody delegate, DataDigest.Algorithm algorithm, DataDigest expected) {
+        this.delegate = delegate;
+        this.algorithm = algorithm;
+        this.expected = expected;
+    }
+
+    /**
+     * Create a body that computes the digest of the data of another body.
+     * @param body The body whose data is sent.
+     * @param algorithm The algorithm of the digest.
+     * @param expected The expected digest, or <code>null</code> to compute the digest without checking it.
+     * @return The request body.
+     */
+    static DigestingRequestBody create(ObjectDataBody body, DataDigest.Algorithm algorithm, DataDigest expected) {
+        // Keep OkHttp from retrying bodies that can be sent only once
+        if (body instanceof UnrepeatableRequestBody) {
+            return new UnrepeatableDigestingRequestBody(body, algorithm, expected);
+        }
+        return new DigestingRequestBody(body, algorithm, expected);
+    }
+
+    /**
+     * Get the digest of the data that was sent.
+     * @return The digest, or <code>null</code> if the body was not sent.
+     */
+    DataDigest getDigest() {
+        return digest;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return delegate.contentLength();
+    }
+
+    @Override
+    byte[] peek(int maxBytes) throws IOException {
+        return delegate.peek(maxBytes);
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        DataDigester digester = DataDigester.create(algorithm);
+        HoldingSink holding = new HoldingSink(digester.sink(sink));
+        BufferedSink digesting = Okio.buffer(holding);
+        delegate.writeTo(digesting);
+        digesting.emit();
+
+        // The bytes held back were not sent yet: digest them, and send them only if the digest matches
+        Buffer tail = holding.held;
+        tail.copyTo(digester, 0, tail.size());
+        DataDigest actual = digester.digest();
+        if (expected != null && !expected.equals(actual)) {
+            throw new DataDigestMismatchException(expected, actual);
+        }
+        digest = actual;
+        sink.write(tail, tail.size());
+    }
+
+    /** A sink that forwards the bytes written to it, except the last {@value #HOLD_BACK_BYTES} ones. */
+    private static class HoldingSink extends ForwardingSink {
+        final Buffer held = new Buffer();
+
+        HoldingSink(Sink delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void write(Buffer source, long byteCount) throws IOException {
+            held.write(source, byteCount);
+            long ready = held.size() - HOLD_BACK_BYTES;
+            if (ready > 0) {
+                super.write(held, ready);
+            }
+        }
+    }
+
+    private static class UnrepeatableDigestingRequestBody extends DigestingRequestBody
+            implements UnrepeatableRequestBody {
+        UnrepeatableDigestingRequestBody(ObjectDataBody delegate, DataDigest.Algorithm algorithm,
+                DataDigest expected) {
+            super(delegate, algorithm, expected);
+        }
+    }
+}
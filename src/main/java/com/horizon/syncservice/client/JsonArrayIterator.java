@@ -0,0 +1,111 @@
+package com.horizon.syncservice.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import okhttp3.ResponseBody;
+
+/**
+ * An internal iterator over the elements of a JSON array in a response body, that parses each element only when
+ * it is requested.
+ * <p>Only the element being parsed and the parser's buffer are held in memory, so the memory used doesn't depend on
+ * the length of the array. The response body is closed when the end of the array is reached, or when the
+ * iterator is closed.
+ * <p>I/O and parsing errors are thrown as {@link UncheckedIOException UncheckedIOException}.
+ */
+class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+    private final ResponseBody body;
+    private JsonParser parser;
+    private final ObjectReader reader;
+    private boolean hasNext;
+
+    /**
+     * Create an iterator, and read the start of the array.
+     * @param reader The reader of the elements of the array.
+     * @param body The response body. It is closed if the array can't be read.
+     * @throws IOException If an I/O error occurred, or if the body doesn't contain a JSON array.
+     */
+    JsonArrayIterator(ObjectReader reader, ResponseBody body) throws IOException {
+        this.body = body;
+        this.reader = reader;
+        try {
+            this.parser = reader.getFactory().createParser(body.byteStream());
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.VALUE_NULL) {
+                // An empty body or null is an empty list, as with the List returning methods
+                close();
+                return;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array but found " + token);
+            }
+            advance();
+        } catch (IOException | RuntimeException ex) {
+            close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Create a sequential Stream of the elements, that closes the iterator when the Stream is closed.
+     * @return The Stream.
+     */
+    Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED),
+                false).onClose(this::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext) {
+            throw new NoSuchElementException();
+        }
+        try {
+            T element = reader.readValue(parser);
+            advance();
+            return element;
+        } catch (IOException ex) {
+            close();
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        hasNext = false;
+        if (parser != null) {
+            try {
+                // Returns the parser's buffers for reuse
+                parser.close();
+            } catch (IOException ex) {
+                // The body is closed below anyway
+            }
+        }
+        body.close();
+    }
+
+    private void advance() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY || token == null) {
+            close();
+        } else {
+            hasNext = true;
+        }
+    }
+}
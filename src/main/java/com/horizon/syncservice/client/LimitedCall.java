@@ -0,0 +1,96 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * An internal {@link Call Call} decorator that holds a permit of a {@link ConcurrencyLimiter ConcurrencyLimiter}
+ * while the call is in flight.
+ * <p>The permit is released when the response headers arrive, or when the call fails.
+ */
+class LimitedCall<T> implements Call<T> {
+    private final Call<T> delegate;
+    private final ConcurrencyLimiter limiter;
+
+    LimitedCall(Call<T> delegate, ConcurrencyLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+        limiter.acquire();
+        long start = System.nanoTime();
+        ConcurrencyLimiter.Outcome outcome = null;
+        try {
+            Response<T> response = delegate.execute();
+            outcome = response.code() < 500 ? ConcurrencyLimiter.Outcome.SUCCESS : ConcurrencyLimiter.Outcome.FAILURE;
+            return response;
+        } finally {
+            if (outcome == null) {
+                outcome = delegate.isCanceled() ? ConcurrencyLimiter.Outcome.CANCELLED
+                        : ConcurrencyLimiter.Outcome.FAILURE;
+            }
+            limiter.release(System.nanoTime() - start, outcome);
+        }
+    }
+
+    @Override
+    public void enqueue(final Callback<T> callback) {
+        limiter.execute(new Runnable() {
+            @Override
+            public void run() {
+                final long start = System.nanoTime();
+                if (delegate.isCanceled()) {
+                    limiter.release(0, ConcurrencyLimiter.Outcome.CANCELLED);
+                    callback.onFailure(LimitedCall.this, new IOException("Canceled"));
+                    return;
+                }
+                delegate.enqueue(new Callback<T>() {
+                    @Override
+                    public void onResponse(Call<T> call, Response<T> response) {
+                        limiter.release(System.nanoTime() - start, response.code() < 500
+                                ? ConcurrencyLimiter.Outcome.SUCCESS : ConcurrencyLimiter.Outcome.FAILURE);
+                        callback.onResponse(LimitedCall.this, response);
+                    }
+
+                    @Override
+                    public void onFailure(Call<T> call, Throwable t) {
+                        limiter.release(System.nanoTime() - start, call.isCanceled()
+                                ? ConcurrencyLimiter.Outcome.CANCELLED : ConcurrencyLimiter.Outcome.FAILURE);
+                        callback.onFailure(LimitedCall.this, t);
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return delegate.isExecuted();
+    }
+
+    @Override
+    public void cancel() {
+        delegate.cancel();
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return delegate.isCanceled();
+    }
+
+    @Override
+    public Call<T> clone() {
+        return new LimitedCall<T>(delegate.clone(), limiter);
+    }
+
+    @Override
+    public Request request() {
+        return delegate.request();
+    }
+}
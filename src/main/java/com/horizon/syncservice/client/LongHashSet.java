@@ -0,0 +1,140 @@
+package com.horizon.syncservice.client;
+
+import java.util.Arrays;
+
+/**
+ * An internal open-addressing hash set of primitive longs.
+ * <p>Used where large sets of keys must be kept with as little overhead as possible: each entry costs a single
+ * slot in a <code>long[]</code>, there are no boxed values and no per-entry objects.
+ * <p>Not thread safe.
+ */
+class LongHashSet {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    LongHashSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Add a key to the set.
+     * @param key The key to add.
+     * @return <code>true</code> if the key was not already in the set.
+     */
+    boolean add(long key) {
+        if (key == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int index = indexFor(key);
+        while (table[index] != 0) {
+            if (table[index] == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        table[index] = key;
+        size++;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Check whether a key is in the set.
+     * @param key The key to look for.
+     * @return <code>true</code> if the key is in the set.
+     */
+    boolean contains(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+
+        int index = indexFor(key);
+        while (table[index] != 0) {
+            if (table[index] == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Remove all of the keys from the set, keeping the allocated table unless it is much larger than needed.
+     * @param expectedSize The number of keys expected to be added after clearing.
+     */
+    void clear(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if (table.length > capacity * 4) {
+            allocate(capacity);
+        } else {
+            Arrays.fill(table, 0L);
+        }
+        size = 0;
+        containsZero = false;
+    }
+
+    private int indexFor(long key) {
+        return (int) mix(key) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldTable = table;
+        allocate(capacity);
+        for (long key : oldTable) {
+            if (key != 0) {
+                int index = indexFor(key);
+                while (table[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Spread the bits of a key (the MurmurHash3 64 bit finalizer).
+     * @param key The key to mix.
+     * @return The mixed key.
+     */
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
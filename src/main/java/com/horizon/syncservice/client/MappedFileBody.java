@@ -0,0 +1,114 @@
+package com.horizon.syncservice.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * An internal {@link RequestBody RequestBody} that sends a range of bytes of a file, mapped into memory one window
+ * at a time with {@link FileChannel#map(FileChannel.MapMode, long, long) FileChannel.map}.
+ * <p>The data is copied once, from the page cache into the segments of the connection's sink, instead of being read
+ * into a heap buffer first. The file is mapped {@value #WINDOW_SIZE} bytes at a time, so files larger than 2 GB can be
+ * sent. The windows are not unmapped explicitly: the JDK has no API for it, and each window stays mapped until its
+ * buffer is garbage collected.
+ * <p>The file is opened again each time the body is written, so the body can be sent any number of times.
+ */
+final class MappedFileBody extends ObjectDataBody {
+    /** The size of the regions of the file mapped at a time. */
+    static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    /** The number of bytes handed to the sink at a time, so that it emits them before taking more. */
+    private static final int WRITE_SIZE = Transfers.BUFFER_SIZE;
+
+    private final Path path;
+    private final long offset;
+    private final long length;
+
+    private MappedFileBody(Path path, long offset, long length) {
+        this.path = path;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Create a body that sends the content of a file.
+     * @param path The path of the file.
+     * @return The request body.
+     */
+    static MappedFileBody create(Path path) {
+        return new MappedFileBody(path, 0, path.toFile().length());
+    }
+
+    /**
+     * Create a body that sends a range of bytes of a file.
+     * @param path The path of the file.
+     * @param offset The offset of the first byte to send.
+     * @param length The number of bytes to send.
+     * @return The request body.
+     */
+    static MappedFileBody create(Path path, long offset, long length) {
+        checkArgument(offset >= 0 && length >= 0, "The offset and the length must not be negative");
+        return new MappedFileBody(path, offset, length);
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        try (FileChannel channel = open()) {
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(WINDOW_SIZE, end - position));
+                int limit = window.limit();
+                while (window.position() < limit) {
+                    // Cast, so that the class links against Java 8's Buffer.limit(int)
+                    ((Buffer) window).limit(Math.min(window.position() + WRITE_SIZE, limit));
+                    while (window.hasRemaining()) {
+                        sink.write(window);
+                    }
+                }
+                position += limit;
+            }
+        }
+    }
+
+    @Override
+    byte[] peek(int maxBytes) throws IOException {
+        try (FileChannel channel = open()) {
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(maxBytes, length));
+            while (head.hasRemaining()) {
+                if (channel.read(head, offset + head.position()) == -1) {
+                    break;
+                }
+            }
+            byte[] bytes = new byte[head.position()];
+            ((Buffer) head).flip();
+            head.get(bytes);
+            return bytes;
+        }
+    }
+
+    private FileChannel open() throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        if (channel.size() < offset + length) {
+            long size = channel.size();
+            channel.close();
+            throw new IOException(String.format("The file %s is %d bytes long, the range %d-%d is outside of it",
+                    path, size, offset, offset + length));
+        }
+        return channel;
+    }
+}
@@ -0,0 +1,156 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.internal.http.UnrepeatableRequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ForwardingSink;
+import okio.ForwardingSource;
+import okio.Okio;
+import retrofit2.Invocation;
+
+/**
+ * An internal interceptor that records the calls of a client in a {@link SyncServiceMetrics SyncServiceMetrics}.
+ * <p>The operation of a call is the name of the Retrofit service method that created it. Request and response
+ * bodies are wrapped to count the bytes actually sent and read.
+ */
+class MetricsInterceptor implements Interceptor {
+    static final String OTHER_OPERATION = "other";
+
+    private final SyncServiceMetrics metrics;
+
+    MetricsInterceptor(SyncServiceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        OperationMetrics operation = metrics.operation(operationOf(request));
+        if (request.body() != null) {
+            request = request.newBuilder()
+                    .method(request.method(), CountingRequestBody.wrap(request.body(), operation))
+                    .build();
+        }
+
+        operation.started();
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException ex) {
+            operation.completed(System.nanoTime() - start, false);
+            throw ex;
+        }
+        operation.completed(System.nanoTime() - start, response.code() < 500);
+
+        if (response.body() == null) {
+            return response;
+        }
+        return response.newBuilder().body(new CountingResponseBody(response.body(), operation)).build();
+    }
+
+    static String operationOf(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        return invocation != null ? invocation.method().getName() : OTHER_OPERATION;
+    }
+
+    private static class CountingRequestBody extends RequestBody {
+        private final RequestBody delegate;
+        private final OperationMetrics operation;
+
+        CountingRequestBody(RequestBody delegate, OperationMetrics operation) {
+            this.delegate = delegate;
+            this.operation = operation;
+        }
+
+        static RequestBody wrap(RequestBody body, OperationMetrics operation) {
+            // Keep OkHttp from retrying bodies that can be sent only once
+            if (body instanceof UnrepeatableRequestBody) {
+                return new UnrepeatableCountingRequestBody(body, operation);
+            }
+            return new CountingRequestBody(body, operation);
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            BufferedSink countingSink = Okio.buffer(new ForwardingSink(sink) {
+                @Override
+                public void write(Buffer source, long byteCount) throws IOException {
+                    super.write(source, byteCount);
+                    operation.uploaded(byteCount);
+                }
+            });
+            delegate.writeTo(countingSink);
+            countingSink.emit();
+        }
+    }
+
+    private static class UnrepeatableCountingRequestBody extends CountingRequestBody
+            implements UnrepeatableRequestBody {
+        UnrepeatableCountingRequestBody(RequestBody delegate, OperationMetrics operation) {
+            super(delegate, operation);
+        }
+    }
+
+    private static class CountingResponseBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final OperationMetrics operation;
+        private BufferedSource source;
+
+        CountingResponseBody(ResponseBody delegate, OperationMetrics operation) {
+            this.delegate = delegate;
+            this.operation = operation;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    @Override
+                    public long read(Buffer sink, long byteCount) throws IOException {
+                        long read = super.read(sink, byteCount);
+                        if (read > 0) {
+                            operation.downloaded(read);
+                        }
+                        return read;
+                    }
+                });
+            }
+            return source;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
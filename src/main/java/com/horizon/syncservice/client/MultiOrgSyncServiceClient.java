@@ -0,0 +1,268 @@
+package com.horizon.syncservice.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Client for a Cloud Sync Service (CSS) that serves many organizations.
+ * <p>All the organizations share one connection pool, dispatcher, set of Retrofit services and authentication.
+ * Each method takes the organization ID that the call applies to. The complete API of an organization is
+ * available from {@link #forOrg(String) forOrg}, which returns a lightweight {@link SyncServiceClient
+ * SyncServiceClient} view of this client.
+ * <p>If {@link SyncServiceClient.Builder#withMaxConcurrentCallsPerOrg(int)
+ * SyncServiceClient.Builder.withMaxConcurrentCallsPerOrg} was set, each organization gets its own limit on the
+ * number of calls in flight.
+ * <p>Note: Use {@link SyncServiceClient.Builder#buildMultiOrg() SyncServiceClient.Builder.buildMultiOrg} to create
+ * a MultiOrgSyncServiceClient instance.
+ */
+public class MultiOrgSyncServiceClient {
+
+    private final Function<String, SyncServiceClient> clientFactory;
+    private final ConcurrentMap<String, SyncServiceClient> clients =
+            new ConcurrentHashMap<String, SyncServiceClient>();
+
+    MultiOrgSyncServiceClient(Function<String, SyncServiceClient> clientFactory) {
+        this.clientFactory = clientFactory;
+    }
+
+    /**
+     * Get the client of an organization.
+     * <p>The returned client shares this client's transport with the clients of the other organizations. It is
+     * created, with the organization's own concurrency limit and cache, on first use and then reused.
+     * @param orgID The organization ID.
+     * @return A {@link SyncServiceClient SyncServiceClient} for the organization.
+     */
+    public SyncServiceClient forOrg(String orgID) {
+        SyncServiceClient client = clients.get(orgID);
+        if (client == null) {
+            SyncServiceClient newClient = clientFactory.apply(orgID);
+            client = clients.putIfAbsent(orgID, newClient);
+            if (client == null) {
+                client = newClient;
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Get the list of destinations in an organization.
+     * @param orgID The organization ID.
+     * @return A List of {@link Destination Destination} class objects.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#getDestinations()
+     */
+    public List<Destination> getDestinations(String orgID) throws SyncServiceException, IOException {
+        return forOrg(orgID).getDestinations();
+    }
+
+    /**
+     * Get the list of objects at a destination of an organization.
+     * @param orgID The organization ID.
+     * @param destType The destination type of the destination whose list of objects is to be returned.
+     * @param destID The destination ID of the destination whose list of objects is to be returned.
+     * @return A List of {@link ObjectStatus ObjectStatus} class objects.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#getDestinationObjects(String, String)
+     */
+    public List<ObjectStatus> getDestinationObjects(String orgID, String destType, String destID)
+            throws SyncServiceException, IOException {
+        return forOrg(orgID).getDestinationObjects(destType, destID);
+    }
+
+    /**
+     * Get the metadata of an object of an organization.
+     * @param orgID The organization ID.
+     * @param objectType The object type of the object.
+     * @param objectID The object ID of the object.
+     * @return The metadata of the object, or <code>null</code> if the object was not found.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#getObjectMetadata(String, String)
+     */
+    public SyncServiceMetaData getObjectMetadata(String orgID, String objectType, String objectID)
+            throws SyncServiceException, IOException {
+        return forOrg(orgID).getObjectMetadata(objectType, objectID);
+    }
+
+    /**
+     * Create/update an object of an organization. Only object metadata is sent in this request.
+     * @param orgID The organization ID.
+     * @param metaData specifies the object's metadata.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#updateObject(SyncServiceMetaData)
+     */
+    public void updateObject(String orgID, SyncServiceMetaData metaData) throws SyncServiceException, IOException {
+        forOrg(orgID).updateObject(metaData);
+    }
+
+    /**
+     * Get the list of objects of an organization that were updated.
+     * @param orgID The organization ID.
+     * @param objectType The object type of the objects to be returned.
+     * @param received When true, the objects that were marked as received are returned as well.
+     * @return A List of {@link SyncServiceMetaData SyncServiceMetaData} class objects.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#getUpdatedObjects(String, boolean)
+     */
+    public List<SyncServiceMetaData> getUpdatedObjects(String orgID, String objectType, boolean received)
+            throws SyncServiceException, IOException {
+        return forOrg(orgID).getUpdatedObjects(objectType, received);
+    }
+
+    /**
+     * Get the list of destinations of an object of an organization, and the object's status at each one.
+     * @param orgID The organization ID.
+     * @param objectType The object type of the object.
+     * @param objectID The object ID of the object.
+     * @return A List of {@link DestinationStatus DestinationStatus} class objects.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#getObjectDestinations(String, String)
+     */
+    public List<DestinationStatus> getObjectDestinations(String orgID, String objectType, String objectID)
+            throws SyncServiceException, IOException {
+        return forOrg(orgID).getObjectDestinations(objectType, objectID);
+    }
+
+    /**
+     * Get the status of an object of an organization.
+     * @param orgID The organization ID.
+     * @param objectType The object type of the object.
+     * @param objectID The object ID of the object.
+     * @return The status of the object.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#getObjectStatus(String, String)
+     */
+    public String getObjectStatus(String orgID, String objectType, String objectID)
+            throws SyncServiceException, IOException {
+        return forOrg(orgID).getObjectStatus(objectType, objectID);
+    }
+
+    /**
+     * Send the data of an object of an organization.
+     * @param orgID The organization ID.
+     * @param metaData The metadata of the object whose data is sent.
+     * @param input The data of the object.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#updateObjectData(SyncServiceMetaData, byte[])
+     */
+    public void updateObjectData(String orgID, SyncServiceMetaData metaData, byte[] input)
+            throws SyncServiceException, IOException {
+        forOrg(orgID).updateObjectData(metaData, input);
+    }
+
+    /**
+     * Send the data of an object of an organization from a file.
+     * @param orgID The organization ID.
+     * @param metaData The metadata of the object whose data is sent.
+     * @param input The file containing the data of the object.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#updateObjectData(SyncServiceMetaData, File)
+     */
+    public void updateObjectData(String orgID, SyncServiceMetaData metaData, File input)
+            throws SyncServiceException, IOException {
+        forOrg(orgID).updateObjectData(metaData, input);
+    }
+
+    /**
+     * Fetch the data of an object of an organization.
+     * @param orgID The organization ID.
+     * @param metaData The metadata of the object whose data is fetched.
+     * @return The data of the object.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#fetchObjectData(SyncServiceMetaData)
+     */
+    public byte[] fetchObjectData(String orgID, SyncServiceMetaData metaData)
+            throws SyncServiceException, IOException {
+        return forOrg(orgID).fetchObjectData(metaData);
+    }
+
+    /**
+     * Fetch the data of an object of an organization into a file.
+     * @param orgID The organization ID.
+     * @param metaData The metadata of the object whose data is fetched.
+     * @param file The file to write the data to.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#fetchObjectData(SyncServiceMetaData, File)
+     */
+    public void fetchObjectData(String orgID, SyncServiceMetaData metaData, File file)
+            throws SyncServiceException, IOException {
+        forOrg(orgID).fetchObjectData(metaData, file);
+    }
+
+    /**
+     * Delete an object of an organization.
+     * @param orgID The organization ID.
+     * @param metaData The metadata of the object to delete.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#deleteObject(SyncServiceMetaData)
+     */
+    public void deleteObject(String orgID, SyncServiceMetaData metaData) throws SyncServiceException, IOException {
+        forOrg(orgID).deleteObject(metaData);
+    }
+
+    /**
+     * Activate an object of an organization that was marked as inactive.
+     * @param orgID The organization ID.
+     * @param metaData The metadata of the object to activate.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#activateObject(SyncServiceMetaData)
+     */
+    public void activateObject(String orgID, SyncServiceMetaData metaData) throws SyncServiceException, IOException {
+        forOrg(orgID).activateObject(metaData);
+    }
+
+    /**
+     * Mark an object of an organization as consumed.
+     * @param orgID The organization ID.
+     * @param metaData The metadata of the object to mark.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#markObjectConsumed(SyncServiceMetaData)
+     */
+    public void markObjectConsumed(String orgID, SyncServiceMetaData metaData)
+            throws SyncServiceException, IOException {
+        forOrg(orgID).markObjectConsumed(metaData);
+    }
+
+    /**
+     * Mark an object of an organization as deleted.
+     * @param orgID The organization ID.
+     * @param metaData The metadata of the object to mark.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#markObjectDeleted(SyncServiceMetaData)
+     */
+    public void markObjectDeleted(String orgID, SyncServiceMetaData metaData)
+            throws SyncServiceException, IOException {
+        forOrg(orgID).markObjectDeleted(metaData);
+    }
+
+    /**
+     * Mark an object of an organization as received.
+     * @param orgID The organization ID.
+     * @param metaData The metadata of the object to mark.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     * @see SyncServiceClient#markObjectReceived(SyncServiceMetaData)
+     */
+    public void markObjectReceived(String orgID, SyncServiceMetaData metaData)
+            throws SyncServiceException, IOException {
+        forOrg(orgID).markObjectReceived(metaData);
+    }
+}
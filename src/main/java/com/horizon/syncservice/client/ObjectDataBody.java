@@ -0,0 +1,98 @@
+package com.horizon.syncservice.client;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * An internal {@link RequestBody RequestBody} of object data, whose first bytes can be looked at before the body
+ * is sent, for example to decide whether it is worth compressing.
+ * <p>The bodies created from a byte array or a file can be sent any number of times. The bodies that stream their
+ * data from a source that can be read only once are {@link StreamingRequestBody StreamingRequestBody} objects.
+ */
+abstract class ObjectDataBody extends RequestBody {
+    static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    @Override
+    public MediaType contentType() {
+        return OCTET_STREAM;
+    }
+
+    /**
+     * Get the first bytes of the data, without consuming them.
+     * @param maxBytes The number of bytes wanted.
+     * @return The first bytes of the data. There are fewer than maxBytes only if the data is shorter, and there
+     *            may be more.
+     * @throws IOException If an I/O error occurred reading the data.
+     */
+    abstract byte[] peek(int maxBytes) throws IOException;
+
+    /**
+     * Create a body that sends an array of bytes.
+     * @param data The data. It must not be modified until the body was sent.
+     * @return The request body.
+     */
+    static ObjectDataBody create(final byte[] data) {
+        return new ObjectDataBody() {
+            @Override
+            public long contentLength() {
+                return data.length;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                sink.write(data);
+            }
+
+            @Override
+            byte[] peek(int maxBytes) {
+                return data.length <= maxBytes ? data : Arrays.copyOf(data, maxBytes);
+            }
+        };
+    }
+
+    /**
+     * Create a body that sends the content of a file.
+     * @param file The file.
+     * @return The request body.
+     */
+    static ObjectDataBody create(final File file) {
+        return new ObjectDataBody() {
+            @Override
+            public long contentLength() {
+                return file.length();
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                try (Source source = Okio.source(file)) {
+                    sink.writeAll(source);
+                }
+            }
+
+            @Override
+            byte[] peek(int maxBytes) throws IOException {
+                byte[] head = new byte[maxBytes];
+                int length = 0;
+                try (InputStream input = new FileInputStream(file)) {
+                    while (length < maxBytes) {
+                        int read = input.read(head, length, maxBytes - length);
+                        if (read == -1) {
+                            break;
+                        }
+                        length += read;
+                    }
+                }
+                return length == maxBytes ? head : Arrays.copyOf(head, length);
+            }
+        };
+    }
+}
@@ -0,0 +1,148 @@
+package com.horizon.syncservice.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An internal, bounded cache of the information read about objects: their metadata, status and destinations.
+ * <p>Entries expire a fixed time after they were read from the Sync Service. When the cache is full, the least
+ * recently used entry is evicted.
+ * <p>All of an object's entries are invalidated when the client changes the object. A read that was in progress
+ * while an object was invalidated is not cached, so that it can't put back information that is out of date.
+ */
+class ObjectInfoCache {
+    static final int METADATA = 0;
+    static final int STATUS = 1;
+    static final int DESTINATIONS = 2;
+
+    /** A cache that caches nothing, used when caching is not enabled. */
+    static final ObjectInfoCache DISABLED = new ObjectInfoCache(0, 0);
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+    private long generation;
+
+    private ObjectInfoCache(final int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ObjectInfoCache.Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Create a cache, unless caching is not enabled.
+     * @param maxEntries The maximum number of entries, or 0 if caching is not enabled.
+     * @param ttlMillis The time, in milli-seconds, entries are kept.
+     * @return The cache.
+     */
+    static ObjectInfoCache create(int maxEntries, long ttlMillis) {
+        return maxEntries > 0 ? new ObjectInfoCache(maxEntries, ttlMillis) : DISABLED;
+    }
+
+    /**
+     * Get the current generation of the cache, to be passed to {@link #put(int, String, String, Object, long) put}
+     * with the result of a read started after this call.
+     * @return The generation.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Get a cached entry.
+     * @param kind The kind of information: {@link #METADATA}, {@link #STATUS} or {@link #DESTINATIONS}.
+     * @param objectType The object type of the object.
+     * @param objectID The object ID of the object.
+     * @return The entry, or <code>null</code> if the information is not cached or expired.
+     */
+    synchronized Entry get(int kind, String objectType, String objectID) {
+        if (maxEntries == 0) {
+            return null;
+        }
+        Key key = new Key(kind, objectType, objectID);
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.readAt >= ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Cache information read from the Sync Service, unless an object was invalidated since the read started.
+     * @param kind The kind of information: {@link #METADATA}, {@link #STATUS} or {@link #DESTINATIONS}.
+     * @param objectType The object type of the object.
+     * @param objectID The object ID of the object.
+     * @param value The information. May be <code>null</code>.
+     * @param readGeneration The {@link #generation() generation} of the cache before the read started.
+     */
+    synchronized void put(int kind, String objectType, String objectID, Object value, long readGeneration) {
+        if (maxEntries == 0 || readGeneration != generation) {
+            return;
+        }
+        entries.put(new Key(kind, objectType, objectID), new Entry(value, System.nanoTime()));
+    }
+
+    /**
+     * Remove all the entries of an object.
+     * @param objectType The object type of the object.
+     * @param objectID The object ID of the object.
+     */
+    synchronized void invalidate(String objectType, String objectID) {
+        if (maxEntries == 0) {
+            return;
+        }
+        generation++;
+        entries.remove(new Key(METADATA, objectType, objectID));
+        entries.remove(new Key(STATUS, objectType, objectID));
+        entries.remove(new Key(DESTINATIONS, objectType, objectID));
+    }
+
+    static final class Entry {
+        private final Object value;
+        private final long readAt;
+
+        private Entry(Object value, long readAt) {
+            this.value = value;
+            this.readAt = readAt;
+        }
+
+        Object getValue() {
+            return value;
+        }
+    }
+
+    private static final class Key {
+        private final int kind;
+        private final String objectType;
+        private final String objectID;
+
+        Key(int kind, String objectType, String objectID) {
+            this.kind = kind;
+            this.objectType = objectType;
+            this.objectID = objectID;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return kind == key.kind && objectType.equals(key.objectType) && objectID.equals(key.objectID);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * kind + objectType.hashCode()) * 31 + objectID.hashCode();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.horizon.syncservice.client;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 
@@ -80,4 +81,14 @@ public class ObjectStatus {
     public String getStatus() {
         return status;
     }
+
+    /**
+     * Get the status of the delivery of the object described here to the destination in question, as a typed value.
+     * @return The status, {@link DeliveryStatus#UNKNOWN UNKNOWN} if it is not a known status, or <code>null</code>
+     *            if it is not set.
+     */
+    @JsonIgnore
+    public DeliveryStatus getDeliveryStatus() {
+        return DeliveryStatus.of(status);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,242 @@
+package com.horizon.syncservice.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The metrics of one logical Sync Service operation, such as getUpdatedObjects, putObjectData, objectOperation
+ * or securityUpdate.
+ * <p>An OperationMetrics object is a live view, its values change as calls complete.
+ * <p>The latency of a call is the time from sending the request until the response headers are received, or
+ * until the call failed. It includes the time spent in the network and in the Sync Service, but not the time
+ * spent by the application reading the response body, nor the time a call waited for a concurrency permit.
+ */
+public class OperationMetrics {
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private final String name;
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong bytesUploaded = new AtomicLong();
+    private final AtomicLong bytesDownloaded = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong compressedBytes = new AtomicLong();
+    private final AtomicLong compressionCpuNanos = new AtomicLong();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the name of the operation.
+     * @return The name of the operation.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the number of completed calls of the operation, including the ones that failed.
+     * @return The number of completed calls.
+     */
+    public long getCallCount() {
+        return latencies.getCount();
+    }
+
+    /**
+     * Get the number of calls of the operation that failed with an I/O error or a server error (5xx) response.
+     * @return The number of failed calls.
+     */
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * Get the number of calls of the operation that were sent and whose response headers were not received yet.
+     * @return The number of calls in flight.
+     */
+    public long getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Get the number of bytes of request bodies sent by the operation.
+     * @return The number of bytes uploaded.
+     */
+    public long getBytesUploaded() {
+        return bytesUploaded.get();
+    }
+
+    /**
+     * Get the number of bytes of response bodies read by the operation.
+     * @return The number of bytes downloaded.
+     */
+    public long getBytesDownloaded() {
+        return bytesDownloaded.get();
+    }
+
+    /**
+     * Get the number of times a call of the operation was retried, see {@link RetryPolicy RetryPolicy}.
+     * <p>Each attempt is counted as a call of its own by {@link #getCallCount()}.
+     * @return The number of retries.
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * Get the number of calls of the operation that were not sent because a circuit breaker was open, see
+     * {@link RetryPolicy RetryPolicy}.
+     * @return The number of rejected calls.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Get the number of bytes of object data compressed or decompressed by the operation, counted before
+     * compression, see {@link SyncServiceClient.Builder#withCompression(long) withCompression}.
+     * @return The number of uncompressed bytes.
+     */
+    public long getUncompressedBytes() {
+        return uncompressedBytes.get();
+    }
+
+    /**
+     * Get the number of bytes of object data compressed or decompressed by the operation, counted after
+     * compression.
+     * @return The number of compressed bytes.
+     */
+    public long getCompressedBytes() {
+        return compressedBytes.get();
+    }
+
+    /**
+     * Get the ratio of the size of the object data of the operation before and after compression.
+     * @return The compression ratio, for example 10 when the data was compressed to a tenth of its size, or 0 if
+     *            no data was compressed.
+     */
+    public double getCompressionRatio() {
+        long compressed = compressedBytes.get();
+        return compressed == 0 ? 0 : (double) uncompressedBytes.get() / compressed;
+    }
+
+    /**
+     * Get the CPU time spent writing compressed request bodies and reading compressed response bodies of the
+     * operation, which is mostly the time spent compressing and decompressing.
+     * <p>The time is measured with {@link java.lang.management.ThreadMXBean ThreadMXBean}, and is not recorded
+     * on threads whose CPU time can't be measured.
+     * @return The CPU time in milli-seconds.
+     */
+    public double getCompressionCpuMillis() {
+        return compressionCpuNanos.get() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Get the mean latency of the operation.
+     * @return The mean latency in milli-seconds, or 0 if no call completed.
+     */
+    public double getMeanLatencyMillis() {
+        return latencies.getMeanMicros() / MICROS_PER_MILLI;
+    }
+
+    /**
+     * Get the highest latency of the operation.
+     * @return The highest latency in milli-seconds, or 0 if no call completed.
+     */
+    public double getMaxLatencyMillis() {
+        return latencies.getMaxMicros() / MICROS_PER_MILLI;
+    }
+
+    /**
+     * Get the latency below which a given percentage of the calls of the operation completed.
+     * <p>The result is within about 3% of the exact percentile.
+     * @param percentile The percentile, between 0 and 100, for example 99.9.
+     * @return The latency in milli-seconds, or 0 if no call completed.
+     */
+    public double getLatencyPercentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    /**
+     * Get the median latency of the operation.
+     * @return The latency in milli-seconds, or 0 if no call completed.
+     */
+    public double getP50LatencyMillis() {
+        return getLatencyPercentileMillis(50);
+    }
+
+    /**
+     * Get the 90th percentile of the latency of the operation.
+     * @return The latency in milli-seconds, or 0 if no call completed.
+     */
+    public double getP90LatencyMillis() {
+        return getLatencyPercentileMillis(90);
+    }
+
+    /**
+     * Get the 99th percentile of the latency of the operation.
+     * @return The latency in milli-seconds, or 0 if no call completed.
+     */
+    public double getP99LatencyMillis() {
+        return getLatencyPercentileMillis(99);
+    }
+
+    /**
+     * Get the 99.9th percentile of the latency of the operation.
+     * @return The latency in milli-seconds, or 0 if no call completed.
+     */
+    public double getP999LatencyMillis() {
+        return getLatencyPercentileMillis(99.9);
+    }
+
+    @Override
+    public String toString() {
+        String compression = compressedBytes.get() == 0 ? "" : String.format(" compression=%.2f cpu=%.2fms",
+                getCompressionRatio(), getCompressionCpuMillis());
+        return String.format("%s: calls=%d errors=%d retries=%d rejected=%d inFlight=%d up=%dB down=%dB "
+                + "mean=%.2fms p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms%s", name, getCallCount(), getErrorCount(),
+                getRetryCount(), getRejectedCount(), getInFlight(), getBytesUploaded(), getBytesDownloaded(),
+                getMeanLatencyMillis(), getP50LatencyMillis(), getP90LatencyMillis(), getP99LatencyMillis(),
+                getMaxLatencyMillis(), compression);
+    }
+
+    void started() {
+        inFlight.incrementAndGet();
+    }
+
+    void completed(long latencyNanos, boolean success) {
+        inFlight.decrementAndGet();
+        if (!success) {
+            errorCount.incrementAndGet();
+        }
+        latencies.record(latencyNanos);
+    }
+
+    void uploaded(long bytes) {
+        bytesUploaded.addAndGet(bytes);
+    }
+
+    void downloaded(long bytes) {
+        bytesDownloaded.addAndGet(bytes);
+    }
+
+    void compressed(long uncompressed, long compressed, long cpuNanos) {
+        uncompressedBytes.addAndGet(uncompressed);
+        compressedBytes.addAndGet(compressed);
+        if (cpuNanos > 0) {
+            compressionCpuNanos.addAndGet(cpuNanos);
+        }
+    }
+
+    void retried() {
+        retryCount.incrementAndGet();
+    }
+
+    void rejected() {
+        rejectedCount.incrementAndGet();
+    }
+}
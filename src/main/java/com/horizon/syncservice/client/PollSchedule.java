@@ -0,0 +1,131 @@
+package com.horizon.syncservice.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The delays between the polls of the Sync Service made while waiting for an object to reach a status, see
+ * {@link SyncServiceClient#waitForObjectStatus(String, String, String, long, PollSchedule)
+ * SyncServiceClient.waitForObjectStatus}.
+ * <p>The first polls are made quickly, so that a delivery that completes soon is noticed soon. The delay then grows
+ * exponentially, up to a maximum, so that a long wait doesn't load the Sync Service. Each delay after the fast
+ * polls is picked at random between half of its value and its value, so that waiters that started together spread
+ * their polls instead of polling in lockstep.
+ * <p>Note: Use the class PollSchedule.Builder to create a PollSchedule instance.
+ */
+public class PollSchedule {
+
+    /** The default schedule: 3 polls 100 milli-seconds apart, then doubling delays up to 10 seconds. */
+    public static final PollSchedule DEFAULT = new Builder().build();
+
+    private final int fastPolls;
+    private final long fastDelayMillis;
+    private final double multiplier;
+    private final long maxDelayMillis;
+
+    private PollSchedule(Builder builder) {
+        this.fastPolls = builder.fastPolls;
+        this.fastDelayMillis = builder.fastDelayMillis;
+        this.multiplier = builder.multiplier;
+        this.maxDelayMillis = builder.maxDelayMillis;
+    }
+
+    /**
+     * Get the number of polls made with the fast delay after the first one.
+     * @return The number of fast polls.
+     */
+    public int getFastPolls() {
+        return fastPolls;
+    }
+
+    /**
+     * Get the delay between the fast polls, which is also the base of the exponential delays.
+     * @return The delay in milli-seconds.
+     */
+    public long getFastDelayMillis() {
+        return fastDelayMillis;
+    }
+
+    /**
+     * Get the factor applied to the delay after each of the polls that follow the fast polls.
+     * @return The multiplier.
+     */
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Get the longest delay between two polls.
+     * @return The delay in milli-seconds.
+     */
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    /**
+     * Get the delay before a poll.
+     * @param poll The number of polls already made after the first one, from 0.
+     * @return The delay in milli-seconds.
+     */
+    long delayMillis(int poll) {
+        if (poll < fastPolls) {
+            return fastDelayMillis;
+        }
+        double delay = fastDelayMillis * Math.pow(multiplier, poll - fastPolls + 1);
+        long max = (long) Math.min(delay, maxDelayMillis);
+        long min = Math.max(max / 2, fastDelayMillis);
+        return min >= max ? max : ThreadLocalRandom.current().nextLong(min, max + 1);
+    }
+
+    /** The builder class used to create an instance of {@link PollSchedule PollSchedule} object */
+    public static class Builder {
+        private static String NEGATIVEVALUE = "Negative value";
+        private static String NONPOSITIVEVALUE = "Non-positive value";
+
+        private int fastPolls = 3;
+        private long fastDelayMillis = 100;
+        private double multiplier = 2;
+        private long maxDelayMillis = 10000;
+
+        /**
+         * Set the polls made quickly, at the start of a wait.
+         * <p>The default is 3 polls 100 milli-seconds apart.
+         * @param fastPolls The number of polls made with the fast delay after the first one.
+         * @param fastDelayMillis The delay, in milli-seconds, between the fast polls. It is also the base of the
+         *            exponential delays that follow.
+         * @return this
+         */
+        public Builder withFastPolls(int fastPolls, long fastDelayMillis) {
+            checkArgument(fastPolls >= 0, NEGATIVEVALUE);
+            checkArgument(fastDelayMillis > 0, NONPOSITIVEVALUE);
+            this.fastPolls = fastPolls;
+            this.fastDelayMillis = fastDelayMillis;
+            return this;
+        }
+
+        /**
+         * Set how the delay grows after the fast polls.
+         * <p>The default is to double the delay after each poll, up to 10 seconds.
+         * @param multiplier The factor applied to the delay after each poll, at least 1.
+         * @param maxDelayMillis The longest delay, in milli-seconds.
+         * @return this
+         */
+        public Builder withBackoff(double multiplier, long maxDelayMillis) {
+            checkArgument(multiplier >= 1, "Multiplier smaller than 1");
+            checkArgument(maxDelayMillis > 0, NONPOSITIVEVALUE);
+            this.multiplier = multiplier;
+            this.maxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        /**
+         * Actually build the {@link PollSchedule PollSchedule} object.
+         * @return A {@link PollSchedule PollSchedule} object
+         */
+        public PollSchedule build() {
+            checkArgument(maxDelayMillis >= fastDelayMillis, "Maximum delay shorter than the fast delay");
+            return new PollSchedule(this);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.horizon.syncservice.client;
 
 import java.util.List;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
@@ -9,101 +11,164 @@ import retrofit2.http.GET;
 import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 import retrofit2.Retrofit;
 
 class RetrofitHelper {
     private final String orgID;
+    private final boolean useESS;
     private final ApiCSS apiCSS;
     private final ApiESS apiESS;
+    private final ConcurrencyLimiter limiter;
+    private final ObjectMapper mapper;
+
+    RetrofitHelper(String orgID, Retrofit retrofit, ObjectMapper mapper) {
+        this(orgID, retrofit.create(ApiCSS.class), retrofit.create(ApiESS.class), null, mapper);
+    }
 
-    RetrofitHelper(String orgID, Retrofit retrofit) {
+    private RetrofitHelper(String orgID, ApiCSS apiCSS, ApiESS apiESS, ConcurrencyLimiter limiter,
+            ObjectMapper mapper) {
         this.orgID = orgID;
-        this.apiCSS = retrofit.create(ApiCSS.class);
-        this.apiESS = retrofit.create(ApiESS.class);
+        this.useESS = orgID.equals("");
+        this.apiCSS = apiCSS;
+        this.apiESS = apiESS;
+        this.limiter = limiter;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Create a helper for another organization that shares this helper's Retrofit services.
+     * @param orgID The organization ID, or "" when communicating with an ESS.
+     * @param limiter The limit on concurrent calls of the organization, or <code>null</code> for no limit.
+     * @return The new helper.
+     */
+    RetrofitHelper forOrg(String orgID, ConcurrencyLimiter limiter) {
+        return new RetrofitHelper(orgID, apiCSS, apiESS, limiter, mapper);
+    }
+
+    /**
+     * Get the ObjectMapper used by the Retrofit services, for parsing streamed responses.
+     * @return The ObjectMapper.
+     */
+    ObjectMapper getObjectMapper() {
+        return mapper;
+    }
+
+    private <T> Call<T> limit(Call<T> call) {
+        return limiter == null ? call : new LimitedCall<T>(call, limiter);
     }
 
     protected Call<List<Destination>> getDestinations() {
-        return orgID.equals("") ? apiESS.getDestinations() : apiCSS.getDestinations(orgID);
+        return limit(useESS ? apiESS.getDestinations() : apiCSS.getDestinations(orgID));
     }
 
     protected Call<List<ObjectStatus>> getDestinationObjects(String destType, String destID) {
-        return orgID.equals("") ?
+        return limit(useESS ?
                 apiESS.getDestinationObjects(destType, destID) :
-                apiCSS.getDestinationObjects(orgID, destType, destID);
+                apiCSS.getDestinationObjects(orgID, destType, destID));
     }
 
     protected Call<List<SyncServiceMetaData>> getUpdatedObjects(String objectType, boolean received) {
-        return orgID.equals("") ?
+        return limit(useESS ?
                 apiESS.getUpdatedObjects(objectType, received) :
-                apiCSS.getUpdatedObjects(orgID, objectType, received);
+                apiCSS.getUpdatedObjects(orgID, objectType, received));
     }
 
     protected Call<ResponseBody> getObjectData(String objectType, String objectID) {
-        return orgID.equals("") ?
+        return limit(useESS ?
                 apiESS.getObjectData(objectType, objectID) :
-                apiCSS.getObjectData(orgID, objectType, objectID);
+                apiCSS.getObjectData(orgID, objectType, objectID));
     }
 
     protected Call<List<DestinationStatus>> getObjectDestinations(String objectType, String objectID) {
-        return orgID.equals("") ?
+        return limit(useESS ?
                 apiESS.getObjectDestinations(objectType, objectID) :
-                apiCSS.getObjectDestinations(orgID, objectType, objectID);
+                apiCSS.getObjectDestinations(orgID, objectType, objectID));
+    }
+
+    protected Call<ResponseBody> streamDestinations() {
+        return limit(useESS ? apiESS.streamDestinations() : apiCSS.streamDestinations(orgID));
+    }
+
+    protected Call<ResponseBody> streamDestinationObjects(String destType, String destID) {
+        return limit(useESS ?
+                apiESS.streamDestinationObjects(destType, destID) :
+                apiCSS.streamDestinationObjects(orgID, destType, destID));
+    }
+
+    protected Call<ResponseBody> streamUpdatedObjects(String objectType, boolean received) {
+        return limit(useESS ?
+                apiESS.streamUpdatedObjects(objectType, received) :
+                apiCSS.streamUpdatedObjects(orgID, objectType, received));
+    }
+
+    protected Call<ResponseBody> streamObjectDestinations(String objectType, String objectID) {
+        return limit(useESS ?
+                apiESS.streamObjectDestinations(objectType, objectID) :
+                apiCSS.streamObjectDestinations(orgID, objectType, objectID));
+    }
+
+    protected Call<SyncServiceMetaData> getObjectMetadata(String objectType, String objectID) {
+        return limit(useESS ?
+                apiESS.getObjectMetadata(objectType, objectID) :
+                apiCSS.getObjectMetadata(orgID, objectType, objectID));
     }
 
     protected Call<String> getObjectStatus(String objectType, String objectID) {
-        return orgID.equals("") ?
+        return limit(useESS ?
                 apiESS.getObjectStatus(objectType, objectID) :
-                apiCSS.getObjectStatus(orgID, objectType, objectID);
+                apiCSS.getObjectStatus(orgID, objectType, objectID));
     }
 
     protected Call<Void> putObject(String objectType, String objectID, ObjectPayload payload) {
-        return orgID.equals("") ?
+        return limit(useESS ?
                 apiESS.putObject(objectType, objectID, payload) :
-                apiCSS.putObject(orgID, objectType, objectID, payload);
+                apiCSS.putObject(orgID, objectType, objectID, payload));
     }
 
     protected Call<Void> putObjectData(String objectType, String objectID, RequestBody requestBody) {
-        return orgID.equals("") ?
+        return limit(useESS ?
                 apiESS.putObjectData(objectType, objectID, requestBody) :
-                apiCSS.putObjectData(orgID, objectType, objectID, requestBody);
+                apiCSS.putObjectData(orgID, objectType, objectID, requestBody));
     }
 
     protected Call<Void> objectOperation(String objectType, String objectID, String operation) {
-        return orgID.equals("") ?
+        return limit(useESS ?
                 apiESS.objectOperation(objectType, objectID, operation) :
-                apiCSS.objectOperation(orgID, objectType, objectID, operation);
+                apiCSS.objectOperation(orgID, objectType, objectID, operation));
     }
 
     protected Call<Void> deleteObject(String objectType, String objectID) {
-        return orgID.equals("") ?
+        return limit(useESS ?
                 apiESS.deleteObject(objectType, objectID) :
-                apiCSS.deleteObject(orgID, objectType, objectID);
+                apiCSS.deleteObject(orgID, objectType, objectID));
     }
 
     protected Call<Void> registerWebHook(String objectType, RequestBody requestBody) {
-        return orgID.equals("") ?
+        return limit(useESS ?
                 apiESS.registerWebHook(objectType, requestBody) :
-                apiCSS.registerWebHook(orgID, objectType, requestBody);
+                apiCSS.registerWebHook(orgID, objectType, requestBody));
     }
 
     protected Call<Void> resend() {
-        return orgID.equals("") ? apiESS.resend() : apiCSS.resend();
+        return limit(useESS ? apiESS.resend() : apiCSS.resend());
     }
 
     protected Call<Void> securityUpdate(String aclType, String key, ACLBulkPayload payload) {
-        return orgID.equals("") ?
+        return limit(useESS ?
                 apiESS.securityUpdate(aclType, key, payload) :
-                apiCSS.securityUpdate(aclType, orgID, key, payload);
+                apiCSS.securityUpdate(aclType, orgID, key, payload));
     }
 
     protected Call<List<String>> retrieveACL(String aclType, String key) {
-        return orgID.equals("") ? apiESS.retrieveACL(aclType, key) : apiCSS.retrieveACL(aclType, orgID, key);
+        return limit(useESS ? apiESS.retrieveACL(aclType, key) : apiCSS.retrieveACL(aclType, orgID, key));
     }
 
     protected Call<List<String>> retrieveAllACLs(String aclType) {
-        return orgID.equals("") ? apiESS.retrieveAllACLs(aclType) : apiCSS.retrieveAllACLs(aclType, orgID);
+        return limit(useESS ? apiESS.retrieveAllACLs(aclType) : apiCSS.retrieveAllACLs(aclType, orgID));
     }
 
     interface ApiCSS {
@@ -115,10 +180,11 @@ class RetrofitHelper {
         Call<List<ObjectStatus>> getDestinationObjects(@Path("orgID") String orgID,
                 @Path("destType") String destType, @Path("destID") String destID);
 
-        @GET("/api/v1/objects/{orgID}/{objectType}?received={received}")
+        @GET("/api/v1/objects/{orgID}/{objectType}")
         Call<List<SyncServiceMetaData>> getUpdatedObjects(@Path("orgID") String orgID,
-                @Path("objectType") String objectType, @Path("received") boolean received);
+                @Path("objectType") String objectType, @Query("received") boolean received);
 
+        @Streaming
         @GET("/api/v1/objects/{orgID}/{objectType}/{objectID}/data")
         Call<ResponseBody> getObjectData(@Path("orgID") String orgID, @Path("objectType") String objectType,
                 @Path("objectID") String objectID);
@@ -127,6 +193,29 @@ class RetrofitHelper {
         Call<List<DestinationStatus>> getObjectDestinations(@Path("orgID") String orgID,
                 @Path("objectType") String objectType, @Path("objectID") String objectID);
 
+        @Streaming
+        @GET("/api/v1/destinations/{orgID}")
+        Call<ResponseBody> streamDestinations(@Path("orgID") String orgID);
+
+        @Streaming
+        @GET("/api/v1/destinations/{orgID}/{destType}/{destID}/objects")
+        Call<ResponseBody> streamDestinationObjects(@Path("orgID") String orgID,
+                @Path("destType") String destType, @Path("destID") String destID);
+
+        @Streaming
+        @GET("/api/v1/objects/{orgID}/{objectType}")
+        Call<ResponseBody> streamUpdatedObjects(@Path("orgID") String orgID,
+                @Path("objectType") String objectType, @Query("received") boolean received);
+
+        @Streaming
+        @GET("/api/v1/objects/{orgID}/{objectType}/{objectID}/destinations")
+        Call<ResponseBody> streamObjectDestinations(@Path("orgID") String orgID,
+                @Path("objectType") String objectType, @Path("objectID") String objectID);
+
+        @GET("/api/v1/objects/{orgID}/{objectType}/{objectID}")
+        Call<SyncServiceMetaData> getObjectMetadata(@Path("orgID") String orgID,
+                @Path("objectType") String objectType, @Path("objectID") String objectID);
+
         @GET("/api/v1/objects/{orgID}/{objectType}/{objectID}/status")
         Call<String> getObjectStatus(@Path("orgID") String orgID,
                 @Path("objectType") String objectType, @Path("objectID") String objectID);
@@ -173,9 +262,10 @@ class RetrofitHelper {
         @GET("/api/v1/destinations/{destType}/{destID}/objects")
         Call<List<ObjectStatus>> getDestinationObjects(@Path("destType") String destType, @Path("destID") String destID);
 
-        @GET("/api/v1/objects/{objectType}?received={received}")
-        Call<List<SyncServiceMetaData>> getUpdatedObjects(@Path("objectType") String objectType, @Path("received") boolean received);
+        @GET("/api/v1/objects/{objectType}")
+        Call<List<SyncServiceMetaData>> getUpdatedObjects(@Path("objectType") String objectType, @Query("received") boolean received);
 
+        @Streaming
         @GET("/api/v1/objects/{objectType}/{objectID}/data")
         Call<ResponseBody> getObjectData(@Path("objectType") String objectType,
                 @Path("objectID") String objectID);
@@ -183,6 +273,25 @@ class RetrofitHelper {
         @GET("/api/v1/objects/{objectType}/{objectID}/destinations")
         Call<List<DestinationStatus>> getObjectDestinations(@Path("objectType") String objectType, @Path("objectID") String objectID);
 
+        @Streaming
+        @GET("/api/v1/destinations")
+        Call<ResponseBody> streamDestinations();
+
+        @Streaming
+        @GET("/api/v1/destinations/{destType}/{destID}/objects")
+        Call<ResponseBody> streamDestinationObjects(@Path("destType") String destType, @Path("destID") String destID);
+
+        @Streaming
+        @GET("/api/v1/objects/{objectType}")
+        Call<ResponseBody> streamUpdatedObjects(@Path("objectType") String objectType, @Query("received") boolean received);
+
+        @Streaming
+        @GET("/api/v1/objects/{objectType}/{objectID}/destinations")
+        Call<ResponseBody> streamObjectDestinations(@Path("objectType") String objectType, @Path("objectID") String objectID);
+
+        @GET("/api/v1/objects/{objectType}/{objectID}")
+        Call<SyncServiceMetaData> getObjectMetadata(@Path("objectType") String objectType, @Path("objectID") String objectID);
+
         @GET("/api/v1/objects/{objectType}/{objectID}/status")
         Call<String> getObjectStatus(@Path("objectType") String objectType, @Path("objectID") String objectID);
 
@@ -0,0 +1,181 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.internal.http.UnrepeatableRequestBody;
+import retrofit2.Invocation;
+
+/**
+ * An internal interceptor that applies a {@link RetryPolicy RetryPolicy} to the calls of a client.
+ * <p>It is the outermost interceptor, so each attempt goes through the other interceptors (compression, metrics
+ * and authentication) again. The delay before a retry is spent on the thread running the call, the calling thread for
+ * blocking calls and an OkHttp dispatcher thread for asynchronous calls.
+ */
+class RetryInterceptor implements Interceptor {
+    private static final String CLASS_NAME = RetryInterceptor.class.getName();
+    private static final Logger LOGGER = Logger.getLogger(CLASS_NAME);
+
+    static final String DATA_FAMILY = "objects/data";
+    static final String OTHER_FAMILY = "other";
+
+    private final RetryPolicy policy;
+    private final SyncServiceMetrics metrics;
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<String, CircuitBreaker>();
+
+    RetryInterceptor(RetryPolicy policy, SyncServiceMetrics metrics) {
+        this.policy = policy;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final String METHOD = "intercept";
+
+        Request request = chain.request();
+        String family = familyOf(request);
+        CircuitBreaker breaker = breaker(family);
+        int maxAttempts = isRetryable(request) ? policy.getMaxAttempts() : 1;
+        long delayMillis = policy.getBaseDelayMillis();
+
+        for (int attempt = 1; ; attempt++) {
+            if (breaker != null && !breaker.tryAcquire()) {
+                if (metrics != null) {
+                    metrics.operation(MetricsInterceptor.operationOf(request)).rejected();
+                }
+                throw new CircuitBreakerOpenException(family);
+            }
+
+            Response response = null;
+            IOException failure = null;
+            boolean success = false;
+            try {
+                response = chain.proceed(request);
+                success = !isServerFailure(response.code());
+            } catch (IOException ex) {
+                failure = ex;
+            } finally {
+                if (breaker != null) {
+                    if (success) {
+                        breaker.onSuccess();
+                    } else {
+                        breaker.onFailure();
+                    }
+                }
+            }
+
+            boolean retry = attempt < maxAttempts && !chain.call().isCanceled()
+                    && (failure != null || isRetryableStatus(response.code()));
+            if (!retry) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+
+            // Decorrelated jitter: a random delay between the base delay and three times the previous delay
+            delayMillis = Math.min(policy.getMaxDelayMillis(), ThreadLocalRandom.current()
+                    .nextLong(policy.getBaseDelayMillis(), Math.max(delayMillis * 3, policy.getBaseDelayMillis() + 1)));
+            long sleepMillis = delayMillis;
+            if (response != null) {
+                sleepMillis = Math.max(sleepMillis, retryAfterMillis(response));
+                response.close();
+            }
+
+            if (metrics != null) {
+                metrics.operation(MetricsInterceptor.operationOf(request)).retried();
+            }
+            LOGGER.logp(Level.FINE, CLASS_NAME, METHOD, "Retrying " + request.method() + " " + request.url()
+                    + " in " + sleepMillis + "ms, attempt " + attempt + " failed"
+                    + (failure != null ? " with " + failure : " with status " + response.code()));
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry a request to the Sync Service");
+            }
+        }
+    }
+
+    /**
+     * Get the circuit breaker of an endpoint family.
+     * @param family The endpoint family.
+     * @return The circuit breaker, or <code>null</code> if the circuit breakers are disabled.
+     */
+    private CircuitBreaker breaker(String family) {
+        if (policy.getFailureThreshold() == 0) {
+            return null;
+        }
+        CircuitBreaker breaker = breakers.get(family);
+        if (breaker == null) {
+            CircuitBreaker newBreaker = new CircuitBreaker(family, policy.getFailureThreshold(),
+                    policy.getOpenDurationMillis(), metrics);
+            breaker = breakers.putIfAbsent(family, newBreaker);
+            if (breaker == null) {
+                breaker = newBreaker;
+            }
+        }
+        return breaker;
+    }
+
+    private boolean isRetryable(Request request) {
+        if (request.body() instanceof UnrepeatableRequestBody) {
+            return false;
+        }
+        String method = request.method();
+        if (method.equals("GET") || method.equals("PUT")) {
+            return true;
+        }
+        return policy.isRetryResend() && method.equals("POST") && familyOf(request).equals("resend");
+    }
+
+    private static boolean isRetryableStatus(int code) {
+        return code == 408 || code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Check whether a response counts as a failure for the circuit breaker: the Sync Service is failing or
+     * overloaded.
+     */
+    private static boolean isServerFailure(int code) {
+        return code >= 500 || code == 429;
+    }
+
+    private long retryAfterMillis(Response response) {
+        String retryAfter = response.header("Retry-After");
+        if (retryAfter == null) {
+            return 0;
+        }
+        try {
+            return Math.min(policy.getMaxDelayMillis(), Long.parseLong(retryAfter.trim()) * 1000);
+        } catch (NumberFormatException ex) {
+            // An HTTP date, use the computed delay
+            return 0;
+        }
+    }
+
+    /**
+     * Get the endpoint family of a request: the first segment of the path after /api/v1, or objects/data for the
+     * requests that transfer object data.
+     * @param request The request.
+     * @return The endpoint family.
+     */
+    static String familyOf(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null && invocation.method().getName().endsWith("ObjectData")) {
+            return DATA_FAMILY;
+        }
+        List<String> segments = request.url().pathSegments();
+        int index = segments.indexOf("v1");
+        return index >= 0 && index + 1 < segments.size() ? segments.get(index + 1) : OTHER_FAMILY;
+    }
+}
@@ -0,0 +1,169 @@
+package com.horizon.syncservice.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The rules used by a {@link SyncServiceClient SyncServiceClient} to retry the calls that fail, and to stop calling
+ * a Sync Service that keeps failing.
+ * <p>A call is retried when it fails with an I/O error, or with a 408, 429, 500, 502, 503 or 504 response, and only
+ * if it is safe to send it again: GET and PUT requests are retried, the POST of
+ * {@link SyncServiceClient#resend() resend} is retried only if enabled by
+ * {@link Builder#withRetryResend(boolean) withRetryResend}, and other requests (such as DELETE) are never retried.
+ * Object data sent from an InputStream or a channel can be read only once, so those uploads are not retried either.
+ * <p>The delay before each retry uses "decorrelated jitter": it is a random value between the base delay and three
+ * times the previous delay, capped by the maximum delay. Clients that failed at the same time thus spread their
+ * retries instead of retrying in lockstep. A Retry-After header in the response is honored, up to the maximum
+ * delay.
+ * <p>Each endpoint family (destinations, objects, object data, security and resend) has its own circuit breaker.
+ * After a number of consecutive failures the breaker opens, and the calls of the family fail immediately with a
+ * {@link CircuitBreakerOpenException CircuitBreakerOpenException} instead of reaching the Sync Service. Once the
+ * open duration elapsed, a single trial call is let through: the breaker closes if it succeeds, and opens again
+ * otherwise.
+ * <p>The retries and the calls rejected by open breakers are recorded in the
+ * {@link SyncServiceMetrics SyncServiceMetrics} set on the builder, if any.
+ * <p>Note: Use the class RetryPolicy.Builder to create a RetryPolicy instance, and pass it to
+ * {@link SyncServiceClient.Builder#withRetryPolicy(RetryPolicy) SyncServiceClient.Builder.withRetryPolicy}.
+ */
+public class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final boolean retryResend;
+    private final int failureThreshold;
+    private final long openDurationMillis;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.baseDelayMillis = builder.baseDelayMillis;
+        this.maxDelayMillis = builder.maxDelayMillis;
+        this.retryResend = builder.retryResend;
+        this.failureThreshold = builder.failureThreshold;
+        this.openDurationMillis = builder.openDurationMillis;
+    }
+
+    /**
+     * Get the maximum number of times a call is sent, including the first one.
+     * @return The maximum number of attempts.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Get the shortest delay before a retry.
+     * @return The delay in milli-seconds.
+     */
+    public long getBaseDelayMillis() {
+        return baseDelayMillis;
+    }
+
+    /**
+     * Get the longest delay before a retry.
+     * @return The delay in milli-seconds.
+     */
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    /**
+     * Check whether the requests to resend the objects are retried.
+     * @return <code>true</code> if the requests to resend the objects are retried.
+     */
+    public boolean isRetryResend() {
+        return retryResend;
+    }
+
+    /**
+     * Get the number of consecutive failures of an endpoint family that opens its circuit breaker.
+     * @return The number of failures, or 0 if the circuit breakers are disabled.
+     */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * Get the time a circuit breaker stays open before it lets a trial call through.
+     * @return The time in milli-seconds.
+     */
+    public long getOpenDurationMillis() {
+        return openDurationMillis;
+    }
+
+    /** The builder class used to create an instance of {@link RetryPolicy RetryPolicy} object */
+    public static class Builder {
+        private static String NEGATIVEVALUE = "Negative value";
+        private static String NONPOSITIVEVALUE = "Non-positive value";
+
+        private int maxAttempts = 3;
+        private long baseDelayMillis = 100;
+        private long maxDelayMillis = 10000;
+        private boolean retryResend;
+        private int failureThreshold = 5;
+        private long openDurationMillis = 30000;
+
+        /**
+         * Set the maximum number of times a call is sent, including the first one.
+         * <p>The default is 3. A value of 1 disables the retries, but not the circuit breakers.
+         * @param maxAttempts The maximum number of attempts.
+         * @return this
+         */
+        public Builder withMaxAttempts(int maxAttempts) {
+            checkArgument(maxAttempts > 0, NONPOSITIVEVALUE);
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Set the bounds of the delay before a retry.
+         * <p>The default is between 100 milli-seconds and 10 seconds.
+         * @param baseDelayMillis The shortest delay, in milli-seconds.
+         * @param maxDelayMillis The longest delay, in milli-seconds. It must not be shorter than the base delay.
+         * @return this
+         */
+        public Builder withBackoff(long baseDelayMillis, long maxDelayMillis) {
+            checkArgument(baseDelayMillis > 0, NONPOSITIVEVALUE);
+            checkArgument(maxDelayMillis >= baseDelayMillis, "Maximum delay shorter than the base delay");
+            this.baseDelayMillis = baseDelayMillis;
+            this.maxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        /**
+         * Set whether the requests to resend the objects are retried.
+         * <p>A resend request is a POST, and a retry may make the Sync Service send the objects again. The default
+         * is <code>false</code>.
+         * @param retryResend If <code>true</code>, the requests to resend the objects are retried.
+         * @return this
+         */
+        public Builder withRetryResend(boolean retryResend) {
+            this.retryResend = retryResend;
+            return this;
+        }
+
+        /**
+         * Set when the circuit breakers open, and for how long.
+         * <p>The default is to open after 5 consecutive failures, for 30 seconds.
+         * @param failureThreshold The number of consecutive failures of an endpoint family that opens its circuit
+         *            breaker, or 0 to disable the circuit breakers.
+         * @param openDurationMillis The time, in milli-seconds, a circuit breaker stays open before it lets a
+         *            trial call through.
+         * @return this
+         */
+        public Builder withCircuitBreaker(int failureThreshold, long openDurationMillis) {
+            checkArgument(failureThreshold >= 0, NEGATIVEVALUE);
+            checkArgument(openDurationMillis > 0, NONPOSITIVEVALUE);
+            this.failureThreshold = failureThreshold;
+            this.openDurationMillis = openDurationMillis;
+            return this;
+        }
+
+        /**
+         * Actually build the {@link RetryPolicy RetryPolicy} object.
+         * @return A {@link RetryPolicy RetryPolicy} object
+         */
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.horizon.syncservice.client;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * An internal wait for the status of an object, made of polls of the Sync Service spaced by a
+ * {@link PollSchedule PollSchedule}.
+ * <p>The polls are made with the asynchronous client, and the delays between them are timed by a single scheduler
+ * thread shared by all the waits. No thread sleeps or blocks while a wait is in progress, however many there are.
+ * Completing or cancelling the future of a wait cancels its pending poll.
+ * @param <T> The type of the result of a poll.
+ */
+final class StatusWaiter<T> {
+
+    /** Starts the delayed polls of all the waits. The polls themselves run on the OkHttp dispatcher. */
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sync-service-status-waiter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Supplier<CompletableFuture<T>> poll;
+    private final Predicate<T> settled;
+    private final PollSchedule schedule;
+    private final long deadlineNanos;
+    private final String description;
+    private final CompletableFuture<T> result = new CompletableFuture<T>();
+    private int polls;
+    private Future<?> pending;
+
+    private StatusWaiter(Supplier<CompletableFuture<T>> poll, Predicate<T> settled, PollSchedule schedule,
+            long timeoutMillis, String description) {
+        this.poll = poll;
+        this.settled = settled;
+        this.schedule = schedule;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.description = description;
+    }
+
+    /**
+     * Start a wait with a first poll made right away.
+     * @param poll Starts a poll of the Sync Service.
+     * @param settled Tells whether the result of a poll ends the wait.
+     * @param schedule The delays between the polls.
+     * @param timeoutMillis The time, in milli-seconds, after which the wait fails with a
+     *            {@link TimeoutException TimeoutException}.
+     * @param description What is waited for, for the message of the TimeoutException.
+     * @return A future completed with the result of the poll that ended the wait.
+     */
+    static <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> poll, Predicate<T> settled,
+            PollSchedule schedule, long timeoutMillis, String description) {
+        StatusWaiter<T> waiter = new StatusWaiter<T>(poll, settled, schedule, timeoutMillis, description);
+        waiter.result.whenComplete((value, failure) -> waiter.cancelPending());
+        waiter.poll();
+        return waiter.result;
+    }
+
+    /**
+     * Check whether a status ends a wait for a target status: it is the target status or a later one in the
+     * progress of a delivery, or it is an error or a deletion, after which the target status can't be reached.
+     * @param status The status, for example {@link ObjectStatus#DELIVERING ObjectStatus.DELIVERING}.
+     * @param target The status waited for, for example {@link ObjectStatus#DELIVERED ObjectStatus.DELIVERED}.
+     * @return <code>true</code> if the status ends the wait.
+     */
+    static boolean settles(String status, String target) {
+        if (status == null) {
+            return false;
+        }
+        if (status.equals(target)) {
+            return true;
+        }
+        DeliveryStatus current = DeliveryStatus.of(status);
+        DeliveryStatus wanted = DeliveryStatus.of(target);
+        if (current == DeliveryStatus.ERROR || current == DeliveryStatus.DELETED) {
+            return true;
+        }
+        // Unknown statuses match only themselves
+        return current != DeliveryStatus.UNKNOWN && wanted != null && wanted != DeliveryStatus.UNKNOWN
+                && current.hasReached(wanted);
+    }
+
+    /**
+     * Check whether all the destinations of an object settled for a target status, see
+     * {@link #settles(String, String) settles}.
+     * @param destinations The destinations of the object.
+     * @param target The status waited for.
+     * @return <code>true</code> if there is at least one destination, and all of them settled.
+     */
+    static boolean allSettle(List<DestinationStatus> destinations, String target) {
+        if (destinations == null || destinations.isEmpty()) {
+            // The destinations of a new object may not be resolved yet
+            return false;
+        }
+        for (DestinationStatus destination : destinations) {
+            if (!settles(destination.getStatus(), target)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void poll() {
+        if (result.isDone()) {
+            return;
+        }
+        CompletableFuture<T> call = poll.get();
+        setPending(call);
+        call.whenComplete((value, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure);
+            } else if (settled.test(value)) {
+                result.complete(value);
+            } else {
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    result.completeExceptionally(new TimeoutException("Timed out waiting for " + description));
+                    return;
+                }
+                // The last poll is made at the deadline
+                long delayNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(schedule.delayMillis(polls++)),
+                        remainingNanos);
+                setPending(SCHEDULER.schedule(this::poll, delayNanos, TimeUnit.NANOSECONDS));
+            }
+        });
+    }
+
+    private void setPending(Future<?> future) {
+        synchronized (this) {
+            pending = future;
+        }
+        if (result.isDone()) {
+            future.cancel(false);
+        }
+    }
+
+    private void cancelPending() {
+        Future<?> future;
+        synchronized (this) {
+            future = pending;
+        }
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.Supplier;
+
+import okhttp3.RequestBody;
+import okhttp3.internal.http.UnrepeatableRequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * An internal {@link RequestBody RequestBody} that streams object data from a source that can be read only once.
+ * <p>The data is written to the connection as it is read, so memory use does not depend on the size of the object.
+ * When the length of the data is known it is sent as the Content-Length, otherwise the body is sent with chunked
+ * transfer encoding. The bytes read ahead by {@link #peek(int) peek} are held in memory until the body is sent.
+ * <p>The source is not closed by the body.
+ * <p>The body implements OkHttp's {@link UnrepeatableRequestBody UnrepeatableRequestBody} marker, so that OkHttp
+ * doesn't silently retry a request whose body was already partially consumed.
+ */
+abstract class StreamingRequestBody extends ObjectDataBody implements UnrepeatableRequestBody {
+    private final long contentLength;
+    private final Buffer head = new Buffer();
+    private boolean written;
+
+    private StreamingRequestBody(long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        if (written) {
+            throw new IOException("The object data stream was already sent and cannot be sent again");
+        }
+        written = true;
+        writeData(sink, sink.writeAll(head));
+    }
+
+    @Override
+    byte[] peek(int maxBytes) throws IOException {
+        if (written) {
+            throw new IOException("The object data stream was already sent");
+        }
+        if (head.size() < maxBytes) {
+            readAhead(head, maxBytes - head.size());
+        }
+        return head.snapshot().toByteArray();
+    }
+
+    /**
+     * Read data ahead of sending the body.
+     * @param head The buffer to append the data to.
+     * @param byteCount The number of bytes to read. Fewer are read only at the end of the data.
+     */
+    abstract void readAhead(Buffer head, long byteCount) throws IOException;
+
+    /**
+     * Send the data that follows the data read ahead.
+     * @param sink The sink to write the data to.
+     * @param headLength The number of bytes read ahead, which were already written to the sink.
+     */
+    abstract void writeData(BufferedSink sink, long headLength) throws IOException;
+
+    /**
+     * Create a body that streams the data from an InputStream.
+     * @param input The stream to read the data from.
+     * @param contentLength The number of bytes to send, or -1 to send the whole stream, chunked.
+     * @return The request body.
+     */
+    static StreamingRequestBody create(final InputStream input, final long contentLength) {
+        return new StreamingRequestBody(contentLength) {
+            @Override
+            void readAhead(Buffer head, long byteCount) throws IOException {
+                // Don't read past the end of the data, the application may read the rest of the stream
+                long remaining = contentLength < 0 ? byteCount : Math.min(byteCount, contentLength - head.size());
+                Source source = Okio.source(input);
+                while (remaining > 0) {
+                    long read = source.read(head, remaining);
+                    if (read == -1) {
+                        break;
+                    }
+                    remaining -= read;
+                }
+            }
+
+            @Override
+            void writeData(BufferedSink sink, long headLength) throws IOException {
+                Source source = Okio.source(input);
+                if (contentLength < 0) {
+                    sink.writeAll(source);
+                } else {
+                    sink.write(source, contentLength - headLength);
+                }
+            }
+        };
+    }
+
+    /**
+     * Create a body that streams the data from a ReadableByteChannel.
+     * @param channel The channel to read the data from. It must be in blocking mode.
+     * @param contentLength The number of bytes to send, or -1 to send the rest of the channel, chunked.
+     * @return The request body.
+     */
+    static StreamingRequestBody create(final ReadableByteChannel channel, final long contentLength) {
+        return new StreamingRequestBody(contentLength) {
+            @Override
+            void readAhead(Buffer head, long byteCount) throws IOException {
+                // Don't read past the end of the data, the application may read the rest of the channel
+                long remaining = contentLength < 0 ? byteCount : Math.min(byteCount, contentLength - head.size());
+                ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(remaining, Transfers.BUFFER_SIZE));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) == -1) {
+                        break;
+                    }
+                }
+                head.write(buffer.array(), 0, buffer.position());
+            }
+
+            @Override
+            void writeData(BufferedSink sink, long headLength) throws IOException {
+                // Send exactly the Content-Length, failing if the channel ends before
+                Transfers.copy(channel, sink, contentLength < 0 ? -1 : contentLength - headLength);
+            }
+        };
+    }
+
+    /**
+     * Create a body that sends the chunks returned by a Supplier, until it returns <code>null</code>.
+     * @param chunks The supplier of the chunks of data.
+     * @return The request body.
+     */
+    static StreamingRequestBody create(final Supplier<byte[]> chunks) {
+        return new StreamingRequestBody(-1) {
+            private boolean exhausted;
+
+            @Override
+            void readAhead(Buffer head, long byteCount) {
+                long target = head.size() + byteCount;
+                while (!exhausted && head.size() < target) {
+                    byte[] chunk = chunks.get();
+                    if (chunk == null) {
+                        exhausted = true;
+                    } else {
+                        head.write(chunk);
+                    }
+                }
+            }
+
+            @Override
+            void writeData(BufferedSink sink, long headLength) throws IOException {
+                if (exhausted) {
+                    return;
+                }
+                for (byte[] chunk = chunks.get(); chunk != null; chunk = chunks.get()) {
+                    sink.write(chunk);
+                }
+            }
+        };
+    }
+}
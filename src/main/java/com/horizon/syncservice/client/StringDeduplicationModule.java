@@ -0,0 +1,112 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * An internal Jackson module that deduplicates the low-cardinality strings of the
+ * {@link SyncServiceMetaData SyncServiceMetaData} objects it deserializes, see
+ * {@link SyncServiceRuntime.Builder#withStringDeduplication(int) SyncServiceRuntime.Builder.withStringDeduplication}.
+ * <p>The object types, destination types, destination organizations, origin types and versions of the objects of an
+ * organization take few distinct values. Each value is kept once in a dictionary, and the metadata of all the objects
+ * share it, instead of holding a copy each. The IDs and timestamps are mostly unique, and are left out so that they
+ * don't fill the dictionary. The dictionary is bounded: once full, new values are not deduplicated.
+ * <p>The dictionary is not the JVM's string pool, so the values don't outlive the runtime.
+ */
+class StringDeduplicationModule extends SimpleModule {
+    static final long serialVersionUID = 1;
+
+    /** The JSON names of the deduplicated properties. */
+    private static final Set<String> PROPERTIES = new HashSet<String>(Arrays.asList("objectType",
+            "destinationType", "destinationOrgID", "originType", "version"));
+
+    StringDeduplicationModule(int maxEntries) {
+        super("StringDeduplicationModule");
+        final Dictionary dictionary = new Dictionary(maxEntries);
+        final StringsDeserializer strings = new StringsDeserializer(dictionary);
+        setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc,
+                    BeanDeserializerBuilder builder) {
+                if (beanDesc.getBeanClass() != SyncServiceMetaData.class) {
+                    return builder;
+                }
+                List<SettableBeanProperty> properties = new ArrayList<SettableBeanProperty>();
+                Iterator<SettableBeanProperty> iterator = builder.getProperties();
+                while (iterator.hasNext()) {
+                    properties.add(iterator.next());
+                }
+                for (SettableBeanProperty property : properties) {
+                    if (PROPERTIES.contains(property.getName())) {
+                        builder.addOrReplaceProperty(property.withValueDeserializer(strings), true);
+                    }
+                }
+                return builder;
+            }
+        });
+    }
+
+    /** A bounded dictionary of strings. */
+    static final class Dictionary {
+        private final int maxEntries;
+        private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<String, String>();
+
+        Dictionary(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        /**
+         * Get the string of the dictionary equal to a string, adding the string if there is none and the
+         * dictionary is not full.
+         * @param value The string, or <code>null</code>.
+         * @return The string of the dictionary, or the string itself.
+         */
+        String dedupe(String value) {
+            if (value == null) {
+                return null;
+            }
+            String shared = strings.get(value);
+            if (shared != null) {
+                return shared;
+            }
+            if (strings.size() >= maxEntries) {
+                return value;
+            }
+            shared = strings.putIfAbsent(value, value);
+            return shared != null ? shared : value;
+        }
+    }
+
+    private static class StringsDeserializer extends StdScalarDeserializer<String> {
+        static final long serialVersionUID = 1;
+
+        private final Dictionary dictionary;
+
+        StringsDeserializer(Dictionary dictionary) {
+            super(String.class);
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return dictionary.dedupe(StringDeserializer.instance.deserialize(p, ctxt));
+        }
+    }
+}
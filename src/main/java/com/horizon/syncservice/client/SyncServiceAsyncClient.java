@@ -0,0 +1,733 @@
+package com.horizon.syncservice.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Non-blocking variant of the {@link SyncServiceClient SyncServiceClient} API.
+ * <p>Each method enqueues its request on the OkHttp dispatcher and returns immediately with a
+ * {@link CompletableFuture CompletableFuture}. No application thread is blocked while the request is in flight.
+ * <p>Errors are mapped in the same way as by the blocking methods: calls that return a list return an empty list
+ * when the Sync Service responds with 404 (Not Found), any other error response completes the future exceptionally
+ * with a {@link SyncServiceException SyncServiceException}, and I/O errors complete it exceptionally with an
+ * {@link IOException IOException}.
+ * <p>Cancelling a returned future cancels the underlying HTTP call.
+ * <p>Note: Use {@link SyncServiceClient#async() SyncServiceClient.async()} to obtain an instance.
+ */
+public class SyncServiceAsyncClient {
+
+    private static final String CLASS_NAME = SyncServiceAsyncClient.class.getName();
+    private static final Logger LOGGER = Logger.getLogger(CLASS_NAME);
+
+    private static final String DESTINATION_ACL = "destinations";
+    private static final String OBJECT_ACL = "objects";
+
+    private final String orgID;
+    private final RetrofitHelper api;
+    private final ObjectInfoCache cache;
+
+    SyncServiceAsyncClient(String orgID, RetrofitHelper api, ObjectInfoCache cache) {
+        this.orgID = orgID;
+        this.api = api;
+        this.cache = cache;
+    }
+
+    /**
+     * Get the list of destinations in the organization of the sync client.
+     *
+     * @return A future completed with a List of {@link Destination Destination} class objects.
+     */
+    public CompletableFuture<List<Destination>> getDestinations() {
+        return enqueue("getDestinations", api.getDestinations(), response -> {
+            if (response.isSuccessful()) {
+                return response.body();
+            } else if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                return new ArrayList<Destination>();
+            }
+            throw new SyncServiceException(String.format("Failed to get the list of destinations for %s. Error: %s",
+                    orgID, response.errorBody().string()));
+        });
+    }
+
+    /**
+     * Get the list of objects at a destination.
+     *
+     * @param destType The destination type of the destination whose list of objects is to be returned.
+     * @param destID The destination ID of the destination whose list of objects is to be returned.
+     * @return A future completed with a List of {@link ObjectStatus ObjectStatus} class objects.
+     */
+    public CompletableFuture<List<ObjectStatus>> getDestinationObjects(String destType, String destID) {
+        return enqueue("getDestinationObjects", api.getDestinationObjects(destType, destID), response -> {
+            if (response.isSuccessful()) {
+                return response.body();
+            } else if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                return new ArrayList<ObjectStatus>();
+            }
+            throw new SyncServiceException(String.format(
+                    "Failed to get the list of objects for the destination %s:%s:%s. Error: %s",
+                    orgID, destType, destID, response.errorBody().string()));
+        });
+    }
+
+    /**
+     * Create/update an object. Only object metadata is sent in this request.
+     *
+     * @param metaData specifies the object's metadata.
+     * @return A future completed when the Sync Service accepted the update.
+     * @see SyncServiceClient#updateObject(SyncServiceMetaData)
+     */
+    public CompletableFuture<Void> updateObject(SyncServiceMetaData metaData) {
+        ObjectPayload payload = new ObjectPayload(metaData);
+        return enqueue("updateObject", api.putObject(metaData.getObjectType(), metaData.getObjectID(), payload),
+                invalidate(metaData), response -> {
+                    if (!response.isSuccessful()) {
+                        throw new SyncServiceException(String.format("Failed to update the object %s:%s:%s. Error: %s",
+                                orgID, metaData.getObjectType(), metaData.getObjectID(), response.errorBody().string()));
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Metadata of updated objects of the specified objectType are retrieved.
+     *
+     * @param objectType specifies the type of objects whose updates are queried for.
+     * @param received If <code>true</code>, objects marked as received, will be included in the results.
+     * @return A future completed with a List of {@link SyncServiceMetaData SyncServiceMetaData} class objects.
+     */
+    public CompletableFuture<List<SyncServiceMetaData>> getUpdatedObjects(String objectType, boolean received) {
+        return enqueue("getUpdatedObjects", api.getUpdatedObjects(objectType, received), response -> {
+            if (response.isSuccessful()) {
+                return response.body();
+            } else if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                return new ArrayList<SyncServiceMetaData>();
+            }
+            throw new SyncServiceException(String.format("Failed to get the list of updated objects for %s:%s. Error: %s",
+                    orgID, objectType, response.errorBody().string()));
+        });
+    }
+
+    /**
+     * Get information about the destinations to which an object was sent.
+     *
+     * @param objectType The object type of the object whose destination information will be retrieved.
+     * @param objectID The object ID of the object whose destination information will be retrieved.
+     * @return A future completed with a List of {@link DestinationStatus DestinationStatus} class objects.
+     */
+    public CompletableFuture<List<DestinationStatus>> getObjectDestinations(String objectType, String objectID) {
+        return enqueue("getObjectDestinations", api.getObjectDestinations(objectType, objectID), response -> {
+            if (response.isSuccessful()) {
+                return response.body();
+            } else if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                return new ArrayList<DestinationStatus>();
+            }
+            throw new SyncServiceException(String.format("Failed to get the destinations of the object %s:%s%s. Error: %s",
+                    orgID, objectType, objectID, response.errorBody().string()));
+        });
+    }
+
+    /**
+     * Get the status of an object that was sent.
+     *
+     * @param objectType The object type of the object whose status will be retrieved.
+     * @param objectID The object ID of the object whose status will be retrieved.
+     * @return A future completed with the status of the object, or an empty String if the object was not found.
+     */
+    public CompletableFuture<String> getObjectStatus(String objectType, String objectID) {
+        return enqueue("getObjectStatus", api.getObjectStatus(objectType, objectID), response -> {
+            if (response.isSuccessful()) {
+                return response.body();
+            } else if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                return "";
+            }
+            throw new SyncServiceException(String.format("Failed to get the status of the object %s:%s%s. Error: %s",
+                    orgID, objectType, objectID, response.errorBody().string()));
+        });
+    }
+
+    /**
+     * Wait for an object to reach a status.
+     * <p>The status of the object is polled on the schedule of {@link PollSchedule#DEFAULT PollSchedule.DEFAULT}.
+     *
+     * @param objectType The object type of the object whose status is waited for.
+     * @param objectID The object ID of the object whose status is waited for.
+     * @param status The status waited for, see {@link ObjectStatus ObjectStatus}.
+     * @param timeoutMillis The time, in milli-seconds, after which the wait fails.
+     * @return A future completed with the status of the object, see
+     *                 {@link #waitForObjectStatus(String, String, String, long, PollSchedule) waitForObjectStatus}.
+     */
+    public CompletableFuture<String> waitForObjectStatus(String objectType, String objectID, String status,
+            long timeoutMillis) {
+        return waitForObjectStatus(objectType, objectID, status, timeoutMillis, PollSchedule.DEFAULT);
+    }
+
+    /**
+     * Wait for an object to reach a status.
+     * <p>The wait ends when the object reaches the status, or a later status of its delivery (for example
+     * {@link ObjectStatus#CONSUMED CONSUMED} when waiting for {@link ObjectStatus#DELIVERED DELIVERED}), or
+     * {@link ObjectStatus#ERROR ERROR} or {@link ObjectStatus#DELETED DELETED}. The status is polled on the OkHttp
+     * dispatcher, and the delays between the polls are timed by a single thread shared by all the waits, so many
+     * objects can be waited for at the same time without holding a thread each. Cancelling the future stops the
+     * polls.
+     *
+     * @param objectType The object type of the object whose status is waited for.
+     * @param objectID The object ID of the object whose status is waited for.
+     * @param status The status waited for, see {@link ObjectStatus ObjectStatus}.
+     * @param timeoutMillis The time, in milli-seconds, after which the wait fails.
+     * @param schedule The delays between the polls.
+     * @return A future completed with the status of the object that ended the wait, or completed exceptionally
+     *                 with a {@link java.util.concurrent.TimeoutException TimeoutException} if the object didn't
+     *                 reach the status in time.
+     */
+    public CompletableFuture<String> waitForObjectStatus(String objectType, String objectID, String status,
+            long timeoutMillis, PollSchedule schedule) {
+        return StatusWaiter.start(() -> getObjectStatus(objectType, objectID),
+                current -> StatusWaiter.settles(current, status), schedule, timeoutMillis,
+                String.format("the object %s:%s:%s to be %s", orgID, objectType, objectID, status));
+    }
+
+    /**
+     * Wait for all the destinations of an object to reach a status.
+     * <p>The destinations of the object are polled on the schedule of
+     * {@link PollSchedule#DEFAULT PollSchedule.DEFAULT}.
+     *
+     * @param objectType The object type of the object whose destinations are waited for.
+     * @param objectID The object ID of the object whose destinations are waited for.
+     * @param status The status waited for, see {@link DestinationStatus DestinationStatus}.
+     * @param timeoutMillis The time, in milli-seconds, after which the wait fails.
+     * @return A future completed with the destinations of the object, see
+     *                 {@link #waitForAllDestinations(String, String, String, long, PollSchedule)
+     *                 waitForAllDestinations}.
+     */
+    public CompletableFuture<List<DestinationStatus>> waitForAllDestinations(String objectType, String objectID,
+            String status, long timeoutMillis) {
+        return waitForAllDestinations(objectType, objectID, status, timeoutMillis, PollSchedule.DEFAULT);
+    }
+
+    /**
+     * Wait for all the destinations of an object to reach a status.
+     * <p>The wait ends when the object has destinations, and each of them reached the status, a later status of
+     * the delivery, {@link DestinationStatus#ERROR ERROR} or {@link ObjectStatus#DELETED deleted}. The destinations
+     * are polled as the status is by
+     * {@link #waitForObjectStatus(String, String, String, long, PollSchedule) waitForObjectStatus}.
+     *
+     * @param objectType The object type of the object whose destinations are waited for.
+     * @param objectID The object ID of the object whose destinations are waited for.
+     * @param status The status waited for, see {@link DestinationStatus DestinationStatus}.
+     * @param timeoutMillis The time, in milli-seconds, after which the wait fails.
+     * @param schedule The delays between the polls.
+     * @return A future completed with the destinations of the object that ended the wait, the application checks
+     *                 their statuses for errors, or completed exceptionally with a
+     *                 {@link java.util.concurrent.TimeoutException TimeoutException} if the destinations didn't
+     *                 reach the status in time.
+     */
+    public CompletableFuture<List<DestinationStatus>> waitForAllDestinations(String objectType, String objectID,
+            String status, long timeoutMillis, PollSchedule schedule) {
+        return StatusWaiter.start(() -> getObjectDestinations(objectType, objectID),
+                destinations -> StatusWaiter.allSettle(destinations, status), schedule, timeoutMillis,
+                String.format("the destinations of the object %s:%s:%s to be %s", orgID, objectType, objectID,
+                        status));
+    }
+
+    /**
+     * Get the metadata of an object.
+     *
+     * @param objectType The object type of the object whose metadata will be retrieved.
+     * @param objectID The object ID of the object whose metadata will be retrieved.
+     * @return A future completed with the {@link SyncServiceMetaData SyncServiceMetaData} of the object, or with
+     *                 <code>null</code> if the object was not found.
+     */
+    public CompletableFuture<SyncServiceMetaData> getObjectMetadata(String objectType, String objectID) {
+        return enqueue("getObjectMetadata", api.getObjectMetadata(objectType, objectID), response -> {
+            if (response.isSuccessful()) {
+                return response.body();
+            } else if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                return null;
+            }
+            throw new SyncServiceException(String.format("Failed to get the metadata of the object %s:%s:%s. Error: %s",
+                    orgID, objectType, objectID, response.errorBody().string()));
+        });
+    }
+
+    /**
+     * Update an object's data from an array of bytes.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The new data for the object.
+     * @return A future completed when the Sync Service accepted the data.
+     */
+    public CompletableFuture<Void> updateObjectData(SyncServiceMetaData metaData, byte[] input) {
+        return updateObjectDataHelper(metaData, ObjectDataBody.create(input));
+    }
+
+    /**
+     * Update an object's data from a file.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input A file containing the new data for the object.
+     * @return A future completed when the Sync Service accepted the data.
+     */
+    public CompletableFuture<Void> updateObjectData(SyncServiceMetaData metaData, File input) {
+        return updateObjectDataHelper(metaData, ObjectDataBody.create(input));
+    }
+
+    /**
+     * Update an object's data from a file, mapped into memory.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The path of a file containing the new data for the object.
+     * @return A future completed when the Sync Service accepted the data.
+     * @see SyncServiceClient#updateObjectData(SyncServiceMetaData, Path)
+     */
+    public CompletableFuture<Void> updateObjectData(SyncServiceMetaData metaData, Path input) {
+        return updateObjectDataHelper(metaData, MappedFileBody.create(input));
+    }
+
+    /**
+     * Update an object's data from a range of bytes of a file, mapped into memory.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The path of a file containing the new data for the object.
+     * @param offset The offset in the file of the first byte of the data.
+     * @param length The number of bytes of the data.
+     * @return A future completed when the Sync Service accepted the data.
+     * @see SyncServiceClient#updateObjectData(SyncServiceMetaData, Path, long, long)
+     */
+    public CompletableFuture<Void> updateObjectData(SyncServiceMetaData metaData, Path input, long offset,
+            long length) {
+        return updateObjectDataHelper(metaData, MappedFileBody.create(input, offset, length));
+    }
+
+    /**
+     * Update an object's data from an InputStream.
+     * <p>The data is streamed from the OkHttp dispatcher thread that sends the request. The stream is not closed.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The stream from which the new data for the object is read.
+     * @param length The number of bytes to send, or -1 to send the rest of the stream using chunked transfer encoding.
+     * @return A future completed when the Sync Service accepted the data.
+     */
+    public CompletableFuture<Void> updateObjectData(SyncServiceMetaData metaData, InputStream input, long length) {
+        return updateObjectDataHelper(metaData, StreamingRequestBody.create(input, length));
+    }
+
+    /**
+     * Update an object's data from a ReadableByteChannel.
+     * <p>The data is streamed from the OkHttp dispatcher thread that sends the request. The channel is not closed.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The channel from which the new data for the object is read.
+     * @param length The number of bytes to send, or -1 to send the rest of the channel using chunked transfer
+     *            encoding.
+     * @return A future completed when the Sync Service accepted the data.
+     */
+    public CompletableFuture<Void> updateObjectData(SyncServiceMetaData metaData, ReadableByteChannel input,
+            long length) {
+        return updateObjectDataHelper(metaData, StreamingRequestBody.create(input, length));
+    }
+
+    /**
+     * Update an object's data from chunks of data generated on the fly, until the supplier returns <code>null</code>.
+     * <p>The supplier is called on the OkHttp dispatcher thread that sends the request.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param chunks The supplier of the chunks of the new data for the object.
+     * @return A future completed when the Sync Service accepted the data.
+     */
+    public CompletableFuture<Void> updateObjectData(SyncServiceMetaData metaData, Supplier<byte[]> chunks) {
+        return updateObjectDataHelper(metaData, StreamingRequestBody.create(chunks));
+    }
+
+    private CompletableFuture<Void> updateObjectDataHelper(SyncServiceMetaData metaData, RequestBody body) {
+        return enqueue("updateObjectData", api.putObjectData(metaData.getObjectType(), metaData.getObjectID(), body),
+                invalidate(metaData), response -> {
+                    if (!response.isSuccessful()) {
+                        throw new SyncServiceException(String.format("Failed to update the object data %s:%s:%s. Error: %s",
+                                orgID, metaData.getObjectType(), metaData.getObjectID(), response.errorBody().string()));
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Fetch an object's data and return it as a byte array.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @return A future completed with the object's data.
+     */
+    public CompletableFuture<byte[]> fetchObjectData(SyncServiceMetaData metaData) {
+        return enqueue("fetchObjectData", api.getObjectData(metaData.getObjectType(), metaData.getObjectID()),
+                response -> {
+                    checkFetchResponse(metaData, response);
+                    try (ResponseBody body = response.body()) {
+                        return body.bytes();
+                    }
+                });
+    }
+
+    /**
+     * Fetch an object's data and write it to a file.
+     * <p>The data is read and written on the OkHttp dispatcher thread that received the response.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @param file The File object of the file to which the object's data will be written.
+     * @return A future completed when all of the object's data has been written to the file.
+     */
+    public CompletableFuture<Void> fetchObjectData(SyncServiceMetaData metaData, File file) {
+        return enqueue("fetchObjectData", api.getObjectData(metaData.getObjectType(), metaData.getObjectID()),
+                response -> {
+                    checkFetchResponse(metaData, response);
+                    try (ResponseBody body = response.body();
+                            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                        Transfers.copy(body.source(), channel);
+                    }
+                    return null;
+                });
+    }
+
+    private void checkFetchResponse(SyncServiceMetaData metaData, Response<ResponseBody> response)
+            throws SyncServiceException, IOException {
+        if (!response.isSuccessful()) {
+            String message = String.format("Failed to fetch the data of the object %s:%s:%s. Error: %s", orgID,
+                    metaData.getObjectType(), metaData.getObjectID(), response.errorBody().string());
+            throw new SyncServiceException(message);
+        }
+    }
+
+    /**
+     * Delete an object.
+     *
+     * @param metaData The metadata of the object that will be deleted.
+     * @return A future completed when the object was deleted.
+     */
+    public CompletableFuture<Void> deleteObject(SyncServiceMetaData metaData) {
+        return enqueue("deleteObject", api.deleteObject(metaData.getObjectType(), metaData.getObjectID()),
+                invalidate(metaData), response -> {
+                    if (!response.isSuccessful()) {
+                        throw new SyncServiceException(String.format("Failed to delete the object %s:%s:%s. Error: %s",
+                                orgID, metaData.getObjectType(), metaData.getObjectID(), response.errorBody().string()));
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Activate an object.
+     *
+     * @param metaData The metadata of the object that will be activated.
+     * @return A future completed when the object was activated.
+     */
+    public CompletableFuture<Void> activateObject(SyncServiceMetaData metaData) {
+        return operationHelper(metaData, "activate");
+    }
+
+    /**
+     * Mark an object as having been consumed.
+     *
+     * @param metaData The metadata of the object that will be marked as having been consumed.
+     * @return A future completed when the object was marked.
+     */
+    public CompletableFuture<Void> markObjectConsumed(SyncServiceMetaData metaData) {
+        return operationHelper(metaData, "consumed");
+    }
+
+    /**
+     * Mark an object as having been deleted.
+     *
+     * @param metaData The metadata of the object that will be marked as having been deleted.
+     * @return A future completed when the object was marked.
+     */
+    public CompletableFuture<Void> markObjectDeleted(SyncServiceMetaData metaData) {
+        return operationHelper(metaData, "deleted");
+    }
+
+    /**
+     * Mark an object as having been received.
+     *
+     * @param metaData The metadata of the object that will be marked as having been received.
+     * @return A future completed when the object was marked.
+     */
+    public CompletableFuture<Void> markObjectReceived(SyncServiceMetaData metaData) {
+        return operationHelper(metaData, "received");
+    }
+
+    private CompletableFuture<Void> operationHelper(SyncServiceMetaData metaData, String operation) {
+        return enqueue("operationHelper",
+                api.objectOperation(metaData.getObjectType(), metaData.getObjectID(), operation),
+                invalidate(metaData), response -> {
+                    if (!response.isSuccessful()) {
+                        throw new SyncServiceException(String.format(
+                                "Failed to perform the operation %s the object %s:%s:%s. Error: %s", operation, orgID,
+                                metaData.getObjectType(), metaData.getObjectID(), response.errorBody().string()));
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Register a Webhook callback when an object is updated.
+     *
+     * @param objectType The object type on which to register a web hook.
+     * @param url The URL of the web hook to be registered.
+     * @return A future completed when the web hook was registered.
+     */
+    public CompletableFuture<Void> registerWebHook(String objectType, URL url) {
+        return webHookHelper("register", objectType, url);
+    }
+
+    /**
+     * Delete a Webhook callback.
+     *
+     * @param objectType The object type whose web hook will be deleted.
+     * @param url The URL of the webhook to delete.
+     * @return A future completed when the web hook was deleted.
+     */
+    public CompletableFuture<Void> deleteWebHook(String objectType, URL url) {
+        return webHookHelper("delete", objectType, url);
+    }
+
+    private CompletableFuture<Void> webHookHelper(String operation, String objectType, URL url) {
+        StringBuffer body = new StringBuffer(400);
+        body.append("{\n");
+        body.append("   \"action\": \"").append(operation).append("\",\n");
+        body.append("   \"url\": \"").append(url.toString()).append("\"\n");
+        body.append("}\n");
+
+        RequestBody requestBody = RequestBody.create(MediaType.parse("application/json"),
+                body.toString().getBytes(Charset.forName("utf-8")));
+        return enqueue("webHookHelper", api.registerWebHook(objectType, requestBody), response -> {
+            if (!response.isSuccessful()) {
+                throw new SyncServiceException(String.format("Failed to %s the webhook for %s:%s. Error: %s",
+                        operation, orgID, objectType, response.errorBody().string()));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Request that all objects in the Sync Service be resent to an ESS.
+     *
+     * @return A future completed when the request was accepted.
+     * @see SyncServiceClient#resend()
+     */
+    public CompletableFuture<Void> resend() {
+        return enqueue("resend", api.resend(), response -> {
+            if (!response.isSuccessful()) {
+                throw new SyncServiceException(String.format("Failed to request all objects to be resent. Error: %s",
+                        response.errorBody().string()));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Add users to an ACL protecting a destination type.
+     *
+     * @param destType The destination type whose ACL is having usernames added to it.
+     * @param usernames An array of the usernames to add to the specified ACL.
+     * @return A future completed when the ACL was updated.
+     * @see SyncServiceClient#addUsersToDestinationACL(String, String[])
+     */
+    public CompletableFuture<Void> addUsersToDestinationACL(String destType, String[] usernames) {
+        return modifySecurityHelper(true, DESTINATION_ACL, destType, usernames);
+    }
+
+    /**
+     * Remove users from an ACL protecting a destination type.
+     *
+     * @param destType The destination type whose ACL is having usernames removed from it.
+     * @param usernames An array of the usernames to remove from the specified ACL.
+     * @return A future completed when the ACL was updated.
+     * @see SyncServiceClient#removeUsersFromDestinationACL(String, String[])
+     */
+    public CompletableFuture<Void> removeUsersFromDestinationACL(String destType, String[] usernames) {
+        return modifySecurityHelper(false, DESTINATION_ACL, destType, usernames);
+    }
+
+    /**
+     * Retrieve the list of users with access to a destination type protected by an ACL.
+     *
+     * @param destType The destination type from whose ACL the list of usernames should be retrieved.
+     * @return A future completed with the usernames with access to the destination type.
+     */
+    public CompletableFuture<List<String>> retrieveDestinationACL(String destType) {
+        return retrieveACLHelper(DESTINATION_ACL, destType);
+    }
+
+    /**
+     * Retrieve the list of destination ACLs in the organization.
+     *
+     * @return A future completed with the destination types for which ACLs exist.
+     */
+    public CompletableFuture<List<String>> retrieveAllDestinationACLs() {
+        return retrieveACLHelper(DESTINATION_ACL, "");
+    }
+
+    /**
+     * Add users to an ACL protecting an object type.
+     *
+     * @param objectType The object type whose ACL is having usernames added to it.
+     * @param usernames An array of the usernames to add to the specified ACL.
+     * @return A future completed when the ACL was updated.
+     */
+    public CompletableFuture<Void> addUsersToObjectACL(String objectType, String[] usernames) {
+        return modifySecurityHelper(true, OBJECT_ACL, objectType, usernames);
+    }
+
+    /**
+     * Remove users from an ACL protecting an object type.
+     *
+     * @param objectType The object type whose ACL is having usernames removed from it.
+     * @param usernames An array of the usernames to remove from the specified ACL.
+     * @return A future completed when the ACL was updated.
+     */
+    public CompletableFuture<Void> removeUsersFromObjectACL(String objectType, String[] usernames) {
+        return modifySecurityHelper(false, OBJECT_ACL, objectType, usernames);
+    }
+
+    /**
+     * Retrieve the list of users with access to an object type protected by an ACL.
+     *
+     * @param objectType The object type from whose ACL the list of usernames should be retrieved.
+     * @return A future completed with the usernames with access to the object type.
+     */
+    public CompletableFuture<List<String>> retrieveObjectACL(String objectType) {
+        return retrieveACLHelper(OBJECT_ACL, objectType);
+    }
+
+    /**
+     * Retrieve the list of object ACLs in the organization.
+     *
+     * @return A future completed with the object types for which ACLs exist.
+     */
+    public CompletableFuture<List<String>> retrieveAllObjectACLs() {
+        return retrieveACLHelper(OBJECT_ACL, "");
+    }
+
+    private CompletableFuture<Void> modifySecurityHelper(boolean add, String aclType, String key, String[] usernames) {
+        String mesageInsert = add ? "to" : "from";
+        ACLBulkPayload payload = new ACLBulkPayload(add ? "add" : "remove", usernames);
+        return enqueue("modifySecurityHelper", api.securityUpdate(aclType, key, payload), response -> {
+            if (!response.isSuccessful()) {
+                throw new SyncServiceException(String.format("Failed to %s usernames %s the %s ACL %s. Error: %s",
+                        payload.getAction(), mesageInsert, aclType, key, response.errorBody().string()));
+            }
+            return null;
+        });
+    }
+
+    private CompletableFuture<List<String>> retrieveACLHelper(String aclType, String key) {
+        Call<List<String>> call = key.equals("") ? api.retrieveAllACLs(aclType) : api.retrieveACL(aclType, key);
+        return enqueue("retrieveACLHelper", call, response -> {
+            if (response.isSuccessful()) {
+                return response.body();
+            } else if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                return new ArrayList<String>();
+            }
+            throw new SyncServiceException(key.equals("") ?
+                    String.format("Failed to get all of the %s ACLs. Error: %s", aclType, response.errorBody().string()) :
+                    String.format("Failed to get the %s ACL for %s. Error: %s", aclType, key,
+                            response.errorBody().string()));
+        });
+    }
+
+    /**
+     * Converts a {@link Response Response} into the result of an asynchronous call.
+     */
+    interface ResponseHandler<T, R> {
+        R handle(Response<T> response) throws SyncServiceException, IOException;
+    }
+
+    /**
+     * Get the action that drops an object from the cache of object information, once a call that changes the
+     * object completed, whatever its outcome.
+     */
+    private Runnable invalidate(SyncServiceMetaData metaData) {
+        return () -> cache.invalidate(metaData.getObjectType(), metaData.getObjectID());
+    }
+
+    /**
+     * Enqueue a call and complete the returned future with the result of the handler.
+     *
+     * @param method The name of the calling method, used when logging.
+     * @param call The call to enqueue.
+     * @param handler Converts the response into the result of the future, or throws the error to complete it with.
+     * @return A future that is completed by the OkHttp dispatcher.
+     */
+    static <T, R> CompletableFuture<R> enqueue(final String method, final Call<T> call,
+            final ResponseHandler<T, R> handler) {
+        return enqueue(method, call, null, handler);
+    }
+
+    /**
+     * Enqueue a call and complete the returned future with the result of the handler.
+     *
+     * @param method The name of the calling method, used when logging.
+     * @param call The call to enqueue.
+     * @param completion Run when the call completed, with a response or a failure, before the future is
+     *            completed, or <code>null</code>. A call that failed may still have reached the Sync Service.
+     * @param handler Converts the response into the result of the future, or throws the error to complete it with.
+     * @return A future that is completed by the OkHttp dispatcher.
+     */
+    static <T, R> CompletableFuture<R> enqueue(final String method, final Call<T> call, final Runnable completion,
+            final ResponseHandler<T, R> handler) {
+        final CompletableFuture<R> future = new CompletableFuture<R>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                call.cancel();
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                if (completion != null) {
+                    completion.run();
+                }
+                try {
+                    future.complete(handler.handle(response));
+                } catch (IOException ex) {
+                    LOGGER.logp(Level.SEVERE, CLASS_NAME, method, "IOException from " + method, ex);
+                    future.completeExceptionally(ex);
+                } catch (SyncServiceException | RuntimeException ex) {
+                    future.completeExceptionally(ex);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                if (completion != null) {
+                    completion.run();
+                }
+                if (t instanceof IOException && !call.isCanceled()) {
+                    LOGGER.logp(Level.SEVERE, CLASS_NAME, method, "IOException from " + method, t);
+                }
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+}
@@ -3,17 +3,33 @@ package com.horizon.syncservice.client;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.lang.StringBuffer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.HttpURLConnection;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,19 +37,17 @@ import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.X509TrustManager;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
-
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Interceptor;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Sink;
 import retrofit2.Call;
 import retrofit2.Response;
 import retrofit2.Retrofit;
-import retrofit2.converter.jackson.JacksonConverterFactory;
-import retrofit2.converter.scalars.ScalarsConverterFactory;
 
 /**
  * Client for Sync-Service
@@ -54,15 +68,71 @@ public class SyncServiceClient {
 
     private final String orgID;
     private final RetrofitHelper api;
+    private final SyncServiceAsyncClient asyncClient;
+    private final ObjectInfoCache cache;
+    private final boolean virtualThreads;
+
+    SyncServiceClient(String orgID, RetrofitHelper api, ObjectInfoCache cache) {
+        this(orgID, api, cache, false);
+    }
 
-    private SyncServiceClient(URL url, String orgID, ObjectMapper mapper, OkHttpClient httpClient) {
+    SyncServiceClient(String orgID, RetrofitHelper api, ObjectInfoCache cache, boolean virtualThreads) {
         this.orgID = orgID;
-        Retrofit retrofit = new Retrofit.Builder().baseUrl(url.toExternalForm())
-                .addConverterFactory(ScalarsConverterFactory.create())
-                .addConverterFactory(JacksonConverterFactory.create(mapper))
-                .client(httpClient)
-                .build();
-        this.api = new RetrofitHelper(orgID, retrofit);
+        this.api = api;
+        this.cache = cache;
+        this.virtualThreads = virtualThreads;
+        this.asyncClient = new SyncServiceAsyncClient(orgID, api, cache);
+    }
+
+    /**
+     * Get the non-blocking view of this client.
+     * <p>The returned {@link SyncServiceAsyncClient SyncServiceAsyncClient} shares this client's
+     * connection pool, authentication and organization, but returns a
+     * {@link java.util.concurrent.CompletableFuture CompletableFuture} from each call instead of blocking.
+     * @return The asynchronous client.
+     */
+    public SyncServiceAsyncClient async() {
+        return asyncClient;
+    }
+
+    /**
+     * Create a {@link BatchPublisher BatchPublisher} that publishes many objects through this client, with up to
+     * a given number of objects in progress at the same time.
+     * @param maxConcurrentObjects The maximum number of objects published concurrently.
+     * @return The batch publisher.
+     */
+    public BatchPublisher batchPublisher(int maxConcurrentObjects) {
+        checkArgument(maxConcurrentObjects > 0, "Non-positive value");
+        return new BatchPublisher(asyncClient, maxConcurrentObjects);
+    }
+
+    /**
+     * Create an {@link AckBatcher AckBatcher} that buffers the received, consumed and deleted marks of objects,
+     * and sends them through this client in batches.
+     * <p>The batcher should be {@link AckBatcher#close() closed} when it is no longer needed, to send the marks
+     * that are still buffered and to stop its timer thread.
+     * @param maxBatchSize The number of buffered marks that causes the batch to be sent.
+     * @param maxDelayMillis The longest time, in milli-seconds, a mark is buffered before the batch is sent.
+     * @param maxPending The maximum number of marks that are buffered or in flight. Marking an object blocks when
+     *              it is reached.
+     * @return The acknowledgement batcher.
+     */
+    public AckBatcher ackBatcher(int maxBatchSize, long maxDelayMillis, int maxPending) {
+        checkArgument(maxBatchSize > 0, "Non-positive value");
+        checkArgument(maxDelayMillis > 0, "Non-positive value");
+        checkArgument(maxPending >= maxBatchSize, "maxPending is smaller than maxBatchSize");
+        return new AckBatcher(asyncClient, threadFactory("sync-service-ack-batcher"), maxBatchSize, maxDelayMillis,
+                maxPending);
+    }
+
+    /**
+     * Get a factory of the threads used by the pollers and helpers of this client: virtual threads if
+     * {@link Builder#withVirtualThreads() Builder.withVirtualThreads} was set, daemon platform threads otherwise.
+     * @param name The name of the threads.
+     * @return The thread factory.
+     */
+    ThreadFactory threadFactory(String name) {
+        return Threads.factory(name, virtualThreads);
     }
 
     /**
@@ -93,6 +163,38 @@ public class SyncServiceClient {
         }
     }
 
+    /**
+     * Get the destinations in the organization of the sync client, as a Stream that parses each destination
+     * when it is reached.
+     * <p>Unlike {@link #getDestinations() getDestinations}, the response is not held in memory as a whole, so
+     * the memory used doesn't depend on the number of destinations.
+     * <p>The Stream holds the HTTP connection until all of its elements were consumed or it is closed.
+     * It must be used in a try-with-resources statement. I/O and parsing errors that occur while consuming the
+     * Stream are thrown as {@link java.io.UncheckedIOException UncheckedIOException}.
+     *
+     * @return A Stream of {@link Destination Destination} class objects.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     */
+    public Stream<Destination> streamDestinations() throws SyncServiceException, IOException {
+        return streamListHelper("streamDestinations", api.streamDestinations(), Destination.class,
+                String.format("Failed to get the list of destinations for %s", orgID));
+    }
+
+    /**
+     * Pass each destination in the organization of the sync client to a handler, parsing each destination
+     * when it is reached.
+     * <p>See {@link #streamDestinations() streamDestinations}.
+     *
+     * @param handler The handler, called on the calling thread.
+     * @return The number of destinations passed to the handler.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     */
+    public long forEachDestination(Consumer<? super Destination> handler) throws SyncServiceException, IOException {
+        return forEachHelper(streamDestinations(), handler);
+    }
+
     /**
      * Get the list of objects at a destination.
      * 
@@ -124,6 +226,38 @@ public class SyncServiceClient {
         }
     }
 
+    /**
+     * Get the list of objects at a destination, as a Stream that parses each object when it is reached.
+     * <p>See {@link #streamDestinations() streamDestinations} for how the Stream must be used.
+     *
+     * @param destType The destination type of the destination whose list of objects is to be returned.
+     * @param destID The destination ID of the destination whose list of objects is to be returned.
+     * @return A Stream of {@link ObjectStatus ObjectStatus} class objects.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     */
+    public Stream<ObjectStatus> streamDestinationObjects(String destType, String destID)
+            throws SyncServiceException, IOException {
+        return streamListHelper("streamDestinationObjects", api.streamDestinationObjects(destType, destID),
+                ObjectStatus.class, String.format("Failed to get the list of objects for the destination %s:%s:%s",
+                        orgID, destType, destID));
+    }
+
+    /**
+     * Pass each object at a destination to a handler, parsing each object when it is reached.
+     *
+     * @param destType The destination type of the destination whose objects are to be returned.
+     * @param destID The destination ID of the destination whose objects are to be returned.
+     * @param handler The handler, called on the calling thread.
+     * @return The number of objects passed to the handler.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     */
+    public long forEachDestinationObject(String destType, String destID, Consumer<? super ObjectStatus> handler)
+            throws SyncServiceException, IOException {
+        return forEachHelper(streamDestinationObjects(destType, destID), handler);
+    }
+
     /**
      * Create/update an object. Only object metadata is sent in this request
      * 
@@ -138,188 +272,1046 @@ public class SyncServiceClient {
      * @throws SyncServiceException If an error was returned from the Sync Server.
      * @throws IOException If an I/O error occurred.
      */
-    public void updateObject(SyncServiceMetaData metaData) throws SyncServiceException, IOException {
-        final String METHOD = "updateObject";
-        try {
-            ObjectPayload payload = new ObjectPayload(metaData);
-            Response<Void> response = api.putObject(metaData.getObjectType(), metaData.getObjectID(), payload)
-                    .execute();
-            if (!response.isSuccessful()) {
-                String message = String.format("Failed to update the object %s:%s:%s. Error: %s", orgID,
-                        metaData.getObjectType(), metaData.getObjectID(), response.errorBody().string());
-                throw new SyncServiceException(message);
-            }
-        } catch (IOException ex) {
-            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from updateObject", ex);
-            throw ex;
-        }
+    public void updateObject(SyncServiceMetaData metaData) throws SyncServiceException, IOException {
+        final String METHOD = "updateObject";
+        try {
+            ObjectPayload payload = new ObjectPayload(metaData);
+            Response<Void> response = api.putObject(metaData.getObjectType(), metaData.getObjectID(), payload)
+                    .execute();
+            if (!response.isSuccessful()) {
+                String message = String.format("Failed to update the object %s:%s:%s. Error: %s", orgID,
+                        metaData.getObjectType(), metaData.getObjectID(), response.errorBody().string());
+                throw new SyncServiceException(message);
+            }
+        } catch (IOException ex) {
+            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from updateObject", ex);
+            throw ex;
+        } finally {
+            cache.invalidate(metaData.getObjectType(), metaData.getObjectID());
+        }
+    }
+
+    /**
+     * Metadata of updated objects of the specified objectType are retrieved.
+     * 
+     * @param objectType specifies the type of objects whose updates are queried for.
+     * @param received If <code>true</code>, objects marked as received, will be included in the results.
+     * @return A List of {@link SyncServiceMetaData SyncServiceMetaData} class objects, one for each
+     *               updated object.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public List<SyncServiceMetaData> getUpdatedObjects(String objectType, boolean received)
+            throws SyncServiceException, IOException {
+        final String METHOD = "getUpdatedObjects";
+        try {
+            Response<List<SyncServiceMetaData>> response = api.getUpdatedObjects(objectType, received).execute();
+            if (response.isSuccessful()) {
+                List<SyncServiceMetaData> metaData = response.body();
+                return metaData;
+            } else if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                return new ArrayList<SyncServiceMetaData>();
+            } else {
+                String message = String.format("Failed to get the list of updated objects for %s:%s. Error: %s", orgID,
+                        objectType, response.errorBody().string());
+                throw new SyncServiceException(message);
+            }
+        } catch (IOException ex) {
+            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from getUpdatedObjects", ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Get the list of objects that were updated, as a Stream that parses each object's metadata when it
+     * is reached.
+     * <p>See {@link #streamDestinations() streamDestinations} for how the Stream must be used.
+     *
+     * @param objectType specifies the type of objects the client should retrieve updates for.
+     * @param received if true, the function returns all updated objects, including those marked as received.
+     * @return A Stream of {@link SyncServiceMetaData SyncServiceMetaData} class objects.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     */
+    public Stream<SyncServiceMetaData> streamUpdatedObjects(String objectType, boolean received)
+            throws SyncServiceException, IOException {
+        return streamListHelper("streamUpdatedObjects", api.streamUpdatedObjects(objectType, received),
+                SyncServiceMetaData.class,
+                String.format("Failed to get the list of updated objects for %s:%s", orgID, objectType));
+    }
+
+    /**
+     * Pass each object that was updated to a handler, parsing each object's metadata when it is reached.
+     *
+     * @param objectType specifies the type of objects the client should retrieve updates for.
+     * @param received if true, all updated objects are passed, including those marked as received.
+     * @param handler The handler, called on the calling thread.
+     * @return The number of objects passed to the handler.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     */
+    public long forEachUpdatedObject(String objectType, boolean received,
+            Consumer<? super SyncServiceMetaData> handler) throws SyncServiceException, IOException {
+        return forEachHelper(streamUpdatedObjects(objectType, received), handler);
+    }
+
+    /**
+     * Start polling the Sync Service for updates of objects of the specified objectType.
+     *
+     * <p>Each invocation creates a poller thread that periodically calls
+     *      {@link #getUpdatedObjects(String, boolean) getUpdatedObjects} and passes each new or updated object
+     *      to the handler, once. The handler is called on the poller thread.
+     * <p>Note that the updates contain only the object's metadata. The object's data (if exists) can be obtained
+     *      by calling {@link #fetchObjectData(SyncServiceMetaData) fetchObjectData}.
+     *
+     * @param objectType specifies the type of objects the client should retrieve updates for.
+     * @param rateMillis The period, in milli-seconds, between poll requests.
+     * @param handler The handler the updates are passed to.
+     * @return The {@link UpdatesPoller UpdatesPoller}, used to stop polling.
+     */
+    public UpdatesPoller startPollingForUpdates(String objectType, long rateMillis,
+            Consumer<SyncServiceMetaData> handler) {
+        checkArgument(rateMillis > 0, "Non-positive value");
+        return new UpdatesPoller(this, objectType, rateMillis, handler);
+    }
+
+    /**
+     * Start polling the Sync Service for updates of objects of the specified objectType, adding each new or
+     * updated object to a queue.
+     *
+     * <p>If the queue is bounded and full, polling pauses until the application takes updates from it. Stopping
+     *      the poller meanwhile interrupts the wait, and the update is not added.
+     *
+     * @param objectType specifies the type of objects the client should retrieve updates for.
+     * @param rateMillis The period, in milli-seconds, between poll requests.
+     * @param updatesQueue The queue on which the application receives the updates.
+     * @return The {@link UpdatesPoller UpdatesPoller}, used to stop polling.
+     */
+    public UpdatesPoller startPollingForUpdates(String objectType, long rateMillis,
+            BlockingQueue<SyncServiceMetaData> updatesQueue) {
+        return startPollingForUpdates(objectType, rateMillis, metaData -> {
+            try {
+                updatesQueue.put(metaData);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * Create a {@link WebhookReceiver.Builder WebhookReceiver.Builder}, to receive the updates of objects of the
+     * specified objectType through a webhook instead of polling.
+     * <p>The receiver is started, and registers its webhook, with
+     * {@link WebhookReceiver.Builder#start(Consumer) start}. It falls back to polling when no notification
+     * arrives for a while, see {@link WebhookReceiver WebhookReceiver}.
+     *
+     * @param objectType specifies the type of objects the client should receive updates for.
+     * @return The builder of the receiver.
+     */
+    public WebhookReceiver.Builder webhookReceiver(String objectType) {
+        return new WebhookReceiver.Builder(this, api.getObjectMapper(), objectType);
+    }
+
+    /**
+     * Create a {@link DeliveryTracker.Builder DeliveryTracker.Builder}, to track the delivery of an object to its
+     * destinations and be told of the changes of their statuses.
+     *
+     * @param objectType The object type of the object whose delivery is tracked.
+     * @param objectID The object ID of the object whose delivery is tracked.
+     * @return The builder of the tracker.
+     */
+    public DeliveryTracker.Builder deliveryTracker(String objectType, String objectID) {
+        return new DeliveryTracker.Builder(this, objectType, objectID);
+    }
+
+    /**
+     * Get information about the destinations to which an object was sent
+     * 
+     * @param objectType The object type of the object whose destination information will be retrieved.
+     * @param objectID The object ID of the object whose destination information will be retrieved.
+     * @return A List of {@link DestinationStatus DestinationStatus} class objects, each of which has
+     *                 information about a destination to which the object was sent.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    @SuppressWarnings("unchecked")
+    public List<DestinationStatus> getObjectDestinations(String objectType, String objectID)
+            throws SyncServiceException, IOException {
+        final String METHOD = "getObjectDestinations";
+        ObjectInfoCache.Entry cached = cache.get(ObjectInfoCache.DESTINATIONS, objectType, objectID);
+        if (cached != null) {
+            return (List<DestinationStatus>) cached.getValue();
+        }
+        long generation = cache.generation();
+        try {
+            Response<List<DestinationStatus>> response = api.getObjectDestinations(objectType, objectID).execute();
+            if (response.isSuccessful() || response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                List<DestinationStatus> result = response.isSuccessful() ?
+                        response.body() : new ArrayList<DestinationStatus>();
+                if (result != null && cache != ObjectInfoCache.DISABLED) {
+                    result = Collections.unmodifiableList(result);
+                    cache.put(ObjectInfoCache.DESTINATIONS, objectType, objectID, result, generation);
+                }
+                return result;
+            } else {
+                String message = String.format("Failed to get the destinations of the object %s:%s%s. Error: %s",
+                        orgID, objectType, objectID, response.errorBody().string());
+                throw new SyncServiceException(message);
+            }
+        } catch (IOException ex) {
+            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from getObjectDestinations", ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Get information about the destinations to which an object was sent, as a Stream that parses each
+     * destination when it is reached.
+     * <p>See {@link #streamDestinations() streamDestinations} for how the Stream must be used.
+     *
+     * @param objectType The object type of the object whose destination information will be retrieved.
+     * @param objectID The object ID of the object whose destination information will be retrieved.
+     * @return A Stream of {@link DestinationStatus DestinationStatus} class objects.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     */
+    public Stream<DestinationStatus> streamObjectDestinations(String objectType, String objectID)
+            throws SyncServiceException, IOException {
+        return streamListHelper("streamObjectDestinations", api.streamObjectDestinations(objectType, objectID),
+                DestinationStatus.class,
+                String.format("Failed to get the destinations of the object %s:%s:%s", orgID, objectType, objectID));
+    }
+
+    /**
+     * Pass the information about each destination to which an object was sent to a handler, parsing each
+     * destination when it is reached.
+     *
+     * @param objectType The object type of the object whose destination information will be retrieved.
+     * @param objectID The object ID of the object whose destination information will be retrieved.
+     * @param handler The handler, called on the calling thread.
+     * @return The number of destinations passed to the handler.
+     * @throws SyncServiceException If an error was returned from the Sync Service.
+     * @throws IOException If an I/O error occurred.
+     */
+    public long forEachObjectDestination(String objectType, String objectID,
+            Consumer<? super DestinationStatus> handler) throws SyncServiceException, IOException {
+        return forEachHelper(streamObjectDestinations(objectType, objectID), handler);
+    }
+
+    private <T> Stream<T> streamListHelper(String method, Call<ResponseBody> call, Class<T> type,
+            String errorMessage) throws SyncServiceException, IOException {
+        try {
+            Response<ResponseBody> response = call.execute();
+            if (response.isSuccessful()) {
+                return new JsonArrayIterator<T>(api.getObjectMapper().readerFor(type), response.body()).stream();
+            } else if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                response.errorBody().close();
+                return Stream.empty();
+            } else {
+                String message = String.format("%s. Error: %s", errorMessage, response.errorBody().string());
+                throw new SyncServiceException(message);
+            }
+        } catch (IOException ex) {
+            LOGGER.logp(Level.SEVERE, CLASS_NAME, method, "IOException from " + method, ex);
+            throw ex;
+        }
+    }
+
+    private static <T> long forEachHelper(Stream<T> stream, Consumer<? super T> handler) throws IOException {
+        long count = 0;
+        try (Stream<T> elements = stream) {
+            Iterator<T> iterator = elements.iterator();
+            while (iterator.hasNext()) {
+                handler.accept(iterator.next());
+                count++;
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        return count;
+    }
+
+    /**
+     * Get the status of an object that was sent
+     * 
+     * @param objectType The object type of the object whose status will be retrieved.
+     * @param objectID The object ID of the object whose status will be retrieved.
+     * @return A String indicating the status of the object. See the class {@link ObjectStatus ObjectStatus} 
+     *                 for the list of possible values.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public String getObjectStatus(String objectType, String objectID)
+            throws SyncServiceException, IOException {
+        final String METHOD = "getObjectStatus";
+        ObjectInfoCache.Entry cached = cache.get(ObjectInfoCache.STATUS, objectType, objectID);
+        if (cached != null) {
+            return (String) cached.getValue();
+        }
+        long generation = cache.generation();
+        try {
+            Response<String> response = api.getObjectStatus(objectType, objectID).execute();
+            if (response.isSuccessful() || response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                String result = response.isSuccessful() ? response.body() : "";
+                cache.put(ObjectInfoCache.STATUS, objectType, objectID, result, generation);
+                return result;
+            } else {
+                String message = String.format("Failed to get the status of the object %s:%s%s. Error: %s",
+                        orgID, objectType, objectID, response.errorBody().string());
+                throw new SyncServiceException(message);
+            }
+        } catch (IOException ex) {
+            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from getObjectStatus", ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Wait for an object to reach a status, polling its status on the default schedule.
+     *
+     * <p>See {@link #waitForObjectStatus(String, String, String, long, PollSchedule) waitForObjectStatus}.
+     *
+     * @param objectType The object type of the object whose status is waited for.
+     * @param objectID The object ID of the object whose status is waited for.
+     * @param status The status waited for, see {@link ObjectStatus ObjectStatus}.
+     * @param timeoutMillis The time, in milli-seconds, after which the wait fails.
+     * @return The status of the object that ended the wait.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     * @throws TimeoutException If the object didn't reach the status in time.
+     * @throws InterruptedException If the thread was interrupted while waiting. The polls are stopped.
+     */
+    public String waitForObjectStatus(String objectType, String objectID, String status, long timeoutMillis)
+            throws SyncServiceException, IOException, TimeoutException, InterruptedException {
+        return waitForObjectStatus(objectType, objectID, status, timeoutMillis, PollSchedule.DEFAULT);
+    }
+
+    /**
+     * Wait for an object to reach a status.
+     *
+     * <p>The wait ends when the object reaches the status, or a later status of its delivery (for example
+     *      {@link ObjectStatus#CONSUMED CONSUMED} when waiting for {@link ObjectStatus#DELIVERED DELIVERED}), or
+     *      {@link ObjectStatus#ERROR ERROR} or {@link ObjectStatus#DELETED DELETED}. The status is polled quickly
+     *      at first, then less and less often, as set by the schedule, and the polls bypass the object info cache.
+     *      The calling thread waits on the result of
+     *      {@link SyncServiceAsyncClient#waitForObjectStatus(String, String, String, long, PollSchedule)
+     *      SyncServiceAsyncClient.waitForObjectStatus}, whose polls are timed by a single thread shared by all
+     *      the waits.
+     *
+     * @param objectType The object type of the object whose status is waited for.
+     * @param objectID The object ID of the object whose status is waited for.
+     * @param status The status waited for, see {@link ObjectStatus ObjectStatus}.
+     * @param timeoutMillis The time, in milli-seconds, after which the wait fails.
+     * @param schedule The delays between the polls.
+     * @return The status of the object that ended the wait.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     * @throws TimeoutException If the object didn't reach the status in time.
+     * @throws InterruptedException If the thread was interrupted while waiting. The polls are stopped.
+     */
+    public String waitForObjectStatus(String objectType, String objectID, String status, long timeoutMillis,
+            PollSchedule schedule) throws SyncServiceException, IOException, TimeoutException, InterruptedException {
+        return await("waitForObjectStatus",
+                asyncClient.waitForObjectStatus(objectType, objectID, status, timeoutMillis, schedule));
+    }
+
+    /**
+     * Wait for all the destinations of an object to reach a status, polling them on the default schedule.
+     *
+     * <p>See {@link #waitForAllDestinations(String, String, String, long, PollSchedule) waitForAllDestinations}.
+     *
+     * @param objectType The object type of the object whose destinations are waited for.
+     * @param objectID The object ID of the object whose destinations are waited for.
+     * @param status The status waited for, see {@link DestinationStatus DestinationStatus}.
+     * @param timeoutMillis The time, in milli-seconds, after which the wait fails.
+     * @return The destinations of the object that ended the wait.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     * @throws TimeoutException If the destinations didn't reach the status in time.
+     * @throws InterruptedException If the thread was interrupted while waiting. The polls are stopped.
+     */
+    public List<DestinationStatus> waitForAllDestinations(String objectType, String objectID, String status,
+            long timeoutMillis) throws SyncServiceException, IOException, TimeoutException, InterruptedException {
+        return waitForAllDestinations(objectType, objectID, status, timeoutMillis, PollSchedule.DEFAULT);
+    }
+
+    /**
+     * Wait for all the destinations of an object to reach a status.
+     *
+     * <p>The wait ends when the object has destinations, and each of them reached the status, a later status of
+     *      the delivery, {@link DestinationStatus#ERROR ERROR} or {@link ObjectStatus#DELETED deleted}. The
+     *      destinations are polled as the status is by
+     *      {@link #waitForObjectStatus(String, String, String, long, PollSchedule) waitForObjectStatus}.
+     *
+     * @param objectType The object type of the object whose destinations are waited for.
+     * @param objectID The object ID of the object whose destinations are waited for.
+     * @param status The status waited for, see {@link DestinationStatus DestinationStatus}.
+     * @param timeoutMillis The time, in milli-seconds, after which the wait fails.
+     * @param schedule The delays between the polls.
+     * @return The destinations of the object that ended the wait. The application checks their statuses for
+     *                 errors.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     * @throws TimeoutException If the destinations didn't reach the status in time.
+     * @throws InterruptedException If the thread was interrupted while waiting. The polls are stopped.
+     */
+    public List<DestinationStatus> waitForAllDestinations(String objectType, String objectID, String status,
+            long timeoutMillis, PollSchedule schedule)
+            throws SyncServiceException, IOException, TimeoutException, InterruptedException {
+        return await("waitForAllDestinations",
+                asyncClient.waitForAllDestinations(objectType, objectID, status, timeoutMillis, schedule));
+    }
+
+    /**
+     * Wait for the result of an asynchronous call, and rethrow its failure.
+     * @param method The name of the method waiting, for the log.
+     * @param future The future of the call. It is cancelled if the thread is interrupted.
+     * @return The result of the call.
+     */
+    private static <T> T await(String method, CompletableFuture<T> future)
+            throws SyncServiceException, IOException, TimeoutException, InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            throw ex;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                LOGGER.logp(Level.SEVERE, CLASS_NAME, method, "IOException from " + method, cause);
+                throw (IOException) cause;
+            } else if (cause instanceof SyncServiceException) {
+                throw (SyncServiceException) cause;
+            } else if (cause instanceof TimeoutException) {
+                throw (TimeoutException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SyncServiceException("Unexpected failure of " + method, cause);
+        }
+    }
+
+    /**
+     * Get the metadata of an object.
+     *
+     * <p>When the client caches object information, see {@link Builder#withObjectCache(int, long) withObjectCache},
+     *      each call returns its own copy of the cached metadata, which the caller may modify. That the object was
+     *      not found is cached too, so an object created by another client is found only once that result expired.
+     * 
+     * @param objectType The object type of the object whose metadata will be retrieved.
+     * @param objectID The object ID of the object whose metadata will be retrieved.
+     * @return The {@link SyncServiceMetaData SyncServiceMetaData} of the object, or <code>null</code> if the
+     *                 object was not found.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public SyncServiceMetaData getObjectMetadata(String objectType, String objectID)
+            throws SyncServiceException, IOException {
+        final String METHOD = "getObjectMetadata";
+        ObjectInfoCache.Entry cached = cache.get(ObjectInfoCache.METADATA, objectType, objectID);
+        if (cached != null) {
+            // A cached null is an object that was not found
+            SyncServiceMetaData metaData = (SyncServiceMetaData) cached.getValue();
+            return metaData != null ? metaData.copy() : null;
+        }
+        long generation = cache.generation();
+        try {
+            Response<SyncServiceMetaData> response = api.getObjectMetadata(objectType, objectID).execute();
+            if (response.isSuccessful() || response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                SyncServiceMetaData result = response.isSuccessful() ? response.body() : null;
+                if (cache != ObjectInfoCache.DISABLED) {
+                    cache.put(ObjectInfoCache.METADATA, objectType, objectID, result != null ? result.copy() : null,
+                            generation);
+                }
+                return result;
+            } else {
+                String message = String.format("Failed to get the metadata of the object %s:%s:%s. Error: %s",
+                        orgID, objectType, objectID, response.errorBody().string());
+                throw new SyncServiceException(message);
+            }
+        } catch (IOException ex) {
+            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from getObjectMetadata", ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Update an object's data from an array of bytes.
+     * 
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The new data for the object.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public void updateObjectData(SyncServiceMetaData metaData, byte[] input)
+            throws SyncServiceException, IOException {
+        updateObjectDataHelper(metaData, ObjectDataBody.create(input));
+    }
+
+    /**
+     * Update an object's data from a file.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input A file containing the new data for the object.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public void updateObjectData(SyncServiceMetaData metaData, File input)
+            throws SyncServiceException, IOException {
+        updateObjectDataHelper(metaData, ObjectDataBody.create(input));
+    }
+
+    /**
+     * Update an object's data from a file, mapped into memory.
+     *
+     * <p>The file is mapped one window at a time, and its data is copied once, from the page cache to the
+     *      connection. This is cheaper than reading the file into heap buffers for very large files.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The path of a file containing the new data for the object.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public void updateObjectData(SyncServiceMetaData metaData, Path input)
+            throws SyncServiceException, IOException {
+        updateObjectDataHelper(metaData, MappedFileBody.create(input));
+    }
+
+    /**
+     * Update an object's data from a range of bytes of a file, mapped into memory.
+     *
+     * <p>See {@link #updateObjectData(SyncServiceMetaData, Path) updateObjectData(SyncServiceMetaData, Path)}.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The path of a file containing the new data for the object.
+     * @param offset The offset in the file of the first byte of the data.
+     * @param length The number of bytes of the data.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred, or if the range is outside of the file.
+     */
+    public void updateObjectData(SyncServiceMetaData metaData, Path input, long offset, long length)
+            throws SyncServiceException, IOException {
+        updateObjectDataHelper(metaData, MappedFileBody.create(input, offset, length));
+    }
+
+    /**
+     * Update an object's data from an InputStream of unknown length.
+     *
+     * <p>The data is streamed to the Sync Service as it is read, using chunked transfer encoding, so memory
+     *      use does not depend on the size of the data. The stream is read to its end, but not closed.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The stream from which the new data for the object is read.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public void updateObjectData(SyncServiceMetaData metaData, InputStream input)
+            throws SyncServiceException, IOException {
+        updateObjectData(metaData, input, -1);
+    }
+
+    /**
+     * Update an object's data from an InputStream.
+     *
+     * <p>The data is streamed to the Sync Service as it is read, so memory use does not depend on the size of
+     *      the data. The stream is not closed.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The stream from which the new data for the object is read.
+     * @param length The number of bytes to read from the stream and send as the object's data, or -1 to send
+     *               the rest of the stream using chunked transfer encoding.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred, or if the stream ended before length bytes were read.
+     */
+    public void updateObjectData(SyncServiceMetaData metaData, InputStream input, long length)
+            throws SyncServiceException, IOException {
+        updateObjectDataHelper(metaData, StreamingRequestBody.create(input, length));
+    }
+
+    /**
+     * Update an object's data from a ReadableByteChannel of unknown length.
+     *
+     * <p>The data is streamed to the Sync Service as it is read, using chunked transfer encoding, so memory
+     *      use does not depend on the size of the data. The channel must be in blocking mode. It is read to its
+     *      end, but not closed.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The channel from which the new data for the object is read.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public void updateObjectData(SyncServiceMetaData metaData, ReadableByteChannel input)
+            throws SyncServiceException, IOException {
+        updateObjectData(metaData, input, -1);
+    }
+
+    /**
+     * Update an object's data from a ReadableByteChannel.
+     *
+     * <p>The data is streamed to the Sync Service as it is read, so memory use does not depend on the size of
+     *      the data. The channel must be in blocking mode. It is read to its end, or up to length bytes when the
+     *      length is known, but not closed.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The channel from which the new data for the object is read.
+     * @param length The number of bytes to send, sent as the Content-Length, or -1 to send the rest of the
+     *               channel, in which case chunked transfer encoding is used.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred, or if the channel didn't provide length bytes.
+     */
+    public void updateObjectData(SyncServiceMetaData metaData, ReadableByteChannel input, long length)
+            throws SyncServiceException, IOException {
+        updateObjectDataHelper(metaData, StreamingRequestBody.create(input, length));
+    }
+
+    /**
+     * Update an object's data from chunks of data generated on the fly.
+     *
+     * <p>The supplier is called repeatedly, and each chunk it returns is sent to the Sync Service before the
+     *      next one is requested, until it returns <code>null</code>. The data is sent using chunked transfer
+     *      encoding.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param chunks The supplier of the chunks of the new data for the object.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public void updateObjectData(SyncServiceMetaData metaData, Supplier<byte[]> chunks)
+            throws SyncServiceException, IOException {
+        updateObjectDataHelper(metaData, StreamingRequestBody.create(chunks));
+    }
+
+    /**
+     * Update an object's data from a file, computing the digest of the data as it is sent.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input A file containing the new data for the object.
+     * @param algorithm The algorithm of the digest.
+     * @return The digest of the data sent.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public DataDigest updateObjectData(SyncServiceMetaData metaData, File input, DataDigest.Algorithm algorithm)
+            throws SyncServiceException, IOException {
+        return updateObjectDataHelper(metaData, ObjectDataBody.create(input), algorithm, null);
+    }
+
+    /**
+     * Update an object's data from a file, checking the digest of the data as it is sent.
+     *
+     * <p>The file is read once. The last bytes of the data are sent only if the digest matches, otherwise the
+     *      request fails and the Sync Service doesn't store the data.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input A file containing the new data for the object.
+     * @param expected The expected digest of the data, for example found in the object's description with
+     *               {@link DataDigest#find(String) DataDigest.find}.
+     * @return The digest of the data sent, equal to the expected digest.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws DataDigestMismatchException If the digest of the data doesn't match the expected digest.
+     * @throws IOException If an I/O error occurred.
+     */
+    public DataDigest updateObjectData(SyncServiceMetaData metaData, File input, DataDigest expected)
+            throws SyncServiceException, IOException {
+        return updateObjectDataHelper(metaData, ObjectDataBody.create(input), expected.getAlgorithm(), expected);
+    }
+
+    /**
+     * Update an object's data from an InputStream, computing the digest of the data as it is sent.
+     *
+     * <p>See {@link #updateObjectData(SyncServiceMetaData, InputStream, long)
+     *      updateObjectData(SyncServiceMetaData, InputStream, long)}.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The stream from which the new data for the object is read.
+     * @param length The number of bytes to read from the stream and send as the object's data, or -1 to send
+     *               the rest of the stream using chunked transfer encoding.
+     * @param algorithm The algorithm of the digest.
+     * @return The digest of the data sent.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred, or if the stream ended before length bytes were read.
+     */
+    public DataDigest updateObjectData(SyncServiceMetaData metaData, InputStream input, long length,
+            DataDigest.Algorithm algorithm) throws SyncServiceException, IOException {
+        return updateObjectDataHelper(metaData, StreamingRequestBody.create(input, length), algorithm, null);
+    }
+
+    /**
+     * Update an object's data from an InputStream, checking the digest of the data as it is sent.
+     *
+     * <p>See {@link #updateObjectData(SyncServiceMetaData, File, DataDigest)
+     *      updateObjectData(SyncServiceMetaData, File, DataDigest)}.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param input The stream from which the new data for the object is read.
+     * @param length The number of bytes to read from the stream and send as the object's data, or -1 to send
+     *               the rest of the stream using chunked transfer encoding.
+     * @param expected The expected digest of the data.
+     * @return The digest of the data sent, equal to the expected digest.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws DataDigestMismatchException If the digest of the data doesn't match the expected digest.
+     * @throws IOException If an I/O error occurred, or if the stream ended before length bytes were read.
+     */
+    public DataDigest updateObjectData(SyncServiceMetaData metaData, InputStream input, long length,
+            DataDigest expected) throws SyncServiceException, IOException {
+        return updateObjectDataHelper(metaData, StreamingRequestBody.create(input, length), expected.getAlgorithm(),
+                expected);
+    }
+
+    /**
+     * Send an object's data, computing its digest.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param body The body of the request, containing the new data for the object.
+     * @param algorithm The algorithm of the digest.
+     * @param expected The expected digest, or <code>null</code> to compute the digest without checking it.
+     * @return The digest of the data sent.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    private DataDigest updateObjectDataHelper(SyncServiceMetaData metaData, ObjectDataBody body,
+            DataDigest.Algorithm algorithm, DataDigest expected) throws SyncServiceException, IOException {
+        DigestingRequestBody digesting = DigestingRequestBody.create(body, algorithm, expected);
+        updateObjectDataHelper(metaData, digesting);
+        return digesting.getDigest();
+    }
+
+    /**
+     * Send an object's data.
+     *
+     * @param metaData The metadata of the object whose data is to be updated.
+     * @param body The body of the request, containing the new data for the object.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    private void updateObjectDataHelper(SyncServiceMetaData metaData, RequestBody body)
+            throws SyncServiceException, IOException {
+        final String METHOD = "updateObjectData";
+        try {
+            Response<Void> response = api.putObjectData(metaData.getObjectType(), metaData.getObjectID(), body)
+                    .execute();
+            if (!response.isSuccessful()) {
+                String message = String.format("Failed to update the object data %s:%s:%s. Error: %s", orgID,
+                        metaData.getObjectType(), metaData.getObjectID(), response.errorBody().string());
+                throw new SyncServiceException(message);
+            }
+        } catch (IOException ex) {
+            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from updateObjectData", ex);
+            throw ex;
+        } finally {
+            cache.invalidate(metaData.getObjectType(), metaData.getObjectID());
+        }
+    }
+
+    /**
+     * Fetch an object's data and return it as a byte array.
+     *
+     * <p>The whole object is loaded onto the heap. For large objects use one of the streaming overloads, such as
+     *      {@link #fetchObjectData(SyncServiceMetaData, Path) fetchObjectData(SyncServiceMetaData, Path)}.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @return The object's data
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public byte[] fetchObjectData(SyncServiceMetaData metaData) throws SyncServiceException, IOException {
+        final String METHOD = "fetchObjectData";
+        try (ResponseBody body = fetchObjectDataHelper(metaData)) {
+            return body.bytes();
+        } catch (IOException ex) {
+            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from fetchObjectData", ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Fetch an object's data and write it to a file.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @param file The File object of the file to which the object's data will be written.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public void fetchObjectData(SyncServiceMetaData metaData, File file)
+            throws SyncServiceException, IOException {
+        fetchObjectData(metaData, file.toPath());
+    }
+
+    /**
+     * Fetch an object's data and write it to a file.
+     *
+     * <p>The data is streamed from the response into a {@link FileChannel FileChannel} through a large pooled
+     *      direct buffer, without holding the object on the heap. The file is created if it doesn't exist
+     *      and truncated if it does. If the transfer fails, the file is left truncated, see
+     *      {@link #fetchObjectDataAtomically(SyncServiceMetaData, Path, boolean) fetchObjectDataAtomically} to
+     *      replace the file only once all of the data was written.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @param path The path of the file to which the object's data will be written.
+     * @return The number of bytes written to the file.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public long fetchObjectData(SyncServiceMetaData metaData, Path path)
+            throws SyncServiceException, IOException {
+        final String METHOD = "fetchObjectData";
+        try (ResponseBody body = fetchObjectDataHelper(metaData);
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            return Transfers.copy(body.source(), channel);
+        } catch (IOException ex) {
+            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from fetchObjectData", ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Fetch an object's data and write it to a file, computing the digest of the data as it is written.
+     *
+     * <p>The data is written to a temporary file, which replaces the file only once all of the data was written,
+     *      see {@link #fetchObjectDataAtomically(SyncServiceMetaData, Path, boolean, DataDigest.Algorithm)
+     *      fetchObjectDataAtomically}. The file is not flushed to the storage device.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @param path The path of the file to which the object's data will be written.
+     * @param algorithm The algorithm of the digest.
+     * @return The digest of the data written to the file.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public DataDigest fetchObjectData(SyncServiceMetaData metaData, Path path, DataDigest.Algorithm algorithm)
+            throws SyncServiceException, IOException {
+        return fetchObjectDataAtomically(metaData, path, false, algorithm);
+    }
+
+    /**
+     * Fetch an object's data and write it to a file, checking the digest of the data as it is written.
+     *
+     * <p>The data is digested as it is written to a temporary file, without reading the file again. The temporary
+     *      file replaces the file only if the digest matches, so that a failed or corrupted transfer leaves the
+     *      file as it was, see {@link #fetchObjectDataAtomically(SyncServiceMetaData, Path, boolean, DataDigest)
+     *      fetchObjectDataAtomically}. The file is not flushed to the storage device.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @param path The path of the file to which the object's data will be written.
+     * @param expected The expected digest of the data, for example found in the object's description with
+     *               {@link DataDigest#find(String) DataDigest.find}.
+     * @return The digest of the data written to the file, equal to the expected digest.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws DataDigestMismatchException If the digest of the data doesn't match the expected digest.
+     * @throws IOException If an I/O error occurred.
+     */
+    public DataDigest fetchObjectData(SyncServiceMetaData metaData, Path path, DataDigest expected)
+            throws SyncServiceException, IOException {
+        return fetchObjectDataAtomically(metaData, path, false, expected);
+    }
+
+    /**
+     * Fetch an object's data and write it to a file atomically.
+     *
+     * <p>The data is written to a temporary file in the directory of the target file, which is renamed to the
+     *      target file only once all of the data was written. If the transfer fails, or the application crashes,
+     *      the target file is left as it was, and never truncated. When the length of the data is known, the
+     *      temporary file is allocated before it is written, and the transfer fails early if there is not enough
+     *      space for it. The length is taken from the response headers, and the data is streamed from the response
+     *      into the temporary file in a single pass, without holding the object on the heap.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @param path The path of the file to which the object's data will be written. It is replaced if it exists.
+     * @param sync <code>true</code> to flush the file to the storage device before it is renamed, so that it
+     *             survives a power loss. This is slower, and not needed to survive a crash of the application.
+     * @return The number of bytes written to the file.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public long fetchObjectDataAtomically(SyncServiceMetaData metaData, Path path, boolean sync)
+            throws SyncServiceException, IOException {
+        return fetchObjectDataAtomically(metaData, path, sync, null, null);
+    }
+
+    /**
+     * Fetch an object's data and write it to a file atomically, computing the digest of the data as it is written.
+     *
+     * <p>See {@link #fetchObjectDataAtomically(SyncServiceMetaData, Path, boolean)
+     *      fetchObjectDataAtomically(SyncServiceMetaData, Path, boolean)}.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @param path The path of the file to which the object's data will be written. It is replaced if it exists.
+     * @param sync <code>true</code> to flush the file to the storage device before it is renamed.
+     * @param algorithm The algorithm of the digest.
+     * @return The digest of the data written to the file.
+     * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws IOException If an I/O error occurred.
+     */
+    public DataDigest fetchObjectDataAtomically(SyncServiceMetaData metaData, Path path, boolean sync,
+            DataDigest.Algorithm algorithm) throws SyncServiceException, IOException {
+        DataDigester digester = DataDigester.create(algorithm);
+        fetchObjectDataAtomically(metaData, path, sync, digester, null);
+        return digester.digest();
     }
 
     /**
-     * Metadata of updated objects of the specified objectType are retrieved.
-     * 
-     * @param objectType specifies the type of objects whose updates are queried for.
-     * @param received If <code>true</code>, objects marked as received, will be included in the results.
-     * @return A List of {@link SyncServiceMetaData SyncServiceMetaData} class objects, one for each
-     *               updated object.
+     * Fetch an object's data and write it to a file atomically, checking the digest of the data as it is written.
+     *
+     * <p>The file is renamed to the target file only if the digest matches, otherwise the temporary file is
+     *      deleted and the target file is left as it was. See
+     *      {@link #fetchObjectDataAtomically(SyncServiceMetaData, Path, boolean)
+     *      fetchObjectDataAtomically(SyncServiceMetaData, Path, boolean)}.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @param path The path of the file to which the object's data will be written. It is replaced if it exists.
+     * @param sync <code>true</code> to flush the file to the storage device before it is renamed.
+     * @param expected The expected digest of the data.
+     * @return The digest of the data written to the file, equal to the expected digest.
      * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws DataDigestMismatchException If the digest of the data doesn't match the expected digest.
      * @throws IOException If an I/O error occurred.
      */
-    public List<SyncServiceMetaData> getUpdatedObjects(String objectType, boolean received)
-            throws SyncServiceException, IOException {
-        final String METHOD = "getUpdatedObjects";
-        try {
-            Response<List<SyncServiceMetaData>> response = api.getUpdatedObjects(objectType, received).execute();
-            if (response.isSuccessful()) {
-                List<SyncServiceMetaData> metaData = response.body();
-                return metaData;
-            } else if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
-                return new ArrayList<SyncServiceMetaData>();
-            } else {
-                String message = String.format("Failed to get the list of updated objects for %s:%s. Error: %s", orgID,
-                        objectType, response.errorBody().string());
-                throw new SyncServiceException(message);
-            }
-        } catch (IOException ex) {
-            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from getUpdatedObjects", ex);
-            throw ex;
-        }
+    public DataDigest fetchObjectDataAtomically(SyncServiceMetaData metaData, Path path, boolean sync,
+            DataDigest expected) throws SyncServiceException, IOException {
+        fetchObjectDataAtomically(metaData, path, sync, DataDigester.create(expected.getAlgorithm()), expected);
+        return expected;
     }
 
     /**
-     * Get information about the destinations to which an object was sent
-     * 
-     * @param objectType The object type of the object whose destination information will be retrieved.
-     * @param objectID The object ID of the object whose destination information will be retrieved.
-     * @return A List of {@link DestinationStatus DestinationStatus} class objects, each of which has
-     *                 information about a destination to which the object was sent.
+     * Fetch an object's data and write it to a file atomically.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @param path The path of the file to which the object's data will be written.
+     * @param sync <code>true</code> to flush the file to the storage device before it is renamed.
+     * @param digester The digester fed with the data, or <code>null</code>.
+     * @param expected The expected digest of the data, or <code>null</code> not to check it.
+     * @return The number of bytes written to the file.
      * @throws SyncServiceException If an error was returned from the Sync Server.
      * @throws IOException If an I/O error occurred.
      */
-    public List<DestinationStatus> getObjectDestinations(String objectType, String objectID)
-            throws SyncServiceException, IOException {
-        final String METHOD = "getObjectDestinations";
-        try {
-            Response<List<DestinationStatus>> response = api.getObjectDestinations(objectType, objectID).execute();
-            if (response.isSuccessful()) {
-                List<DestinationStatus> result = response.body();
-                return result;
-            } else if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
-                return new ArrayList<DestinationStatus>();
-            } else {
-                String message = String.format("Failed to get the destinations of the object %s:%s%s. Error: %s",
-                        orgID, objectType, objectID, response.errorBody().string());
-                throw new SyncServiceException(message);
+    private long fetchObjectDataAtomically(SyncServiceMetaData metaData, Path path, boolean sync,
+            DataDigester digester, DataDigest expected) throws SyncServiceException, IOException {
+        final String METHOD = "fetchObjectDataAtomically";
+        try (ResponseBody body = fetchObjectDataHelper(metaData);
+                AtomicFile file = AtomicFile.create(path)) {
+            long length = body.contentLength();
+            if (length >= 0) {
+                file.preallocate(length);
+            }
+            BufferedSource source = digester != null ? Okio.buffer(digester.source(body.source())) : body.source();
+            long count = Transfers.copy(source, file.channel());
+            if (expected != null) {
+                DataDigest actual = digester.digest();
+                if (!expected.equals(actual)) {
+                    throw new DataDigestMismatchException(expected, actual);
+                }
             }
+            file.commit(sync);
+            return count;
         } catch (IOException ex) {
-            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from getObjectDestinations", ex);
+            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from fetchObjectDataAtomically", ex);
             throw ex;
         }
     }
 
     /**
-     * Get the status of an object that was sent
-     * 
-     * @param objectType The object type of the object whose status will be retrieved.
-     * @param objectID The object ID of the object whose status will be retrieved.
-     * @return A String indicating the status of the object. See the class {@link ObjectStatus ObjectStatus} 
-     *                 for the list of possible values.
+     * Fetch an object's data and write it to an OutputStream.
+     *
+     * <p>The data is streamed, without holding the object on the heap. The stream is flushed, but not closed.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @param output The stream to which the object's data will be written.
+     * @return The number of bytes written to the stream.
      * @throws SyncServiceException If an error was returned from the Sync Server.
      * @throws IOException If an I/O error occurred.
      */
-    public String getObjectStatus(String objectType, String objectID)
+    public long fetchObjectData(SyncServiceMetaData metaData, OutputStream output)
             throws SyncServiceException, IOException {
-        final String METHOD = "getObjectStatus";
-        try {
-            Response<String> response = api.getObjectStatus(objectType, objectID).execute();
-            if (response.isSuccessful()) {
-                String result = response.body();
-                return result;
-            } else if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
-                return "";
-            } else {
-                String message = String.format("Failed to get the status of the object %s:%s%s. Error: %s",
-                        orgID, objectType, objectID, response.errorBody().string());
-                throw new SyncServiceException(message);
-            }
+        final String METHOD = "fetchObjectData";
+        try (ResponseBody body = fetchObjectDataHelper(metaData)) {
+            Sink sink = Okio.sink(output);
+            long count = body.source().readAll(sink);
+            sink.flush();
+            return count;
         } catch (IOException ex) {
-            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from getObjectStatus", ex);
+            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from fetchObjectData", ex);
             throw ex;
         }
     }
 
     /**
-     * Update an object's data from an array of bytes.
-     * 
-     * @param metaData The metadata of the object whose data is to be updated.
-     * @param input The new data for the object.
+     * Fetch an object's data and write it to an OutputStream, computing the digest of the data as it is written.
+     *
+     * <p>The data is digested incrementally as it is streamed from the response, without holding the object on
+     *      the heap. See {@link #fetchObjectData(SyncServiceMetaData, OutputStream)
+     *      fetchObjectData(SyncServiceMetaData, OutputStream)}.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @param output The stream to which the object's data will be written.
+     * @param algorithm The algorithm of the digest.
+     * @return The digest of the data written to the stream.
      * @throws SyncServiceException If an error was returned from the Sync Server.
      * @throws IOException If an I/O error occurred.
      */
-    public void updateObjectData(SyncServiceMetaData metaData, byte[] input)
-            throws SyncServiceException, IOException {
-        final String METHOD = "updateObjectData";
-        try {
-            RequestBody body = RequestBody.create(MediaType.parse("application/octet-stream"), input);
-            Response<Void> response = api.putObjectData(metaData.getObjectType(), metaData.getObjectID(), body)
-                    .execute();
-            if (!response.isSuccessful()) {
-                String message = String.format("Failed to update the object data %s:%s:%s. Error: %s", orgID,
-                        metaData.getObjectType(), metaData.getObjectID(), response.errorBody().string());
-                throw new SyncServiceException(message);
-            }
-        } catch (IOException ex) {
-            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from updateObjectData", ex);
-            throw ex;
-        }
+    public DataDigest fetchObjectData(SyncServiceMetaData metaData, OutputStream output,
+            DataDigest.Algorithm algorithm) throws SyncServiceException, IOException {
+        return fetchObjectDataHelper(metaData, output, algorithm, null);
     }
 
     /**
-     * Update an object's data from a file.
+     * Fetch an object's data and write it to an OutputStream, checking the digest of the data as it is written.
      *
-     * @param metaData The metadata of the object whose data is to be updated.
-     * @param input A file containing the new data for the object.
+     * <p>The data is digested incrementally as it is streamed from the response, without holding the object on
+     *      the heap. The data was already written to the stream when the digest is checked, the application must
+     *      discard it if a {@link DataDigestMismatchException DataDigestMismatchException} is thrown.
+     *
+     * @param metaData The metadata of the object whose data is to be fetched.
+     * @param output The stream to which the object's data will be written.
+     * @param expected The expected digest of the data.
+     * @return The digest of the data written to the stream, equal to the expected digest.
      * @throws SyncServiceException If an error was returned from the Sync Server.
+     * @throws DataDigestMismatchException If the digest of the data doesn't match the expected digest.
      * @throws IOException If an I/O error occurred.
      */
-    public void updateObjectData(SyncServiceMetaData metaData, File input)
+    public DataDigest fetchObjectData(SyncServiceMetaData metaData, OutputStream output, DataDigest expected)
             throws SyncServiceException, IOException {
-        final String METHOD = "updateObjectData";
-        try {
-            RequestBody body = RequestBody.create(MediaType.parse("application/octet-stream"), input);
-            Response<Void> response = api.putObjectData(metaData.getObjectType(), metaData.getObjectID(), body)
-                    .execute();
-            if (!response.isSuccessful()) {
-                String message = String.format("Failed to update the object %s:%s:%s. Error: %s", orgID,
-                        metaData.getObjectType(), metaData.getObjectID(), response.errorBody().string());
-                throw new SyncServiceException(message);
+        return fetchObjectDataHelper(metaData, output, expected.getAlgorithm(), expected);
+    }
+
+    private DataDigest fetchObjectDataHelper(SyncServiceMetaData metaData, OutputStream output,
+            DataDigest.Algorithm algorithm, DataDigest expected) throws SyncServiceException, IOException {
+        final String METHOD = "fetchObjectData";
+        DataDigester digester = DataDigester.create(algorithm);
+        try (ResponseBody body = fetchObjectDataHelper(metaData)) {
+            Sink sink = Okio.sink(output);
+            Okio.buffer(digester.source(body.source())).readAll(sink);
+            sink.flush();
+            DataDigest actual = digester.digest();
+            if (expected != null && !expected.equals(actual)) {
+                throw new DataDigestMismatchException(expected, actual);
             }
+            return actual;
         } catch (IOException ex) {
-            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from updateObjectData", ex);
+            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from fetchObjectData", ex);
             throw ex;
         }
     }
 
     /**
-     * Fetch an object's data and return it as a byte array.
+     * Fetch an object's data and write it to a WritableByteChannel.
+     *
+     * <p>The data is streamed through a large pooled direct buffer, without holding the object on the heap.
+     *      The channel must be in blocking mode. It is not closed.
      *
      * @param metaData The metadata of the object whose data is to be fetched.
-     * @return The object's data
+     * @param channel The channel to which the object's data will be written.
+     * @return The number of bytes written to the channel.
      * @throws SyncServiceException If an error was returned from the Sync Server.
      * @throws IOException If an I/O error occurred.
      */
-    public byte[] fetchObjectData(SyncServiceMetaData metaData) throws SyncServiceException, IOException {
+    public long fetchObjectData(SyncServiceMetaData metaData, WritableByteChannel channel)
+            throws SyncServiceException, IOException {
         final String METHOD = "fetchObjectData";
-        try {
-            Response<ResponseBody> response = api.getObjectData( metaData.getObjectType(), metaData.getObjectID())
-                    .execute();
-            if (!response.isSuccessful()) {
-                String message = String.format("Failed to delete the object %s:%s:%s. Error: %s", orgID,
-                        metaData.getObjectType(), metaData.getObjectID(), response.errorBody().string());
-                response.raw().close();
-                throw new SyncServiceException(message);
-            }
-            return response.body().bytes();
+        try (ResponseBody body = fetchObjectDataHelper(metaData)) {
+            return Transfers.copy(body.source(), channel);
         } catch (IOException ex) {
             LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from fetchObjectData", ex);
             throw ex;
@@ -327,42 +1319,23 @@ public class SyncServiceClient {
     }
 
     /**
-     * Fetch an object's data and write it to a file.
+     * Request an object's data.
      *
      * @param metaData The metadata of the object whose data is to be fetched.
-     * @param file The File object of the file to which the object's data will be written.
+     * @return The body of the response, which the caller must close.
      * @throws SyncServiceException If an error was returned from the Sync Server.
      * @throws IOException If an I/O error occurred.
      */
-    public void fetchObjectData(SyncServiceMetaData metaData, File file)
+    private ResponseBody fetchObjectDataHelper(SyncServiceMetaData metaData)
             throws SyncServiceException, IOException {
-        final String METHOD = "fetchObjectData";
-        try {
-            Response<ResponseBody> response = api.getObjectData(metaData.getObjectType(), metaData.getObjectID())
-                    .execute();
-            if (!response.isSuccessful()) {
-                String message = String.format("Failed to delete the object %s:%s:%s. Error: %s", orgID,
-                        metaData.getObjectType(), metaData.getObjectID(), response.errorBody().string());
-                response.raw().close();
-                throw new SyncServiceException(message);
-            }
-            FileOutputStream fileOutStream = new FileOutputStream(file);
-            InputStream dataStream = response.body().byteStream();
-            byte[] buffer = new byte[4096];
-            while (true) {
-                int length = dataStream.read(buffer);
-                if (length == -1) {
-                    break;
-                }
-                fileOutStream.write(buffer, 0, length);
-            }
-            fileOutStream.close();
-
-            response.raw().close();
-        } catch (IOException ex) {
-            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from fetchObjectData", ex);
-            throw ex;
+        Response<ResponseBody> response = api.getObjectData(metaData.getObjectType(), metaData.getObjectID())
+                .execute();
+        if (!response.isSuccessful()) {
+            String message = String.format("Failed to fetch the data of the object %s:%s:%s. Error: %s", orgID,
+                    metaData.getObjectType(), metaData.getObjectID(), response.errorBody().string());
+            throw new SyncServiceException(message);
         }
+        return response.body();
     }
 
     /**
@@ -385,6 +1358,8 @@ public class SyncServiceClient {
         } catch (IOException ex) {
             LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from deleteObject", ex);
             throw ex;
+        } finally {
+            cache.invalidate(metaData.getObjectType(), metaData.getObjectID());
         }
     }
 
@@ -456,6 +1431,8 @@ public class SyncServiceClient {
         } catch (IOException ex) {
             LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "IOException from operationHelper", ex);
             throw ex;
+        } finally {
+            cache.invalidate(metaData.getObjectType(), metaData.getObjectID());
         }
     }
 
@@ -754,7 +1731,20 @@ public class SyncServiceClient {
         private Long readTimeoutMillis;
         private Long writeTimeoutMillis;
         private static String NEGATIVEVALUE = "Negative value";
+        private static String NONPOSITIVEVALUE = "Non-positive value";
         private Interceptor interceptor;
+        private File unixSocketFile;
+        private boolean secureUnixSocket;
+        private SyncServiceRuntime runtime;
+        private int maxConcurrentCallsPerOrg;
+        private int adaptiveInitialCallsPerOrg;
+        private int adaptiveMaxCallsPerOrg;
+        private SyncServiceMetrics metrics;
+        private RetryPolicy retryPolicy;
+        private int cacheMaxEntries;
+        private long cacheTtlMillis;
+        private boolean virtualThreads;
+        private Long compressionMinBytes;
 
         public Builder() {
             try {
@@ -775,6 +1765,35 @@ public class SyncServiceClient {
             return this;
         }
 
+        /**
+         * Connect the built {@link SyncServiceClient SyncServiceClient} object to the Sync Service over a Unix
+         *             domain socket, using plain HTTP.
+         * <p>This is equivalent to the "unix" protocol of the Go client. It is supported only when communicating
+         * with an ESS. The base URL set by {@link #withUrl(URL) withUrl} is ignored.
+         * @param socketFile The socket file the ESS listens on.
+         * @return this
+         */
+        public Builder withUnixSocket(Path socketFile) {
+            return withUnixSocket(socketFile, false);
+        }
+
+        /**
+         * Connect the built {@link SyncServiceClient SyncServiceClient} object to the Sync Service over a Unix
+         *             domain socket.
+         * <p>This is equivalent to the "unix" and "secure-unix" protocols of the Go client. It is supported only
+         * when communicating with an ESS. The base URL set by {@link #withUrl(URL) withUrl} is ignored.
+         * <p>When secure, TLS is layered over the socket. The ESS's certificate is verified for the host name
+         * localhost, using the SSLContext, X509TrustManager and HostnameVerifier set on this builder.
+         * @param socketFile The socket file the ESS listens on.
+         * @param secure If <code>true</code>, use HTTPS over the socket ("secure-unix").
+         * @return this
+         */
+        public Builder withUnixSocket(Path socketFile, boolean secure) {
+            this.unixSocketFile = socketFile.toFile();
+            this.secureUnixSocket = secure;
+            return this;
+        }
+
         /**
          * Set the app key and app secret to be used by the built {@link SyncServiceClient SyncServiceClient}
          *             object.
@@ -873,30 +1892,260 @@ public class SyncServiceClient {
             return this;
         }
 
+        /**
+         * Attach the built {@link SyncServiceClient SyncServiceClient} object to a shared
+         *            {@link SyncServiceRuntime SyncServiceRuntime}.
+         * <p>Clients attached to the same runtime share its connection pool, dispatcher, ObjectMapper and
+         * Retrofit converters. The settings of this builder are layered on top of the runtime's for the built
+         * client only. If no runtime is set, the built client gets a runtime of its own.
+         * @param runtime The runtime to attach the client to.
+         * @return this
+         */
+        public Builder withRuntime(SyncServiceRuntime runtime) {
+            this.runtime = runtime;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of calls of an organization that can be in flight at the same time.
+         * <p>Blocking calls beyond the limit wait for a call of the same organization to complete, asynchronous
+         * calls are queued. With {@link #buildMultiOrg() buildMultiOrg} each organization gets its own limit, so
+         * that one busy organization can't use up the connections and dispatcher threads shared with the others.
+         * <p>By default the number of calls is not limited.
+         * @param maxCalls The maximum number of concurrent calls per organization.
+         * @return this
+         */
+        public Builder withMaxConcurrentCallsPerOrg(int maxCalls) {
+            checkArgument(maxCalls > 0, NONPOSITIVEVALUE);
+            this.maxConcurrentCallsPerOrg = maxCalls;
+            return this;
+        }
+
+        /**
+         * Limit the number of calls of an organization that can be in flight at the same time, adapting the limit
+         *            to the capacity of the Sync Service.
+         * <p>The limit starts at <code>initialCalls</code>. It grows while the latency of the calls stays flat,
+         * and shrinks when the latency rises or calls fail with I/O errors or server errors (5xx), which are the
+         * signs of a saturated Sync Service. As with {@link #withMaxConcurrentCallsPerOrg(int)
+         * withMaxConcurrentCallsPerOrg}, blocking calls beyond the limit wait and asynchronous calls are queued,
+         * and with {@link #buildMultiOrg() buildMultiOrg} each organization adapts its own limit.
+         * <p>This replaces the fixed limit set by withMaxConcurrentCallsPerOrg.
+         * @param initialCalls The initial maximum number of concurrent calls per organization.
+         * @param maxCalls The highest the limit can grow to.
+         * @return this
+         */
+        public Builder withAdaptiveConcurrencyPerOrg(int initialCalls, int maxCalls) {
+            checkArgument(initialCalls > 0, NONPOSITIVEVALUE);
+            checkArgument(maxCalls >= initialCalls, "Maximum lower than the initial value");
+            this.adaptiveInitialCallsPerOrg = initialCalls;
+            this.adaptiveMaxCallsPerOrg = maxCalls;
+            return this;
+        }
+
+        /**
+         * Record the calls of the built {@link SyncServiceClient SyncServiceClient} object in a
+         *            {@link SyncServiceMetrics SyncServiceMetrics} object.
+         * <p>The same SyncServiceMetrics object can be passed to several builders.
+         * @param metrics The metrics to record the calls in.
+         * @return this
+         */
+        public Builder withMetrics(SyncServiceMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Retry the calls of the built {@link SyncServiceClient SyncServiceClient} object that fail, and stop
+         *            calling Sync Service endpoints that keep failing, as described by a
+         *            {@link RetryPolicy RetryPolicy}.
+         * <p>By default the calls are not retried.
+         * @param retryPolicy The retry policy.
+         * @return this
+         */
+        public Builder withRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Cache the results of {@link SyncServiceClient#getObjectMetadata(String, String) getObjectMetadata},
+         *            {@link SyncServiceClient#getObjectStatus(String, String) getObjectStatus} and
+         *            {@link SyncServiceClient#getObjectDestinations(String, String) getObjectDestinations}
+         *            in the built {@link SyncServiceClient SyncServiceClient} object.
+         * <p>A cached result is returned until it expires, or until the client itself updates, deletes or
+         * performs an operation on the object, which invalidates all the cached results of the object. Changes
+         * made by other clients are seen only once the cached results expire. When the cache is full the least
+         * recently used result is evicted.
+         * <p>Cached lists are shared by the callers and are unmodifiable. Cached metadata is copied, each caller
+         * gets its own copy. That an object was not found is cached as well.
+         * <p>Only the blocking calls read the cache. The calls of the {@link SyncServiceClient#async() async()}
+         * view invalidate it.
+         * <p>By default nothing is cached.
+         * @param maxEntries The maximum number of cached results.
+         * @param ttlMillis The time, in milli-seconds, a result is cached.
+         * @return this
+         */
+        public Builder withObjectCache(int maxEntries, long ttlMillis) {
+            checkArgument(maxEntries > 0, NONPOSITIVEVALUE);
+            checkArgument(ttlMillis > 0, NONPOSITIVEVALUE);
+            this.cacheMaxEntries = maxEntries;
+            this.cacheTtlMillis = ttlMillis;
+            return this;
+        }
+
+        /**
+         * Run the built {@link SyncServiceClient SyncServiceClient} object's work on virtual threads. Requires
+         *            Java 21 or later.
+         * <p>The update pollers, webhook receivers and acknowledgement batchers of the client run on virtual
+         * threads. Unless a runtime is set with {@link #withRuntime(SyncServiceRuntime) withRuntime}, the
+         * asynchronous calls, including those of the batch helpers, are dispatched on virtual threads as well, see
+         * {@link SyncServiceRuntime.Builder#withVirtualThreads() SyncServiceRuntime.Builder.withVirtualThreads}.
+         * <p>Blocking calls run on the calling thread. Applications that make many concurrent blocking calls can
+         * make them from virtual threads of their own: the client doesn't pin the carrier threads while a call
+         * waits for a concurrency permit or for the network.
+         * @return this
+         * @throws UnsupportedOperationException If the Java version is older than 21.
+         */
+        public Builder withVirtualThreads() {
+            if (!Threads.isVirtualSupported()) {
+                throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+            }
+            this.virtualThreads = true;
+            return this;
+        }
+
+        /**
+         * Compress the object data sent by the built {@link SyncServiceClient SyncServiceClient} object with gzip,
+         *            and ask the Sync Service to compress the object data it sends.
+         * <p>The data sent by updateObjectData is compressed when it is at least <code>minBytes</code> long,
+         * unless it looks already compressed: it starts as a known compressed format, such as gzip, zip, zstd,
+         * PNG or JPEG, or its first bytes are close to random. The compressed data is sent with chunked transfer
+         * encoding. The Sync Service must accept gzip encoded request bodies.
+         * <p>The data returned by fetchObjectData is decompressed as it is read, when the Sync Service compressed
+         * it.
+         * <p>When {@link #withMetrics(SyncServiceMetrics) withMetrics} is set, the size of the data before and
+         * after compression and the CPU time spent are recorded, see
+         * {@link OperationMetrics#getCompressionRatio() OperationMetrics.getCompressionRatio}.
+         * <p>By default the object data is not compressed.
+         * @param minBytes The size, in bytes, from which the data sent is compressed.
+         * @return this
+         */
+        public Builder withCompression(long minBytes) {
+            checkArgument(minBytes >= 0, NEGATIVEVALUE);
+            this.compressionMinBytes = minBytes;
+            return this;
+        }
+
         /**
          * Actually build the {@link SyncServiceClient SyncServiceClient} object.
          * @return A {@link SyncServiceClient SyncServiceClient} object
          */
         public SyncServiceClient build() {
-            OkHttpClient okHttpClient = createOkHttpClient();
+            return createClient(orgID, createRetrofitHelper());
+        }
+
+        /**
+         * Build a {@link MultiOrgSyncServiceClient MultiOrgSyncServiceClient} object, that serves many
+         *            organizations over the transport configured by this builder.
+         * <p>The organization ID set with {@link #withOrgID(String) withOrgID} is ignored, each call of the
+         * built client names the organization it applies to. The credentials set with
+         * {@link #withAppKeyAndAppSecret(String, String) withAppKeyAndAppSecret} are used for all of them.
+         * @return A {@link MultiOrgSyncServiceClient MultiOrgSyncServiceClient} object
+         */
+        public MultiOrgSyncServiceClient buildMultiOrg() {
+            final RetrofitHelper api = createRetrofitHelper();
+            return new MultiOrgSyncServiceClient(org -> createClient(org, api));
+        }
+
+        /**
+         * Helper method to create the Retrofit services shared by the clients built by this builder.
+         * @return A {@link RetrofitHelper RetrofitHelper}
+         */
+        private RetrofitHelper createRetrofitHelper() {
+            SyncServiceRuntime clientRuntime = runtime;
+            if (clientRuntime == null) {
+                SyncServiceRuntime.Builder runtimeBuilder = new SyncServiceRuntime.Builder();
+                if (virtualThreads) {
+                    runtimeBuilder.withVirtualThreads();
+                }
+                clientRuntime = runtimeBuilder.build();
+            }
+            Retrofit retrofit = clientRuntime.newRetrofitBuilder().baseUrl(baseUrl().toExternalForm())
+                    .client(createOkHttpClient(clientRuntime))
+                    .build();
+            return new RetrofitHelper(orgID, retrofit, clientRuntime.getObjectMapper());
+        }
+
+        /**
+         * Helper method to create the client of an organization, with its own concurrency limiter and cache.
+         * @param org The organization ID.
+         * @param api The Retrofit services shared by the clients built by this builder.
+         * @return A {@link SyncServiceClient SyncServiceClient} object
+         */
+        private SyncServiceClient createClient(String org, RetrofitHelper api) {
+            return new SyncServiceClient(org, api.forOrg(org, createLimiter()),
+                    ObjectInfoCache.create(cacheMaxEntries, cacheTtlMillis), virtualThreads);
+        }
+
+        /**
+         * Helper method to create the concurrency limiter of an organization.
+         * @return A {@link ConcurrencyLimiter ConcurrencyLimiter}, or <code>null</code> if the number of calls is
+         *            not limited
+         */
+        private ConcurrencyLimiter createLimiter() {
+            if (adaptiveMaxCallsPerOrg > 0) {
+                return new AdaptiveConcurrencyLimiter(adaptiveInitialCallsPerOrg, 1, adaptiveMaxCallsPerOrg);
+            }
+            return ConcurrencyLimiter.create(maxConcurrentCallsPerOrg);
+        }
 
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.registerModule(new Jdk8Module());
-            return new SyncServiceClient(url, orgID, mapper, okHttpClient);
+        /**
+         * Helper method to get the base URL used by the built {@link SyncServiceClient SyncServiceClient} object.
+         * Requests sent over a Unix socket are addressed to localhost, as in the Go client.
+         * @return The base URL
+         */
+        private URL baseUrl() {
+            if (unixSocketFile == null) {
+                return url;
+            }
+            try {
+                return new URL(secureUnixSocket ? "https" : DEFAULT_HTTP_PROTOCOL, DEFAULT_HTTP_HOST,
+                        DEFAULT_HTTP_PORT, "");
+            } catch (MalformedURLException e) {
+                throw new RuntimeException(e);
+            }
         }
 
         /**
          * Helper method to build the {@link okhttp3.OkHttpClient OkHttpClient} used by the built
          *       {@link SyncServiceClient SyncServiceClient} object
+         * @param runtime The runtime whose connection pool and dispatcher the OkHttpClient shares
          * @return A {@link okhttp3.OkHttpClient OkHttpClient}
          */
-        private OkHttpClient createOkHttpClient() {
-            final OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        private OkHttpClient createOkHttpClient(SyncServiceRuntime runtime) {
+            final OkHttpClient.Builder builder = runtime.newHttpClientBuilder();
+
+            if (retryPolicy != null) {
+                builder.addInterceptor(new RetryInterceptor(retryPolicy, metrics));
+            }
+
+            if (compressionMinBytes != null) {
+                builder.addInterceptor(new CompressionInterceptor(compressionMinBytes, metrics));
+            }
+
+            if (metrics != null) {
+                builder.addInterceptor(new MetricsInterceptor(metrics));
+            }
 
             if (authInterceptor != null) {
                 builder.addInterceptor(authInterceptor);
             }
 
+            if (unixSocketFile != null) {
+                builder.socketFactory(new UnixDomainSocketFactory(unixSocketFile));
+                builder.dns(UnixDomainSocketFactory.LOOPBACK_DNS);
+            }
+
             if (sslContext != null && trustManager != null) {
                 builder.sslSocketFactory(sslContext.getSocketFactory(), trustManager);
             } else if (sslContext != null) {
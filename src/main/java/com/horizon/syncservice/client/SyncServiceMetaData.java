@@ -1,5 +1,10 @@
 package com.horizon.syncservice.client;
 
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -73,6 +78,38 @@ public class SyncServiceMetaData {
 		expectedConsumers = 1;
 	}
 
+	/**
+	 * Copy the metadata, so that a cached instance is never shared with, or modified by, the callers.
+	 * @return A copy of the metadata, with its own destinations list.
+	 */
+	SyncServiceMetaData copy() {
+		SyncServiceMetaData copy = new SyncServiceMetaData();
+		copy.activationTime = activationTime;
+		copy.autoDelete = autoDelete;
+		copy.expectedConsumers = expectedConsumers;
+		copy.deleted = deleted;
+		copy.description = description;
+		copy.destinationDataUri = destinationDataUri;
+		copy.destID = destID;
+		copy.destinationOrgID = destinationOrgID;
+		copy.destinationsList = destinationsList != null ? destinationsList.clone() : null;
+		copy.destType = destType;
+		copy.doNotSend = doNotSend;
+		copy.expiration = expiration;
+		copy.inactive = inactive;
+		copy.instanceID = instanceID;
+		copy.link = link;
+		copy.metaOnly = metaOnly;
+		copy.noData = noData;
+		copy.objectID = objectID;
+		copy.objectType = objectType;
+		copy.originID = originID;
+		copy.originType = originType;
+		copy.sourceDataUri = sourceDataUri;
+		copy.version = version;
+		return copy;
+	}
+
 	/**
 	 * Get the object's automatic activation time.
 	 * <p>activationTime is a timestamp/date as to when this object should automatically be activated.
@@ -97,6 +134,17 @@ public class SyncServiceMetaData {
 		this.activationTime = activationTime;
 	}
 
+	/**
+	 * Get the object's automatic activation time as an Instant.
+	 * <p>The activation time is kept as received, and parsed at each call.
+	 * @return The object's automatic activation time, or <code>null</code> if it is not set.
+	 * @throws DateTimeParseException If the activation time is not in RFC3339 format.
+	 */
+	@JsonIgnore
+	public Instant getActivationInstant() {
+		return toInstant(activationTime);
+	}
+
 	/**
 	 * Get the object's autoDelete flag.
 	 * <p>The autodelete flag indicates whether to delete the object after it is
@@ -327,6 +375,17 @@ public class SyncServiceMetaData {
 		this.expiration = expiration;
 	}
 
+	/**
+	 * Get the object's expiration time as an Instant.
+	 * <p>The expiration time is kept as received, and parsed at each call.
+	 * @return The object's expiration time, or <code>null</code> if the object doesn't expire.
+	 * @throws DateTimeParseException If the expiration time is not in RFC3339 format.
+	 */
+	@JsonIgnore
+	public Instant getExpirationInstant() {
+		return toInstant(expiration);
+	}
+
 	/**
 	 * Get the object's inactive flag.
 	 * <p>The inactive flag indicates whether or not this object is inactive for now.
@@ -529,6 +588,14 @@ public class SyncServiceMetaData {
 		this.version = version;
 	}
 
+	private static Instant toInstant(String timestamp) {
+		if (timestamp == null || timestamp.isEmpty()) {
+			return null;
+		}
+		// Instant.parse accepts only UTC timestamps on Java 8, RFC3339 allows any offset
+		return OffsetDateTime.parse(timestamp).toInstant();
+	}
+
 	@Override
 	public String toString() {
 
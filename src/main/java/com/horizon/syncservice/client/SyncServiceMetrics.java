@@ -0,0 +1,168 @@
+package com.horizon.syncservice.client;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Latency and throughput metrics of the calls made by {@link SyncServiceClient SyncServiceClient} objects.
+ * <p>The metrics are kept for each logical operation, named after the Sync Service API it calls, for example
+ * getUpdatedObjects, getObjectData, putObjectData, objectOperation or securityUpdate.
+ * See {@link OperationMetrics OperationMetrics} for the values tracked.
+ * <p>To collect metrics, create a SyncServiceMetrics object and pass it to
+ * {@link SyncServiceClient.Builder#withMetrics(SyncServiceMetrics) SyncServiceClient.Builder.withMetrics}.
+ * The same object can be passed to several builders, to collect the metrics of several clients together.
+ * <p>When a {@link RetryPolicy RetryPolicy} is used, the retries and the calls rejected by open circuit breakers
+ * are counted as well, and the state of each circuit breaker is tracked.
+ * The metrics can be read with this class's methods, and can be published to JMX with
+ * {@link #registerMBean(String) registerMBean}.
+ */
+public class SyncServiceMetrics implements SyncServiceMetricsMXBean {
+    /** The domain of the ObjectNames of the registered MBeans. */
+    public static final String JMX_DOMAIN = "com.horizon.syncservice.client";
+
+    private final ConcurrentMap<String, OperationMetrics> operations =
+            new ConcurrentHashMap<String, OperationMetrics>();
+    private final ConcurrentMap<String, String> circuitBreakerStates = new ConcurrentHashMap<String, String>();
+    private ObjectName objectName;
+
+    /**
+     * Get the metrics of an operation.
+     * @param name The name of the operation, for example putObjectData.
+     * @return The metrics of the operation, or <code>null</code> if the operation wasn't called.
+     */
+    public OperationMetrics getOperation(String name) {
+        return operations.get(name);
+    }
+
+    /**
+     * Get the metrics of each operation that was called.
+     * @return A Map, sorted by name, from the name of each operation to its metrics.
+     */
+    @Override
+    public Map<String, OperationMetrics> getOperations() {
+        return Collections.unmodifiableMap(new TreeMap<String, OperationMetrics>(operations));
+    }
+
+    @Override
+    public long getInFlight() {
+        long total = 0;
+        for (OperationMetrics operation : operations.values()) {
+            total += operation.getInFlight();
+        }
+        return total;
+    }
+
+    @Override
+    public long getBytesUploaded() {
+        long total = 0;
+        for (OperationMetrics operation : operations.values()) {
+            total += operation.getBytesUploaded();
+        }
+        return total;
+    }
+
+    @Override
+    public long getBytesDownloaded() {
+        long total = 0;
+        for (OperationMetrics operation : operations.values()) {
+            total += operation.getBytesDownloaded();
+        }
+        return total;
+    }
+
+    @Override
+    public long getRetryCount() {
+        long total = 0;
+        for (OperationMetrics operation : operations.values()) {
+            total += operation.getRetryCount();
+        }
+        return total;
+    }
+
+    @Override
+    public long getRejectedCount() {
+        long total = 0;
+        for (OperationMetrics operation : operations.values()) {
+            total += operation.getRejectedCount();
+        }
+        return total;
+    }
+
+    /**
+     * Get the state of the circuit breaker of each endpoint family whose breaker changed state.
+     * <p>When the same SyncServiceMetrics object is used by several clients, the state is the one of the last
+     * breaker of the family that changed state.
+     * @return A Map, sorted by endpoint family, from each endpoint family to the state of its breaker: CLOSED,
+     *            OPEN or HALF_OPEN.
+     */
+    @Override
+    public Map<String, String> getCircuitBreakerStates() {
+        return Collections.unmodifiableMap(new TreeMap<String, String>(circuitBreakerStates));
+    }
+
+    /**
+     * Register the metrics as an MXBean in the platform MBean server.
+     * <p>The ObjectName of the MXBean is <code>com.horizon.syncservice.client:type=SyncServiceMetrics,name=</code>
+     * followed by the given name.
+     * @param name The name that distinguishes this object from other registered SyncServiceMetrics objects.
+     * @return The ObjectName of the registered MXBean.
+     * @throws JMException If the MXBean could not be registered, for example if the name is already used.
+     */
+    public synchronized ObjectName registerMBean(String name) throws JMException {
+        if (objectName != null) {
+            unregisterMBean();
+        }
+        ObjectName newName = new ObjectName(JMX_DOMAIN + ":type=SyncServiceMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, newName);
+        objectName = newName;
+        return objectName;
+    }
+
+    /**
+     * Unregister the MXBean registered by {@link #registerMBean(String) registerMBean}, if any.
+     * @throws JMException If the MXBean could not be unregistered.
+     */
+    public synchronized void unregisterMBean() throws JMException {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+        objectName = null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (OperationMetrics operation : getOperations().values()) {
+            result.append(operation).append('\n');
+        }
+        return result.toString();
+    }
+
+    void circuitBreakerChanged(String family, CircuitBreaker.State state) {
+        circuitBreakerStates.put(family, state.name());
+    }
+
+    OperationMetrics operation(String name) {
+        OperationMetrics operation = operations.get(name);
+        if (operation == null) {
+            OperationMetrics newOperation = new OperationMetrics(name);
+            operation = operations.putIfAbsent(name, newOperation);
+            if (operation == null) {
+                operation = newOperation;
+            }
+        }
+        return operation;
+    }
+}
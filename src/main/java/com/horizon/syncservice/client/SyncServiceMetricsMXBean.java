@@ -0,0 +1,52 @@
+package com.horizon.syncservice.client;
+
+import java.util.Map;
+
+/**
+ * The JMX management interface of {@link SyncServiceMetrics SyncServiceMetrics}.
+ * @see SyncServiceMetrics#registerMBean(String)
+ */
+public interface SyncServiceMetricsMXBean {
+
+    /**
+     * Get the number of calls in flight, for all operations.
+     * @return The number of calls in flight.
+     */
+    long getInFlight();
+
+    /**
+     * Get the number of bytes of request bodies sent, for all operations.
+     * @return The number of bytes uploaded.
+     */
+    long getBytesUploaded();
+
+    /**
+     * Get the number of bytes of response bodies read, for all operations.
+     * @return The number of bytes downloaded.
+     */
+    long getBytesDownloaded();
+
+    /**
+     * Get the number of retries, for all operations.
+     * @return The number of retries.
+     */
+    long getRetryCount();
+
+    /**
+     * Get the number of calls that were not sent because a circuit breaker was open, for all operations.
+     * @return The number of rejected calls.
+     */
+    long getRejectedCount();
+
+    /**
+     * Get the state of the circuit breaker of each endpoint family.
+     * @return A Map from each endpoint family to the state of its breaker.
+     */
+    Map<String, String> getCircuitBreakerStates();
+
+    /**
+     * Get the metrics of each operation that was called.
+     * @return A Map from the name of each operation to its metrics.
+     */
+    Map<String, OperationMetrics> getOperations();
+}
@@ -0,0 +1,232 @@
+package com.horizon.syncservice.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+import retrofit2.converter.scalars.ScalarsConverterFactory;
+
+/**
+ * The resources that can be shared by many {@link SyncServiceClient SyncServiceClient} objects.
+ * <p>A runtime holds the OkHttp connection pool and dispatcher (with its thread pool), the Jackson
+ * {@link ObjectMapper ObjectMapper} and its serializer caches, and the Retrofit converters.
+ * <p>Clients built with {@link SyncServiceClient.Builder#withRuntime(SyncServiceRuntime)
+ * SyncServiceClient.Builder.withRuntime} derive their OkHttpClient and Retrofit instances from the runtime's
+ * using <code>newBuilder()</code>, layering their own base URL, authentication, organization, TLS settings,
+ * timeouts and interceptors on top. An application that serves many organizations should create one runtime and
+ * attach all of its clients to it.
+ * <p>Note: Use the class SyncServiceRuntime.Builder to create a SyncServiceRuntime instance.
+ */
+public class SyncServiceRuntime {
+
+    private final OkHttpClient httpClient;
+    private final ObjectMapper mapper;
+    private final Retrofit retrofit;
+
+    private SyncServiceRuntime(OkHttpClient httpClient, ObjectMapper mapper) {
+        this.httpClient = httpClient;
+        this.mapper = mapper;
+        // The base URL is replaced by each client
+        this.retrofit = new Retrofit.Builder().baseUrl("http://localhost/")
+                .addConverterFactory(ScalarsConverterFactory.create())
+                .addConverterFactory(JacksonConverterFactory.create(mapper))
+                .client(httpClient)
+                .build();
+    }
+
+    /**
+     * Get the ObjectMapper shared by the clients of this runtime.
+     * @return The ObjectMapper.
+     */
+    public ObjectMapper getObjectMapper() {
+        return mapper;
+    }
+
+    /**
+     * Get the OkHttp dispatcher shared by the clients of this runtime.
+     * @return The dispatcher.
+     */
+    public Dispatcher getDispatcher() {
+        return httpClient.dispatcher();
+    }
+
+    /**
+     * Get the OkHttp connection pool shared by the clients of this runtime.
+     * @return The connection pool.
+     */
+    public ConnectionPool getConnectionPool() {
+        return httpClient.connectionPool();
+    }
+
+    /**
+     * Release the runtime's resources: stop the dispatcher's threads once the calls in progress complete, and
+     * close the idle connections. Clients attached to the runtime can not be used afterwards.
+     */
+    public void shutdown() {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+
+    OkHttpClient.Builder newHttpClientBuilder() {
+        return httpClient.newBuilder();
+    }
+
+    Retrofit.Builder newRetrofitBuilder() {
+        return retrofit.newBuilder();
+    }
+
+    /** The builder class used to create an instance of {@link SyncServiceRuntime SyncServiceRuntime} object */
+    public static class Builder {
+        private static String NEGATIVEVALUE = "Negative value";
+        private static String NONPOSITIVEVALUE = "Non-positive value";
+
+        private ExecutorService executorService;
+        private Integer maxRequests;
+        private Integer maxRequestsPerHost;
+        private Integer maxIdleConnections;
+        private Long keepAliveDurationMillis;
+        private ObjectMapper mapper;
+        private Integer maxDeduplicatedStrings;
+
+        /**
+         * Set the ExecutorService used by the dispatcher to run asynchronous calls.
+         * <p>By default the dispatcher uses an unbounded cached thread pool.
+         * @param executorService The ExecutorService.
+         * @return this
+         */
+        public Builder withExecutorService(ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
+        }
+
+        /**
+         * Run the asynchronous calls on virtual threads, one new virtual thread per call. Requires Java 21 or
+         *            later.
+         * <p>This replaces the ExecutorService set by {@link #withExecutorService(ExecutorService)
+         * withExecutorService}. The number of concurrent calls is still limited by
+         * {@link #withMaxRequests(int) withMaxRequests} and {@link #withMaxRequestsPerHost(int)
+         * withMaxRequestsPerHost}.
+         * @return this
+         * @throws UnsupportedOperationException If the Java version is older than 21.
+         */
+        public Builder withVirtualThreads() {
+            this.executorService = Threads.newVirtualThreadPerTaskExecutor("sync-service-dispatcher");
+            return this;
+        }
+
+        /**
+         * Set the maximum number of asynchronous calls to execute concurrently, across all clients.
+         * <p>The default is OkHttp's default, 64.
+         * @param maxRequests The maximum number of concurrent calls.
+         * @return this
+         */
+        public Builder withMaxRequests(int maxRequests) {
+            checkArgument(maxRequests > 0, NONPOSITIVEVALUE);
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of asynchronous calls to execute concurrently for each Sync Service host.
+         * <p>The default is OkHttp's default, 5. Applications that use the asynchronous API heavily against
+         *       a single CSS usually need a higher value.
+         * @param maxRequestsPerHost The maximum number of concurrent calls per host.
+         * @return this
+         */
+        public Builder withMaxRequestsPerHost(int maxRequestsPerHost) {
+            checkArgument(maxRequestsPerHost > 0, NONPOSITIVEVALUE);
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * Set the size and keep alive duration of the connection pool.
+         * <p>The default is OkHttp's default, 5 idle connections kept for 5 minutes.
+         * @param maxIdleConnections The maximum number of idle connections to keep.
+         * @param keepAliveDurationMillis The time, in milli-seconds, to keep an idle connection.
+         * @return this
+         */
+        public Builder withConnectionPool(int maxIdleConnections, long keepAliveDurationMillis) {
+            checkArgument(maxIdleConnections >= 0, NEGATIVEVALUE);
+            checkArgument(keepAliveDurationMillis > 0, NONPOSITIVEVALUE);
+            this.maxIdleConnections = maxIdleConnections;
+            this.keepAliveDurationMillis = keepAliveDurationMillis;
+            return this;
+        }
+
+        /**
+         * Set the ObjectMapper used to serialize and deserialize the Sync Service's JSON payloads.
+         * <p>By default an ObjectMapper with the Jdk8Module registered is used.
+         * @param mapper The ObjectMapper.
+         * @return this
+         */
+        public Builder withObjectMapper(ObjectMapper mapper) {
+            this.mapper = mapper;
+            return this;
+        }
+
+        /**
+         * Deduplicate the low-cardinality strings of the {@link SyncServiceMetaData SyncServiceMetaData} objects
+         *            received from the Sync Service.
+         * <p>The object types, destination types, destination organizations, origin types and versions are kept
+         * once in a dictionary shared by the clients of the runtime, instead of once per object. This saves most of
+         * the memory of these fields in applications that hold the metadata of many objects. The IDs, the activation
+         * and expiration times and the destinations lists, which mostly take distinct values, are not deduplicated.
+         * Once the dictionary holds maxEntries strings, new strings are no longer deduplicated, so that it doesn't
+         * grow without bounds.
+         * <p>The ObjectMapper set by {@link #withObjectMapper(ObjectMapper) withObjectMapper} is copied, not
+         * modified. By default the strings are not deduplicated.
+         * @param maxEntries The maximum number of strings in the dictionary.
+         * @return this
+         */
+        public Builder withStringDeduplication(int maxEntries) {
+            checkArgument(maxEntries > 0, NONPOSITIVEVALUE);
+            this.maxDeduplicatedStrings = maxEntries;
+            return this;
+        }
+
+        /**
+         * Actually build the {@link SyncServiceRuntime SyncServiceRuntime} object.
+         * @return A {@link SyncServiceRuntime SyncServiceRuntime} object
+         */
+        public SyncServiceRuntime build() {
+            OkHttpClient.Builder builder = new OkHttpClient.Builder();
+
+            Dispatcher dispatcher = executorService != null ? new Dispatcher(executorService) : new Dispatcher();
+            if (maxRequests != null) {
+                dispatcher.setMaxRequests(maxRequests);
+            }
+            if (maxRequestsPerHost != null) {
+                dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+            }
+            builder.dispatcher(dispatcher);
+
+            if (maxIdleConnections != null) {
+                builder.connectionPool(new ConnectionPool(maxIdleConnections, keepAliveDurationMillis,
+                        TimeUnit.MILLISECONDS));
+            }
+
+            ObjectMapper objectMapper = mapper;
+            if (objectMapper == null) {
+                objectMapper = new ObjectMapper();
+                objectMapper.registerModule(new Jdk8Module());
+            } else if (maxDeduplicatedStrings != null) {
+                objectMapper = objectMapper.copy();
+            }
+            if (maxDeduplicatedStrings != null) {
+                objectMapper.registerModule(new StringDeduplicationModule(maxDeduplicatedStrings));
+            }
+
+            return new SyncServiceRuntime(builder.build(), objectMapper);
+        }
+    }
+}
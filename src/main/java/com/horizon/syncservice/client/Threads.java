@@ -0,0 +1,55 @@
+package com.horizon.syncservice.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Internal helpers that create the threads of the library, either platform threads or virtual threads.
+ * <p>This is the Java 8 version, which supports platform threads only. The Java 21 version, in the multi-release
+ * jar, supports virtual threads as well.
+ */
+final class Threads {
+
+    private Threads() {
+    }
+
+    /**
+     * Check whether virtual threads are supported by the running Java version.
+     * @return <code>true</code> on Java 21 and later.
+     */
+    static boolean isVirtualSupported() {
+        return false;
+    }
+
+    /**
+     * Get a factory of named daemon threads.
+     * @param name The name of the threads.
+     * @param virtual If <code>true</code>, the factory creates virtual threads.
+     * @return The thread factory.
+     * @throws UnsupportedOperationException If virtual threads are requested and not supported.
+     */
+    static ThreadFactory factory(final String name, boolean virtual) {
+        if (virtual) {
+            throw unsupported();
+        }
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Create an ExecutorService that runs each task on a new virtual thread.
+     * @param name The name of the threads.
+     * @return The ExecutorService.
+     * @throws UnsupportedOperationException If virtual threads are not supported.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor(String name) {
+        throw unsupported();
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Virtual threads require Java 21 or later");
+    }
+}
@@ -0,0 +1,89 @@
+package com.horizon.syncservice.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Internal helpers for moving object data between OkHttp and NIO channels.
+ * <p>Copies go through large direct buffers that are pooled and reused across transfers, so that
+ * writing to a channel does not need an additional temporary buffer inside the JDK, and so that
+ * large objects are not copied a few kilobytes at a time.
+ */
+final class Transfers {
+    static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 16;
+
+    private static final BlockingQueue<ByteBuffer> POOL = new ArrayBlockingQueue<ByteBuffer>(MAX_POOLED_BUFFERS);
+
+    private Transfers() {
+    }
+
+    /**
+     * Copy all of the remaining bytes of a source to a channel.
+     * @param source The source to read from. It is not closed.
+     * @param channel The channel to write to. It is not closed.
+     * @return The number of bytes copied.
+     * @throws IOException If an I/O error occurred.
+     */
+    static long copy(ReadableByteChannel source, WritableByteChannel channel) throws IOException {
+        return copy(source, channel, -1);
+    }
+
+    /**
+     * Copy a number of bytes of a source to a channel.
+     * @param source The source to read from. It is not closed, and is not read past the bytes copied.
+     * @param channel The channel to write to. It is not closed.
+     * @param byteCount The number of bytes to copy, or -1 to copy all of the remaining bytes.
+     * @return The number of bytes copied.
+     * @throws EOFException If the source ended before byteCount bytes were copied.
+     * @throws IOException If an I/O error occurred.
+     */
+    static long copy(ReadableByteChannel source, WritableByteChannel channel, long byteCount) throws IOException {
+        ByteBuffer buffer = acquire();
+        try {
+            long count = 0;
+            boolean eof = false;
+            while (!eof && (byteCount < 0 || count < byteCount)) {
+                // Cast, so that the class links against Java 8's Buffer.flip()/clear()/limit(int)
+                if (byteCount >= 0) {
+                    ((Buffer) buffer).limit((int) Math.min(buffer.capacity(), byteCount - count));
+                }
+                // Fill the whole buffer before writing, the source returns at most a segment per read
+                while (buffer.hasRemaining()) {
+                    if (source.read(buffer) == -1) {
+                        eof = true;
+                        break;
+                    }
+                }
+                ((Buffer) buffer).flip();
+                while (buffer.hasRemaining()) {
+                    count += channel.write(buffer);
+                }
+                ((Buffer) buffer).clear();
+            }
+            if (byteCount >= 0 && count < byteCount) {
+                throw new EOFException(String.format("Expected %d bytes, the source ended after %d", byteCount,
+                        count));
+            }
+            return count;
+        } finally {
+            release(buffer);
+        }
+    }
+
+    static ByteBuffer acquire() {
+        ByteBuffer buffer = POOL.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    static void release(ByteBuffer buffer) {
+        ((Buffer) buffer).clear();
+        POOL.offer(buffer);
+    }
+}
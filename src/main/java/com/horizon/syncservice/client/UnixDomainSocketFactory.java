@@ -0,0 +1,103 @@
+package com.horizon.syncservice.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+
+import javax.net.SocketFactory;
+
+import jnr.unixsocket.UnixSocket;
+import jnr.unixsocket.UnixSocketAddress;
+import jnr.unixsocket.UnixSocketChannel;
+import okhttp3.Dns;
+
+/**
+ * An internal {@link SocketFactory SocketFactory} that connects every socket to a Unix domain socket file,
+ * ignoring the TCP address OkHttp asks it to connect to.
+ * <p>Used when the Sync Service (an ESS) listens on a Unix socket. OkHttp still builds requests for the
+ * client's base URL (localhost), and for secure connections layers TLS over the returned socket as usual.
+ */
+class UnixDomainSocketFactory extends SocketFactory {
+    private final File socketFile;
+
+    UnixDomainSocketFactory(File socketFile) {
+        this.socketFile = socketFile;
+    }
+
+    @Override
+    public Socket createSocket() throws IOException {
+        return new TunnelingUnixSocket(socketFile, UnixSocketChannel.open());
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        Socket socket = createSocket();
+        socket.connect(new InetSocketAddress(host, port));
+        return socket;
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+        return createSocket(host, port);
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        Socket socket = createSocket();
+        socket.connect(new InetSocketAddress(host, port));
+        return socket;
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port, InetAddress localAddress, int localPort)
+            throws IOException {
+        return createSocket(host, port);
+    }
+
+    /**
+     * A {@link Dns Dns} that resolves every host name to the loopback address without a lookup.
+     * The address is only used to key OkHttp's connection pool, the connection itself goes to the socket file.
+     */
+    static final Dns LOOPBACK_DNS = new Dns() {
+        @Override
+        public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+            return Collections.singletonList(InetAddress.getByAddress(hostname, new byte[] { 127, 0, 0, 1 }));
+        }
+    };
+
+    /**
+     * A Unix socket that remembers the TCP address it was asked to connect to, as OkHttp expects to
+     * find it on the connected socket.
+     */
+    private static final class TunnelingUnixSocket extends UnixSocket {
+        private final File socketFile;
+        private InetSocketAddress inetSocketAddress;
+
+        TunnelingUnixSocket(File socketFile, UnixSocketChannel channel) {
+            super(channel);
+            this.socketFile = socketFile;
+        }
+
+        @Override
+        public void connect(SocketAddress endpoint) throws IOException {
+            connect(endpoint, 0);
+        }
+
+        @Override
+        public void connect(SocketAddress endpoint, int timeout) throws IOException {
+            this.inetSocketAddress = (InetSocketAddress) endpoint;
+            super.connect(new UnixSocketAddress(socketFile), timeout);
+        }
+
+        @Override
+        public InetAddress getInetAddress() {
+            return inetSocketAddress == null ? null : inetSocketAddress.getAddress();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.horizon.syncservice.client;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Periodically polls the Sync Service for updates of a specific object type and delivers each update once.
+ * <p>The first poll also returns objects that were already marked as received, so that an application that
+ * restarts gets all of the objects it has not consumed yet. Subsequent polls return only objects that were not
+ * marked as received.
+ * <p>An object is delivered again only after it disappeared from the Sync Service's list of updates, when a
+ * new instance of it (or its deletion) appears, or on the next poll if the handler threw an exception for it.
+ * To track the objects that are in flight, the poller keeps one 64 bit hash of
+ * (objectType, objectID, instanceID, deleted) per object instead of a String key.
+ * <p>Note: Use {@link SyncServiceClient#startPollingForUpdates(String, long, Consumer)
+ * SyncServiceClient.startPollingForUpdates} to create a poller.
+ */
+public class UpdatesPoller {
+
+    private static final String CLASS_NAME = UpdatesPoller.class.getName();
+    private static final Logger LOGGER = Logger.getLogger(CLASS_NAME);
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final SyncServiceClient client;
+    private final String objectType;
+    private final Consumer<SyncServiceMetaData> handler;
+    private final ScheduledExecutorService executor;
+
+    private LongHashSet inflightUpdates = new LongHashSet();
+    private LongHashSet previousInflightUpdates = new LongHashSet();
+    private boolean firstPoll;
+
+    UpdatesPoller(SyncServiceClient client, String objectType, long rateMillis,
+            Consumer<SyncServiceMetaData> handler) {
+        this(client, objectType, rateMillis, handler, true);
+    }
+
+    /**
+     * Constructor
+     * @param client The client to poll with.
+     * @param objectType The object type whose updates are polled for.
+     * @param rateMillis The period, in milli-seconds, between poll requests.
+     * @param handler The handler the updates are passed to.
+     * @param includeReceived When true, the first poll also returns the objects that were marked as received.
+     */
+    UpdatesPoller(SyncServiceClient client, String objectType, long rateMillis,
+            Consumer<SyncServiceMetaData> handler, boolean includeReceived) {
+        this.client = client;
+        this.firstPoll = includeReceived;
+        this.objectType = objectType;
+        this.handler = handler;
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                client.threadFactory("sync-service-poller-" + objectType));
+        executor.scheduleWithFixedDelay(this::poll, 0, rateMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the object type whose updates are polled for.
+     * @return The object type whose updates are polled for.
+     */
+    public String getObjectType() {
+        return objectType;
+    }
+
+    /**
+     * Check whether the poller is still polling.
+     * @return <code>true</code> if {@link #stop() stop} has not been called.
+     */
+    public boolean isRunning() {
+        return !executor.isShutdown();
+    }
+
+    /**
+     * Stop polling for updates. A poll that is in progress is interrupted, including a handler that waits, for
+     * example for room in a full queue.
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Perform a single poll and deliver the new updates. Only called on the poller's thread.
+     */
+    void poll() {
+        final String METHOD = "poll";
+        List<SyncServiceMetaData> objects;
+        try {
+            objects = client.getUpdatedObjects(objectType, firstPoll);
+        } catch (SyncServiceException | IOException ex) {
+            if (isRunning()) {
+                LOGGER.logp(Level.WARNING, CLASS_NAME, METHOD, "Failed to poll for updates of " + objectType, ex);
+            }
+            return;
+        }
+        firstPoll = false;
+
+        // Rebuild the set of inflight objects, dropping all that aren't in the current poll,
+        // reusing the set of the poll before the previous one to avoid reallocating it.
+        LongHashSet previous = inflightUpdates;
+        LongHashSet current = previousInflightUpdates;
+        current.clear(objects == null ? 0 : objects.size());
+
+        if (objects != null) {
+            boolean interrupted = false;
+            for (SyncServiceMetaData object : objects) {
+                long inflightKey = inflightKey(object);
+                if (!previous.contains(inflightKey)) {
+                    if (interrupted) {
+                        continue;
+                    }
+                    if (!deliver(object)) {
+                        // Don't track an update the handler failed on, so that it is delivered again
+                        continue;
+                    }
+                    if (Thread.currentThread().isInterrupted()) {
+                        // The handler may have dropped the update, such as a queue interrupted while waiting
+                        // for room: don't track it, so that it is delivered again if polling goes on
+                        interrupted = true;
+                        continue;
+                    }
+                }
+                current.add(inflightKey);
+            }
+        }
+
+        inflightUpdates = current;
+        previousInflightUpdates = previous;
+    }
+
+    private boolean deliver(SyncServiceMetaData object) {
+        final String METHOD = "deliver";
+        try {
+            handler.accept(object);
+            return true;
+        } catch (RuntimeException ex) {
+            LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "Update handler failed for " + object.getObjectType() +
+                    ":" + object.getObjectID(), ex);
+            return false;
+        }
+    }
+
+    /**
+     * Compute the key under which an object is tracked while it is in flight.
+     * @param object The metadata of the object.
+     * @return A 64 bit hash of the object's type, ID, instance ID and deleted flag.
+     */
+    static long inflightKey(SyncServiceMetaData object) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, object.getObjectType());
+        hash = hash(hash, object.getObjectID());
+        hash = (hash ^ object.getInstanceID()) * FNV_PRIME;
+        hash = (hash ^ (object.isDeleted() ? 1 : 0)) * FNV_PRIME;
+        return LongHashSet.mix(hash);
+    }
+
+    private static long hash(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+        }
+        // Separator, so that ("ab", "c") and ("a", "bc") differ
+        return (hash ^ 0xffff) * FNV_PRIME;
+    }
+}
@@ -0,0 +1,251 @@
+package com.horizon.syncservice.client;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An internal, demand-driven stream of the updates of objects of a specific object type.
+ * <p>The Sync Service is polled with the asynchronous client, only while the subscriber requested more updates than
+ * were passed to it, and no more often than the poll interval. The updates of a poll that exceed the demand are
+ * kept until they are requested, and the next poll is made once they are all passed on. No thread is blocked
+ * while a poll is in flight, and cancelling the stream cancels the poll's HTTP call.
+ * <p>Updates are deduplicated as by {@link UpdatesPoller UpdatesPoller}: an object is passed on again only after it
+ * disappeared from the Sync Service's list of updates, or when a new instance of it (or its deletion) appears.
+ * Failed polls are logged and retried after the poll interval, the stream never completes on its own.
+ * <p>The signals are serialized, {@link Sink#onNext(SyncServiceMetaData) onNext} is never called concurrently.
+ * This class holds the logic of the Java 9 <code>UpdatesPublisher</code>, a
+ * <code>java.util.concurrent.Flow.Publisher</code>, while compiling for Java 8.
+ */
+class UpdatesSubscription {
+
+    private static final String CLASS_NAME = UpdatesSubscription.class.getName();
+    private static final Logger LOGGER = Logger.getLogger(CLASS_NAME);
+
+    /** Starts the delayed polls of all the subscriptions. The polls themselves run on the OkHttp dispatcher. */
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sync-service-updates-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Receives the signals of a subscription. */
+    interface Sink {
+        void onNext(SyncServiceMetaData object);
+
+        void onError(Throwable error);
+    }
+
+    private final SyncServiceAsyncClient client;
+    private final String objectType;
+    private final long pollIntervalNanos;
+    private final Sink sink;
+
+    private final Deque<SyncServiceMetaData> buffer = new ArrayDeque<SyncServiceMetaData>();
+    private LongHashSet inflightUpdates = new LongHashSet();
+    private LongHashSet previousInflightUpdates = new LongHashSet();
+    private boolean firstPoll = true;
+    private long demand;
+    private long lastPollNanos;
+    private CompletableFuture<List<SyncServiceMetaData>> pollInFlight;
+    private ScheduledFuture<?> scheduledPoll;
+    private Throwable error;
+    private boolean cancelled;
+    private boolean draining;
+    private boolean missedDrain;
+
+    /**
+     * Constructor
+     * @param client The client to poll with.
+     * @param objectType The object type whose updates are streamed.
+     * @param pollIntervalMillis The shortest time, in milli-seconds, between the starts of two polls.
+     * @param sink The receiver of the signals.
+     */
+    UpdatesSubscription(SyncServiceAsyncClient client, String objectType, long pollIntervalMillis, Sink sink) {
+        this.client = client;
+        this.objectType = objectType;
+        this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis);
+        this.sink = sink;
+        this.lastPollNanos = System.nanoTime() - pollIntervalNanos;
+    }
+
+    /**
+     * Add to the number of updates the subscriber is ready to receive.
+     * @param n The number of updates. A non-positive number fails the stream with an IllegalArgumentException.
+     */
+    void request(long n) {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            if (n <= 0) {
+                error = new IllegalArgumentException("Non-positive request: " + n);
+            } else {
+                demand += n;
+                if (demand < 0) {
+                    demand = Long.MAX_VALUE;
+                }
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Stop the stream: cancel the poll in flight and drop the buffered updates. No signal follows.
+     */
+    void cancel() {
+        CompletableFuture<List<SyncServiceMetaData>> poll;
+        ScheduledFuture<?> scheduled;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            buffer.clear();
+            poll = pollInFlight;
+            scheduled = scheduledPoll;
+            pollInFlight = null;
+            scheduledPoll = null;
+        }
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        if (poll != null) {
+            poll.cancel(true);
+        }
+    }
+
+    /**
+     * Pass the buffered updates on while there is demand, and start a poll when they run out. Only one thread
+     * drains at a time, a thread that finds another one draining makes it loop once more.
+     */
+    private void drain() {
+        final String METHOD = "drain";
+        synchronized (this) {
+            if (draining) {
+                missedDrain = true;
+                return;
+            }
+            draining = true;
+        }
+        while (true) {
+            SyncServiceMetaData next;
+            Throwable failure = null;
+            synchronized (this) {
+                next = null;
+                if (cancelled) {
+                    draining = false;
+                    return;
+                }
+                if (error != null) {
+                    failure = error;
+                } else if (demand > 0 && !buffer.isEmpty()) {
+                    next = buffer.pollFirst();
+                    if (demand != Long.MAX_VALUE) {
+                        demand--;
+                    }
+                } else {
+                    if (demand > 0 && pollInFlight == null && scheduledPoll == null) {
+                        schedulePoll();
+                    }
+                    if (!missedDrain) {
+                        draining = false;
+                        return;
+                    }
+                    missedDrain = false;
+                    continue;
+                }
+            }
+
+            if (failure != null) {
+                cancel();
+                sink.onError(failure);
+                return;
+            }
+            try {
+                sink.onNext(next);
+            } catch (RuntimeException ex) {
+                LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "Subscriber failed for " + next.getObjectType()
+                        + ":" + next.getObjectID() + ", cancelling the subscription", ex);
+                cancel();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Start a poll, now or once the poll interval elapsed. Must be called while draining and holding the
+     * subscription's lock.
+     */
+    private void schedulePoll() {
+        long delayNanos = pollIntervalNanos - (System.nanoTime() - lastPollNanos);
+        if (delayNanos <= 0) {
+            startPoll();
+        } else {
+            scheduledPoll = SCHEDULER.schedule(() -> {
+                synchronized (this) {
+                    scheduledPoll = null;
+                }
+                drain();
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Must be called while draining and holding the subscription's lock.
+     */
+    private void startPoll() {
+        lastPollNanos = System.nanoTime();
+        final CompletableFuture<List<SyncServiceMetaData>> poll = client.getUpdatedObjects(objectType, firstPoll);
+        pollInFlight = poll;
+        // Completes on another thread, or right away if the call failed before it was enqueued
+        poll.whenComplete((objects, failure) -> pollCompleted(poll, objects, failure));
+    }
+
+    private void pollCompleted(CompletableFuture<List<SyncServiceMetaData>> poll, List<SyncServiceMetaData> objects,
+            Throwable failure) {
+        final String METHOD = "pollCompleted";
+        synchronized (this) {
+            if (pollInFlight != poll) {
+                return;
+            }
+            pollInFlight = null;
+            if (failure != null) {
+                LOGGER.logp(Level.WARNING, CLASS_NAME, METHOD, "Failed to poll for updates of " + objectType,
+                        failure);
+            } else {
+                firstPoll = false;
+                addNewUpdates(objects);
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Buffer the updates of a poll that weren't passed on yet. Must be called while holding the subscription's
+     * lock.
+     */
+    private void addNewUpdates(List<SyncServiceMetaData> objects) {
+        LongHashSet previous = inflightUpdates;
+        LongHashSet current = previousInflightUpdates;
+        current.clear(objects == null ? 0 : objects.size());
+        if (objects != null) {
+            for (SyncServiceMetaData object : objects) {
+                long inflightKey = UpdatesPoller.inflightKey(object);
+                if (!previous.contains(inflightKey)) {
+                    buffer.addLast(object);
+                }
+                current.add(inflightKey);
+            }
+        }
+        inflightUpdates = current;
+        previousInflightUpdates = previous;
+    }
+}
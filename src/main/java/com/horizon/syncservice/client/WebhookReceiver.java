@@ -0,0 +1,456 @@
+package com.horizon.syncservice.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Receives the Sync Service's webhook notifications about updated objects of a specific object type, and passes
+ * them to a handler.
+ * <p>The receiver is a small HTTP server, built on the JDK's <code>com.sun.net.httpserver</code>, that registers
+ * itself as a webhook with {@link SyncServiceClient#registerWebHook(String, URL) registerWebHook} when started, and
+ * deletes the webhook when stopped. Each notification carries the metadata of an updated object, which is passed
+ * to the handler without waiting for a poll.
+ * <p>The notifications are queued and passed to the handler, in the order they arrived, on a single delivery
+ * thread. The server has a bounded number of threads, and when the queue is full a notification waits for room
+ * for a few seconds and is then rejected with a 503 response, so that a slow handler pushes back on the Sync
+ * Service instead of exhausting memory.
+ * <p>When no notification arrived for the quiet period, the webhook may have been lost, for example if the Sync
+ * Service restarted, or a notification was rejected. The receiver then registers the webhook again and falls back
+ * to polling with {@link SyncServiceClient#getUpdatedObjects(String, boolean) getUpdatedObjects}, passing the
+ * polled updates to the same handler through the same queue. While it polls, the receiver retries the registration
+ * until it succeeds. Polling stops as soon as a notification arrives.
+ * <p>An update can be passed to the handler twice, once from a notification and once from a poll, around the
+ * switches between the two. Handlers should expect this, the instance ID of the metadata identifies an update.
+ * <p>Note: Use {@link SyncServiceClient#webhookReceiver(String) SyncServiceClient.webhookReceiver} to create a
+ * WebhookReceiver.Builder, and {@link Builder#start(Consumer) start} to create and start a WebhookReceiver.
+ */
+public class WebhookReceiver {
+
+    private static final String CLASS_NAME = WebhookReceiver.class.getName();
+    private static final Logger LOGGER = Logger.getLogger(CLASS_NAME);
+
+    /** The time a notification waits for room in a full queue before it is rejected. */
+    private static final long OFFER_TIMEOUT_MILLIS = 5000;
+
+    private final SyncServiceClient client;
+    private final ObjectMapper mapper;
+    private final String objectType;
+    private final Consumer<SyncServiceMetaData> handler;
+    private final long quietPeriodNanos;
+    private final long pollingRateMillis;
+    private final HttpServer server;
+    private final ThreadPoolExecutor serverExecutor;
+    private final ScheduledExecutorService watchdog;
+    private final BlockingQueue<SyncServiceMetaData> updates;
+    private final Thread deliveryThread;
+    private final URL callbackUrl;
+
+    private volatile long lastNotificationNanos;
+    private volatile boolean running = true;
+    /** Whether the last registration of the webhook succeeded. */
+    private volatile boolean registered = true;
+    private UpdatesPoller poller;
+
+    private WebhookReceiver(Builder builder, Consumer<SyncServiceMetaData> handler)
+            throws SyncServiceException, IOException {
+        this.client = builder.client;
+        this.mapper = builder.mapper;
+        this.objectType = builder.objectType;
+        this.handler = handler;
+        this.quietPeriodNanos = TimeUnit.MILLISECONDS.toNanos(builder.quietPeriodMillis);
+        this.pollingRateMillis = builder.pollingRateMillis;
+        this.updates = new ArrayBlockingQueue<SyncServiceMetaData>(builder.queueCapacity);
+
+        // When all the server threads are busy and their queue is full, the server's dispatcher thread handles
+        // the notification itself, and stops accepting connections meanwhile
+        this.serverExecutor = new ThreadPoolExecutor(builder.serverThreads, builder.serverThreads, 0,
+                TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(builder.serverThreads * 4),
+                client.threadFactory("sync-service-webhook-" + objectType), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.server = HttpServer.create(builder.address, 0);
+        server.createContext(builder.path, this::handle);
+        server.setExecutor(serverExecutor);
+        server.start();
+        this.callbackUrl = builder.callbackUrl != null ? builder.callbackUrl
+                : callbackUrl(server.getAddress(), builder.path);
+
+        this.deliveryThread = client.threadFactory("sync-service-webhook-delivery-" + objectType)
+                .newThread(this::deliverUpdates);
+        deliveryThread.start();
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(
+                client.threadFactory("sync-service-webhook-watchdog-" + objectType));
+
+        try {
+            client.registerWebHook(objectType, callbackUrl);
+        } catch (SyncServiceException | IOException ex) {
+            running = false;
+            stopServer();
+            deliveryThread.interrupt();
+            throw ex;
+        }
+        lastNotificationNanos = System.nanoTime();
+        long checkMillis = Math.max(1, Math.min(builder.quietPeriodMillis / 4, 1000));
+        watchdog.scheduleWithFixedDelay(this::checkQuiet, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the object type whose updates are received.
+     * @return The object type whose updates are received.
+     */
+    public String getObjectType() {
+        return objectType;
+    }
+
+    /**
+     * Get the address the receiver's HTTP server is bound to.
+     * @return The address, with the actual port if an ephemeral port was requested.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Get the URL registered as the webhook.
+     * @return The webhook URL.
+     */
+    public URL getCallbackUrl() {
+        return callbackUrl;
+    }
+
+    /**
+     * Check whether the receiver fell back to polling because no notification arrived for the quiet period.
+     * @return <code>true</code> if the receiver is polling for updates.
+     */
+    public synchronized boolean isPolling() {
+        return poller != null;
+    }
+
+    /**
+     * Check whether the receiver is still running.
+     * @return <code>true</code> if {@link #stop() stop} has not been called.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop receiving updates: delete the webhook, stop polling, and stop the HTTP server. The updates that are
+     * queued are dropped, an update that is being passed to the handler is allowed to complete.
+     */
+    public void stop() {
+        final String METHOD = "stop";
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            stopPolling();
+        }
+        watchdog.shutdown();
+        try {
+            client.deleteWebHook(objectType, callbackUrl);
+        } catch (SyncServiceException | IOException ex) {
+            LOGGER.logp(Level.WARNING, CLASS_NAME, METHOD, "Failed to delete the webhook " + callbackUrl, ex);
+        }
+        stopServer();
+        deliveryThread.interrupt();
+    }
+
+    private void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdown();
+        watchdog.shutdown();
+    }
+
+    /**
+     * Handle a webhook notification. Called on the HTTP server's threads.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        final String METHOD = "handle";
+        try {
+            if (!exchange.getRequestMethod().equals("POST") && !exchange.getRequestMethod().equals("PUT")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            List<SyncServiceMetaData> objects;
+            try (InputStream body = exchange.getRequestBody()) {
+                objects = parse(body);
+            } catch (IOException ex) {
+                LOGGER.logp(Level.WARNING, CLASS_NAME, METHOD, "Invalid webhook notification", ex);
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+
+            notificationReceived();
+            for (SyncServiceMetaData object : objects) {
+                if (object.getObjectType() != null && !object.getObjectType().equals(objectType)) {
+                    continue;
+                }
+                if (!updates.offer(object, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    LOGGER.logp(Level.WARNING, CLASS_NAME, METHOD, "The queue of updates of " + objectType
+                            + " is full, rejected the notification of " + object.getObjectID());
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+            }
+            exchange.sendResponseHeaders(204, -1);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(503, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Parse a notification, which holds the metadata of an object or an array of them.
+     */
+    private List<SyncServiceMetaData> parse(InputStream body) throws IOException {
+        JsonNode tree = mapper.readTree(body);
+        List<SyncServiceMetaData> objects = new ArrayList<SyncServiceMetaData>();
+        if (tree == null || tree.isNull() || tree.isMissingNode()) {
+            return objects;
+        }
+        if (tree.isArray()) {
+            for (JsonNode node : tree) {
+                objects.add(mapper.treeToValue(node, SyncServiceMetaData.class));
+            }
+        } else {
+            objects.add(mapper.treeToValue(tree, SyncServiceMetaData.class));
+        }
+        return objects;
+    }
+
+    private synchronized void notificationReceived() {
+        lastNotificationNanos = System.nanoTime();
+        registered = true;
+        stopPolling();
+    }
+
+    /**
+     * Fall back to polling if no notification arrived for the quiet period, and retry the registration of the
+     * webhook while polling until it succeeds. Called on the watchdog thread.
+     */
+    private void checkQuiet() {
+        final String METHOD = "checkQuiet";
+        if (System.nanoTime() - lastNotificationNanos < quietPeriodNanos) {
+            return;
+        }
+        if (isPolling()) {
+            if (!registered) {
+                register(Level.FINE);
+            }
+            return;
+        }
+        LOGGER.logp(Level.INFO, CLASS_NAME, METHOD, "No webhook notification of " + objectType
+                + " for the quiet period, polling for updates");
+        register(Level.WARNING);
+        synchronized (this) {
+            if (running && poller == null && System.nanoTime() - lastNotificationNanos >= quietPeriodNanos) {
+                poller = new UpdatesPoller(client, objectType, pollingRateMillis, this::enqueuePolled, false);
+            }
+        }
+    }
+
+    /**
+     * Register the webhook again.
+     * @param failureLevel The level at which a failure is logged.
+     */
+    private void register(Level failureLevel) {
+        final String METHOD = "register";
+        try {
+            client.registerWebHook(objectType, callbackUrl);
+            registered = true;
+        } catch (SyncServiceException | IOException ex) {
+            registered = false;
+            LOGGER.logp(failureLevel, CLASS_NAME, METHOD, "Failed to register the webhook " + callbackUrl, ex);
+        }
+    }
+
+    /**
+     * Must be called while holding the receiver's lock.
+     */
+    private void stopPolling() {
+        if (poller != null) {
+            poller.stop();
+            poller = null;
+        }
+    }
+
+    /**
+     * Queue an update found by a poll, waiting for room, which pauses polling meanwhile.
+     */
+    private void enqueuePolled(SyncServiceMetaData object) {
+        try {
+            updates.put(object);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Pass the queued updates to the handler. Runs on the delivery thread.
+     */
+    private void deliverUpdates() {
+        final String METHOD = "deliverUpdates";
+        while (running) {
+            SyncServiceMetaData object;
+            try {
+                object = updates.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                handler.accept(object);
+            } catch (RuntimeException ex) {
+                LOGGER.logp(Level.SEVERE, CLASS_NAME, METHOD, "Update handler failed for " + object.getObjectType()
+                        + ":" + object.getObjectID(), ex);
+            }
+        }
+    }
+
+    private static URL callbackUrl(InetSocketAddress address, String path) throws IOException {
+        InetAddress host = address.getAddress();
+        if (host.isAnyLocalAddress()) {
+            host = InetAddress.getLocalHost();
+        }
+        try {
+            return new URL("http", host.getHostAddress(), address.getPort(), path);
+        } catch (MalformedURLException ex) {
+            throw new IOException("Can't build the webhook URL of " + address, ex);
+        }
+    }
+
+    /** The builder class used to create and start an instance of {@link WebhookReceiver WebhookReceiver} */
+    public static class Builder {
+        private static String NONPOSITIVEVALUE = "Non-positive value";
+
+        private final SyncServiceClient client;
+        private final ObjectMapper mapper;
+        private final String objectType;
+        private InetSocketAddress address = new InetSocketAddress(0);
+        private String path;
+        private URL callbackUrl;
+        private int serverThreads = 2;
+        private int queueCapacity = 1000;
+        private long quietPeriodMillis = 300000;
+        private long pollingRateMillis = 10000;
+
+        Builder(SyncServiceClient client, ObjectMapper mapper, String objectType) {
+            this.client = client;
+            this.mapper = mapper;
+            this.objectType = objectType;
+            this.path = "/webhooks/" + objectType;
+        }
+
+        /**
+         * Set the address the receiver's HTTP server listens on.
+         * <p>By default the server listens on an ephemeral port of all the local addresses.
+         * @param address The address, with a port of 0 for an ephemeral port.
+         * @return this
+         */
+        public Builder withAddress(InetSocketAddress address) {
+            this.address = address;
+            return this;
+        }
+
+        /**
+         * Set the path of the webhook on the receiver's HTTP server.
+         * <p>The default is <code>/webhooks/</code> followed by the object type.
+         * @param path The path, starting with a /.
+         * @return this
+         */
+        public Builder withPath(String path) {
+            checkArgument(path.startsWith("/"), "Path not starting with /");
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * Set the URL registered as the webhook, when the Sync Service reaches the receiver through a different
+         *            address than the one it listens on, for example through a proxy or a NAT.
+         * <p>By default the URL is made of the server's address and port, with a local address of the host if the
+         * server listens on all of them, and the path.
+         * @param callbackUrl The webhook URL.
+         * @return this
+         */
+        public Builder withCallbackUrl(URL callbackUrl) {
+            this.callbackUrl = callbackUrl;
+            return this;
+        }
+
+        /**
+         * Set the number of threads of the receiver's HTTP server.
+         * <p>The default is 2.
+         * @param serverThreads The number of threads.
+         * @return this
+         */
+        public Builder withServerThreads(int serverThreads) {
+            checkArgument(serverThreads > 0, NONPOSITIVEVALUE);
+            this.serverThreads = serverThreads;
+            return this;
+        }
+
+        /**
+         * Set the number of updates that can be queued for the handler.
+         * <p>The default is 1000.
+         * @param queueCapacity The capacity of the queue.
+         * @return this
+         */
+        public Builder withQueueCapacity(int queueCapacity) {
+            checkArgument(queueCapacity > 0, NONPOSITIVEVALUE);
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Set when the receiver falls back to polling, and how often it then polls.
+         * <p>The default is to poll every 10 seconds after 5 minutes without a notification.
+         * @param quietPeriodMillis The time, in milli-seconds, without a notification after which the receiver
+         *            falls back to polling.
+         * @param pollingRateMillis The period, in milli-seconds, between poll requests.
+         * @return this
+         */
+        public Builder withPollingFallback(long quietPeriodMillis, long pollingRateMillis) {
+            checkArgument(quietPeriodMillis > 0, NONPOSITIVEVALUE);
+            checkArgument(pollingRateMillis > 0, NONPOSITIVEVALUE);
+            this.quietPeriodMillis = quietPeriodMillis;
+            this.pollingRateMillis = pollingRateMillis;
+            return this;
+        }
+
+        /**
+         * Start the HTTP server, register the webhook, and start passing the updates to a handler.
+         * @param handler The handler the updates are passed to, on the receiver's delivery thread.
+         * @return The {@link WebhookReceiver WebhookReceiver}, used to stop receiving updates.
+         * @throws SyncServiceException If an error was returned from the Sync Service when registering the
+         *            webhook.
+         * @throws IOException If the HTTP server could not be started, or an I/O error occurred when
+         *            registering the webhook.
+         */
+        public WebhookReceiver start(Consumer<SyncServiceMetaData> handler) throws SyncServiceException, IOException {
+            return new WebhookReceiver(this, handler);
+        }
+    }
+}
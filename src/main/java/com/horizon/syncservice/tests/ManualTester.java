@@ -2,6 +2,8 @@ package com.horizon.syncservice.tests;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,7 +20,7 @@ import org.apache.commons.cli.ParseException;
 
 public class ManualTester {
     private enum Tests {
-        HELP, OBJSTATUS, RESEND, SECURITY
+        HELP, LATENCY, OBJSTATUS, RESEND, SECURITY
     }
 
     private Tests test;
@@ -35,6 +37,8 @@ public class ManualTester {
     private String serverAddress;
     private String appKey;
     private String appSecret;
+    private String socketFile;
+    private int iterations;
 
     public static void main(String[] argv) {
         ManualTester tester = new ManualTester();
@@ -54,6 +58,9 @@ public class ManualTester {
                     showUsage();
                     return 0;
 
+                case LATENCY:
+                    return runLatencyTest();
+
                 case OBJSTATUS:
                     return runObjectStatusTest();
 
@@ -80,6 +87,47 @@ public class ManualTester {
         return 0;
     }
 
+    private int runLatencyTest() throws Exception {
+        SyncServiceClient tcpClient = createSyncServiceClient();
+        SyncServiceClient socketClient = new SyncServiceClient.Builder()
+           .withUnixSocket(Paths.get(socketFile), serverProtocol.equals("https"))
+           .withAppKeyAndAppSecret(appKey, appSecret)
+           .withOrgID(orgID)
+           .build();
+
+        // Warm up both clients (connections, TLS sessions, JIT) before measuring
+        measureLatency(tcpClient, Math.min(iterations, 1000));
+        measureLatency(socketClient, Math.min(iterations, 1000));
+
+        printLatency(serverProtocol + "://" + serverAddress, measureLatency(tcpClient, iterations));
+        printLatency(serverProtocol.equals("https") ? "secure-unix:" + socketFile : "unix:" + socketFile,
+                measureLatency(socketClient, iterations));
+        return 0;
+    }
+
+    private long[] measureLatency(SyncServiceClient syncClient, int count) throws Exception {
+        long[] latencies = new long[count];
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            syncClient.getObjectStatus(objectType, objectID);
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    private void printLatency(String transport, long[] latencies) {
+        Arrays.sort(latencies);
+        long total = 0;
+        for (long latency : latencies) {
+            total += latency;
+        }
+        System.out.format("%-40s mean %8.1fus  p50 %8.1fus  p90 %8.1fus  p99 %8.1fus%n", transport,
+                total / 1000.0 / latencies.length,
+                latencies[latencies.length / 2] / 1000.0,
+                latencies[(int) (latencies.length * 0.9)] / 1000.0,
+                latencies[(int) (latencies.length * 0.99)] / 1000.0);
+    }
+
     private int runResendTest() throws Exception {
         SyncServiceClient syncClient = createSyncServiceClient();
         syncClient.resend();
@@ -192,8 +240,11 @@ public class ManualTester {
 
             appKey = cmd.getOptionValue("appKey", "");
             appSecret = cmd.getOptionValue("appSecret", "");
+
+            socketFile = cmd.getOptionValue("socketFile", "");
+            iterations = Integer.parseInt(cmd.getOptionValue("iterations", "10000"));
         }
-        catch (ParseException e) {
+        catch (ParseException | NumberFormatException e) {
             System.out.println(e.getMessage());
 
             return 1;
@@ -205,6 +256,17 @@ public class ManualTester {
     private void setupOptions() {
         Options options;
 
+        // latency
+        options = new Options();
+        addCommonOptions(options);
+        options.addOption("org", "orgID", true, "Specify the organization ID of the object (optional)");
+        options.addOption("ot", "objectType", true, "Specify the object type of the object whose status is queried");
+        options.addOption("oid", "objectID", true, "Specify the object ID of the object whose status is queried");
+        options.addOption("sf", "socketFile", true, "Specify the Unix socket file of the Sync Service");
+        options.getOption("socketFile").setRequired(true);
+        options.addOption("n", "iterations", true, "Specify the number of requests to send over each transport");
+        optionsMap.put(Tests.LATENCY, options);
+
         // objectStatus
         options = new Options();
         addCommonOptions(options);
@@ -230,15 +292,20 @@ public class ManualTester {
     }
 
     private void addCommonOptions(Options options) {
-        options.addOption("p", "serverProtocol", true, "Specify the protocol of the Cloud Sync Service");
-        options.addOption("s", "serverAddress", true, "Specify the address and port of the Cloud Sync Service");
+        options.addOption("p", "serverProtocol", true, "Specify the protocol of the Sync Service (http, https, unix or secure-unix)");
+        options.addOption("s", "serverAddress", true, "Specify the address and port (or socket file) of the Sync Service");
         options.addOption("key", "appKey", true, "Specify the app key to be used when connecting to the Sync Service");
         options.addOption("secret", "appSecret", false, "Specify the app secret to be used when connecting to the Sync Service");
     }
 
     private SyncServiceClient createSyncServiceClient() throws MalformedURLException {
-        return new SyncServiceClient.Builder()
-           .withUrl(new URL(serverProtocol + "://" + serverAddress))
+        SyncServiceClient.Builder builder = new SyncServiceClient.Builder();
+        if (serverProtocol.equals("unix") || serverProtocol.equals("secure-unix")) {
+            builder.withUnixSocket(Paths.get(serverAddress), serverProtocol.equals("secure-unix"));
+        } else {
+            builder.withUrl(new URL(serverProtocol + "://" + serverAddress));
+        }
+        return builder
            .withAppKeyAndAppSecret(appKey, appSecret)
            .withOrgID(orgID)
            .build();
@@ -247,6 +314,8 @@ public class ManualTester {
     private void showUsage() {
         System.out.println("ManualTester help");
         System.out.println("");
+        System.out.println("ManualTester latency");
+        System.out.println("");
         System.out.println("ManualTester objstatus");
         System.out.println("");
         System.out.println("ManualTester resend");
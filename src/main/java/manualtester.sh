@@ -15,6 +15,20 @@ CP=${CP}${mvnRepo}com/squareup/okio/okio/1.14.0/okio-1.14.0.jar:
 CP=${CP}${mvnRepo}com/fasterxml/jackson/core/jackson-databind/2.7.2/jackson-databind-2.7.2.jar:
 CP=${CP}${mvnRepo}com/squareup/retrofit2/converter-jackson/2.2.0/converter-jackson-2.2.0.jar:
 CP=${CP}${mvnRepo}com/squareup/retrofit2/converter-scalars/2.2.0/converter-scalars-2.2.0.jar:
+CP=${CP}${mvnRepo}com/github/jnr/jnr-unixsocket/0.38.21/jnr-unixsocket-0.38.21.jar:
+CP=${CP}${mvnRepo}com/github/jnr/jnr-ffi/2.2.15/jnr-ffi-2.2.15.jar:
+CP=${CP}${mvnRepo}com/github/jnr/jffi/1.3.12/jffi-1.3.12.jar:
+CP=${CP}${mvnRepo}com/github/jnr/jffi/1.3.12/jffi-1.3.12-native.jar:
+CP=${CP}${mvnRepo}org/ow2/asm/asm/9.2/asm-9.2.jar:
+CP=${CP}${mvnRepo}org/ow2/asm/asm-commons/9.2/asm-commons-9.2.jar:
+CP=${CP}${mvnRepo}org/ow2/asm/asm-analysis/9.2/asm-analysis-9.2.jar:
+CP=${CP}${mvnRepo}org/ow2/asm/asm-tree/9.2/asm-tree-9.2.jar:
+CP=${CP}${mvnRepo}org/ow2/asm/asm-util/9.2/asm-util-9.2.jar:
+CP=${CP}${mvnRepo}com/github/jnr/jnr-a64asm/1.0.0/jnr-a64asm-1.0.0.jar:
+CP=${CP}${mvnRepo}com/github/jnr/jnr-x86asm/1.0.2/jnr-x86asm-1.0.2.jar:
+CP=${CP}${mvnRepo}com/github/jnr/jnr-constants/0.10.4/jnr-constants-0.10.4.jar:
+CP=${CP}${mvnRepo}com/github/jnr/jnr-enxio/0.32.16/jnr-enxio-0.32.16.jar:
+CP=${CP}${mvnRepo}com/github/jnr/jnr-posix/3.1.18/jnr-posix-3.1.18.jar:
 CP=${CP}${mvnRepo}commons-cli/commons-cli/1.3.1/commons-cli-1.3.1.jar
 
 java -cp ${CP} com.horizon.syncservice.tests.ManualTester $*
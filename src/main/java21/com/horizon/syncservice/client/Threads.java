@@ -0,0 +1,45 @@
+package com.horizon.syncservice.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Internal helpers that create the threads of the library, either platform threads or virtual threads.
+ * <p>This is the Java 21 version, from the multi-release jar.
+ */
+final class Threads {
+
+    private Threads() {
+    }
+
+    /**
+     * Check whether virtual threads are supported by the running Java version.
+     * @return <code>true</code> on Java 21 and later.
+     */
+    static boolean isVirtualSupported() {
+        return true;
+    }
+
+    /**
+     * Get a factory of named daemon threads.
+     * @param name The name of the threads.
+     * @param virtual If <code>true</code>, the factory creates virtual threads, which are always daemon threads.
+     * @return The thread factory.
+     */
+    static ThreadFactory factory(String name, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(name).factory();
+        }
+        return Thread.ofPlatform().name(name).daemon(true).factory();
+    }
+
+    /**
+     * Create an ExecutorService that runs each task on a new virtual thread.
+     * @param name The prefix of the name of the threads, which is followed by a sequence number.
+     * @return The ExecutorService.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+}
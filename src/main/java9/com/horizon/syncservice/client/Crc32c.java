@@ -0,0 +1,32 @@
+package com.horizon.syncservice.client;
+
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * An internal CRC-32C (Castagnoli) {@link Checksum Checksum}, the checksum of iSCSI, ext4 and Google Cloud Storage.
+ * <p>This is the Java 9 version, from the multi-release jar, which uses the JDK's {@link CRC32C CRC32C}.
+ */
+final class Crc32c implements Checksum {
+    private final CRC32C crc = new CRC32C();
+
+    @Override
+    public void update(int b) {
+        crc.update(b);
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+        crc.update(b, off, len);
+    }
+
+    @Override
+    public long getValue() {
+        return crc.getValue();
+    }
+
+    @Override
+    public void reset() {
+        crc.reset();
+    }
+}
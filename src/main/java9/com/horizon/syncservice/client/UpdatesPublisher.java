@@ -0,0 +1,83 @@
+package com.horizon.syncservice.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+/**
+ * A {@link Flow.Publisher Flow.Publisher} of the updates of objects of a specific object type.
+ * <p>Each subscriber gets its own stream of updates. The Sync Service is polled with
+ * {@link SyncServiceAsyncClient#getUpdatedObjects(String, boolean) getUpdatedObjects} only while the subscriber
+ * has requested more updates than it received, and no more often than the poll interval, so a slow subscriber
+ * slows the polling down instead of piling up updates. No thread waits while a poll is in flight, and cancelling
+ * the subscription cancels the poll's HTTP call.
+ * <p>As with {@link SyncServiceClient#startPollingForUpdates(String, long, java.util.function.Consumer)
+ * startPollingForUpdates}, the first poll also returns objects that were already marked as received, and an
+ * update is passed to the subscriber once: an object is passed again only when a new instance of it (a different
+ * instance ID) or its deletion appears, or after it disappeared from the list of updates.
+ * <p>Failed polls are logged and retried after the poll interval. The stream never completes, it ends when the
+ * subscription is cancelled. It fails with an IllegalArgumentException if the subscriber requests a non-positive
+ * number of updates.
+ * <p>This class is available on Java 9 and later, from the multi-release jar.
+ */
+public class UpdatesPublisher implements Flow.Publisher<SyncServiceMetaData> {
+
+    private final SyncServiceAsyncClient client;
+    private final String objectType;
+    private final long pollIntervalMillis;
+
+    private UpdatesPublisher(SyncServiceAsyncClient client, String objectType, long pollIntervalMillis) {
+        this.client = client;
+        this.objectType = objectType;
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    /**
+     * Create a publisher of the updates of objects of the specified objectType.
+     * @param client The client used to poll for the updates.
+     * @param objectType specifies the type of objects the publisher publishes the updates of.
+     * @param pollIntervalMillis The shortest time, in milli-seconds, between the starts of two polls.
+     * @return The publisher.
+     */
+    public static UpdatesPublisher create(SyncServiceClient client, String objectType, long pollIntervalMillis) {
+        checkArgument(pollIntervalMillis > 0, "Non-positive value");
+        return new UpdatesPublisher(client.async(), objectType, pollIntervalMillis);
+    }
+
+    /**
+     * Get the object type whose updates are published.
+     * @return The object type whose updates are published.
+     */
+    public String getObjectType() {
+        return objectType;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super SyncServiceMetaData> subscriber) {
+        Objects.requireNonNull(subscriber);
+        UpdatesSubscription subscription = new UpdatesSubscription(client, objectType, pollIntervalMillis,
+                new UpdatesSubscription.Sink() {
+                    @Override
+                    public void onNext(SyncServiceMetaData object) {
+                        subscriber.onNext(object);
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        subscriber.onError(error);
+                    }
+                });
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                subscription.request(n);
+            }
+
+            @Override
+            public void cancel() {
+                subscription.cancel();
+            }
+        });
+    }
+}